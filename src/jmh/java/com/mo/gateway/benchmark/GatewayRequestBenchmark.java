@@ -0,0 +1,113 @@
+package com.mo.gateway.benchmark;
+
+import com.mo.gateway.model.dto.GatewayRequest;
+import com.mo.gateway.model.dto.RequestHeaders;
+import com.mo.gateway.util.RequestIds;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.HttpHeaders;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request envelope cost: building a GatewayRequest and reading its identity as often as one
+ * request does (controller, pipeline, rate limiter, load balancer, error path).
+ * The legacy variants reproduce the previous envelope, a SecureRandom UUID per request and the
+ * identity derived from the headers on every lookup (its INFO log line left out), as the
+ * baseline. Run with -prof gc to compare allocations per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class GatewayRequestBenchmark {
+
+    /**
+     * Identity lookups made while a request goes through the gateway
+     */
+    private static final int IDENTITY_LOOKUPS = 5;
+
+    private final RequestHeaders headers = headers();
+
+    @Benchmark
+    public void envelope(Blackhole blackhole) {
+        var request = GatewayRequest.builder()
+                .path("/api/users/42")
+                .method("GET")
+                .headers(headers)
+                .rawQuery("expand=orders")
+                .build();
+        blackhole.consume(request.id());
+        for (var i = 0; i < IDENTITY_LOOKUPS; i++) {
+            blackhole.consume(request.getClientIdentifier());
+        }
+    }
+
+    @Benchmark
+    public void legacyEnvelope(Blackhole blackhole) {
+        var request = GatewayRequest.builder()
+                .id(UUID.randomUUID().toString())
+                .clientId("")
+                .path("/api/users/42")
+                .method("GET")
+                .headers(headers)
+                .rawQuery("expand=orders")
+                .build();
+        blackhole.consume(request.id());
+        for (var i = 0; i < IDENTITY_LOOKUPS; i++) {
+            blackhole.consume(legacyClientIdentifier(request.headers()));
+        }
+    }
+
+    @Benchmark
+    public String requestId() {
+        return RequestIds.next();
+    }
+
+    @Benchmark
+    public String legacyRequestId() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Identity lookup as GatewayRequest.getClientIdentifier did it before memoization
+     */
+    private static String legacyClientIdentifier(RequestHeaders headers) {
+        var apiKey = headers.get("X-API-Key");
+        if (apiKey != null && !apiKey.isEmpty()) return apiKey;
+        var authHeader = headers.get("Authorization");
+        if (authHeader != null && !authHeader.isEmpty()) return "auth-client";
+        var forwardedFor = headers.get("X-Forwarded-For");
+        if (forwardedFor != null && !forwardedFor.isEmpty()) {
+            var ips = forwardedFor.split(",");
+            if (ips.length > 0 && ips[0] != null) {
+                var ip = ips[0].trim();
+                if (!ip.isEmpty()) {
+                    return ip;
+                }
+            }
+        }
+        return "anonymous";
+    }
+
+    private static RequestHeaders headers() {
+        var headers = new HttpHeaders();
+        headers.add(HttpHeaders.HOST, "gateway.example.com");
+        headers.add(HttpHeaders.USER_AGENT, "Mozilla/5.0 (X11; Linux x86_64)");
+        headers.add(HttpHeaders.ACCEPT, "application/json");
+        headers.add(HttpHeaders.ACCEPT_ENCODING, "gzip, br");
+        headers.add("X-Forwarded-For", "203.0.113.7, 10.0.0.12, 10.0.0.1");
+        return RequestHeaders.of(HttpHeaders.readOnlyHttpHeaders(headers));
+    }
+}
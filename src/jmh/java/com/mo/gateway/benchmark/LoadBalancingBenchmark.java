@@ -0,0 +1,87 @@
+package com.mo.gateway.benchmark;
+
+import com.mo.gateway.component.loadbalancer.LeastConnectionsStrategy;
+import com.mo.gateway.component.loadbalancer.RoundRobinStrategy;
+import com.mo.gateway.component.loadbalancer.WeightedRoundRobinStrategy;
+import com.mo.gateway.model.dto.GatewayRequest;
+import com.mo.gateway.model.loadbalancer.LoadBalancerRequest;
+import com.mo.gateway.model.loadbalancer.ServiceInstance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Instance selection by each load balancing strategy for a small and a large service.
+ * Weights vary from 1 to 5 and least-connections sees a spread of active connection counts, so
+ * neither takes its trivial path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class LoadBalancingBenchmark {
+
+    @Param({"10", "1000"})
+    private int instanceCount;
+
+    private final RoundRobinStrategy roundRobin = new RoundRobinStrategy();
+
+    private final WeightedRoundRobinStrategy weightedRoundRobin = new WeightedRoundRobinStrategy();
+
+    private final LeastConnectionsStrategy leastConnections = new LeastConnectionsStrategy();
+
+    private List<ServiceInstance> instances;
+
+    private LoadBalancerRequest request;
+
+    @Setup
+    public void setUp() {
+        instances = new ArrayList<>(instanceCount);
+        for (var i = 0; i < instanceCount; i++) {
+            var instance = ServiceInstance.builder()
+                    .id(STR."catalog-\{i}")
+                    .serviceId("catalog")
+                    .host(STR."10.0.\{i / 250}.\{i % 250}")
+                    .port(8080)
+                    .weight(1 + i % 5)
+                    .build();
+            instances.add(instance);
+            for (var c = 0; c < i % 7; c++) {
+                leastConnections.incrementConnections(instance.id());
+            }
+        }
+        instances = List.copyOf(instances);
+        var gatewayRequest = GatewayRequest.builder().path("/api/catalog/items").method("GET").build();
+        request = new LoadBalancerRequest("catalog", gatewayRequest, null, Set.of());
+    }
+
+    @Benchmark
+    public ServiceInstance roundRobin() {
+        return roundRobin.select(instances, request);
+    }
+
+    @Benchmark
+    public ServiceInstance weightedRoundRobin() {
+        return weightedRoundRobin.select(instances, request);
+    }
+
+    @Benchmark
+    public ServiceInstance leastConnections() {
+        return leastConnections.select(instances, request);
+    }
+}
@@ -0,0 +1,158 @@
+package com.mo.gateway.benchmark;
+
+import com.mo.gateway.component.ratelimit.TokenBucketAlgorithm;
+import com.mo.gateway.component.ratelimit.storage.LocalRateLimitStorage;
+import com.mo.gateway.component.ratelimit.storage.RateLimitStorage;
+import com.mo.gateway.config.properties.RateLimitPolicyProperties;
+import com.mo.gateway.config.properties.RateLimitPolicyProperties.PolicyConfig;
+import com.mo.gateway.config.properties.RateLimitPolicyProperties.PolicyRule;
+import com.mo.gateway.config.properties.RateLimitProperties;
+import com.mo.gateway.model.ratelimit.RateLimitBucket;
+import com.mo.gateway.model.ratelimit.RateLimitPolicy;
+import com.mo.gateway.model.ratelimit.RateLimitRequest;
+import com.mo.gateway.model.ratelimit.RateLimitResult;
+import com.mo.gateway.model.ratelimit.RateLimitRule;
+import com.mo.gateway.service.ratelimit.ConfigurableRateLimitPolicyResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limit decision path: rule matching, policy resolution over a realistic rule set and a
+ * token bucket check. The resolver runs on the calling thread and the bucket lives in an
+ * in-memory storage, so neither an executor hand-off nor Redis is part of the measurement. The
+ * local variant checks the same bucket in the gateway's in-process storage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class RateLimitBenchmark {
+
+    private final RateLimitRequest request = RateLimitRequest.builder()
+            .clientId("premium-4711")
+            .resource("/api/orders/42")
+            .method("GET")
+            .build();
+
+    private final RateLimitRule rule = RateLimitRule.builder()
+            .clientPattern("premium-.*")
+            .resourcePattern("/api/orders/.*")
+            .methodPattern("GET|HEAD")
+            .priority(10)
+            .build();
+
+    private final TokenBucketAlgorithm tokenBucket = new TokenBucketAlgorithm();
+
+    private final RateLimitStorage storage = new InMemoryStorage();
+
+    private final RateLimitPolicy policy = RateLimitPolicy.builder()
+            .name("premium")
+            .capacity(Long.MAX_VALUE / 2)
+            .refillRate(1_000_000)
+            .windowSizeMs(60_000)
+            .algorithmType("tokenBucket")
+            .requestCost(1)
+            .build();
+
+    private ConfigurableRateLimitPolicyResolver resolver;
+
+    private ThreadPoolTaskScheduler scheduler;
+
+    private LocalRateLimitStorage localStorage;
+
+    @Setup
+    public void setUp() {
+        var policies = Map.of(
+                "default", PolicyConfig.basic(),
+                "premium", PolicyConfig.premium(),
+                "free", PolicyConfig.free(),
+                "admin", PolicyConfig.admin(),
+                "strict", PolicyConfig.strict());
+        var rules = List.of(
+                PolicyRule.forClient("admin-.*", "admin", 100),
+                PolicyRule.forClient("premium-.*", "premium", 50),
+                PolicyRule.forClient("free-.*", "free", 10),
+                PolicyRule.forResource("/api/auth/.*", "strict", 200),
+                PolicyRule.forMethod("DELETE", "strict", 150));
+        resolver = new ConfigurableRateLimitPolicyResolver(new RateLimitProperties(),
+                new RateLimitPolicyProperties(policies, rules), Runnable::run);
+        resolver.initializePolicies();
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.initialize();
+        localStorage = new LocalRateLimitStorage(new RateLimitProperties(), new SimpleMeterRegistry(), scheduler);
+    }
+
+    @TearDown
+    public void tearDown() {
+        localStorage.destroy();
+        scheduler.shutdown();
+    }
+
+    @Benchmark
+    public boolean ruleMatches() {
+        return rule.matches(request);
+    }
+
+    @Benchmark
+    public RateLimitPolicy resolvePolicy() {
+        return resolver.resolvePolicy(request).join();
+    }
+
+    @Benchmark
+    public RateLimitResult tokenBucket() {
+        return tokenBucket.checkLimit("rate_limit:premium:premium-4711:/api/orders/42", policy, storage).join();
+    }
+
+    @Benchmark
+    public RateLimitResult localTokenBucket() {
+        return tokenBucket.checkLimit("rate_limit:premium:premium-4711:/api/orders/42", policy, localStorage).join();
+    }
+
+    /**
+     * Map-backed storage with already completed futures
+     */
+    private static final class InMemoryStorage implements RateLimitStorage {
+
+        private final Map<String, RateLimitBucket> buckets = new ConcurrentHashMap<>();
+
+        @Override
+        public CompletableFuture<Long> increment(String key, long expiration) {
+            return CompletableFuture.completedFuture(0L);
+        }
+
+        @Override
+        public CompletableFuture<RateLimitBucket> getBucket(String key) {
+            return CompletableFuture.completedFuture(buckets.get(key));
+        }
+
+        @Override
+        public CompletableFuture<Void> setBucket(String key, RateLimitBucket bucket, long ttl) {
+            buckets.put(key, bucket);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Boolean> setIfNotExists(String key, RateLimitBucket bucket, long ttl) {
+            return CompletableFuture.completedFuture(buckets.putIfAbsent(key, bucket) == null);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.mo.gateway.service;
+
+import com.mo.gateway.model.dto.GatewayRequest;
+import com.mo.gateway.model.loadbalancer.ServiceInstance;
+import com.mo.gateway.model.routing.Route;
+import com.mo.gateway.model.routing.RouteMatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upstream URL construction for every forwarded request, with and without a query string.
+ * Lives in the service package because GatewayService.buildTargetUrl is package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class TargetUrlBenchmark {
+
+    private final ServiceInstance instance = ServiceInstance.builder()
+            .id("catalog-1")
+            .serviceId("catalog")
+            .host("10.0.3.17")
+            .port(8080)
+            .build();
+
+    private final RouteMatch route = new RouteMatch(Route.convention("catalog"), "/items/42");
+
+    private final GatewayRequest withQuery = GatewayRequest.builder()
+            .path("/api/catalog/items/42")
+            .method("GET")
+            .rawQuery("expand=prices&locale=en-US")
+            .build();
+
+    private final GatewayRequest withoutQuery = GatewayRequest.builder()
+            .path("/api/catalog/items/42")
+            .method("GET")
+            .build();
+
+    @Benchmark
+    public URI withQuery() {
+        return GatewayService.buildTargetUrl(instance, route, withQuery);
+    }
+
+    @Benchmark
+    public URI withoutQuery() {
+        return GatewayService.buildTargetUrl(instance, route, withoutQuery);
+    }
+}
@@ -0,0 +1,84 @@
+package com.mo.gateway.loadtest;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.util.unit.DataSize;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Distribution of a latency or payload size
+ * fixed (value), uniform (min, max), exponential (mean) or lognormal (median, p99); values use
+ * duration or size notation depending on what is sampled. A plain value is a fixed distribution.
+ */
+public record Distribution(
+        String type,
+        String value,
+        String min,
+        String max,
+        String mean,
+        String median,
+        String p99
+) {
+    /**
+     * Standard normal quantile of the 99th percentile
+     */
+    private static final double Z_99 = 2.3263478740;
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Distribution fixed(String value) {
+        return new Distribution("fixed", value, null, null, null, null, null);
+    }
+
+    /**
+     * Sampler returning nanoseconds
+     */
+    public LongSupplier nanos() {
+        return sampler(text -> DurationStyle.detectAndParse(text).toNanos());
+    }
+
+    /**
+     * Sampler returning bytes
+     */
+    public LongSupplier bytes() {
+        return sampler(text -> DataSize.parse(text).toBytes());
+    }
+
+    private LongSupplier sampler(ToLongFunction<String> unit) {
+        return switch (type == null ? "fixed" : type) {
+            case "fixed" -> {
+                var fixed = unit.applyAsLong(require(value, "value"));
+                yield () -> fixed;
+            }
+            case "uniform" -> {
+                var low = unit.applyAsLong(require(min, "min"));
+                var high = unit.applyAsLong(require(max, "max"));
+                yield () -> low == high ? low : ThreadLocalRandom.current().nextLong(low, high + 1);
+            }
+            case "exponential" -> {
+                var average = (double) unit.applyAsLong(require(mean, "mean"));
+                yield () -> (long) (-average * Math.log(1 - ThreadLocalRandom.current().nextDouble()));
+            }
+            case "lognormal" -> {
+                var middle = (double) unit.applyAsLong(require(median, "median"));
+                var tail = (double) unit.applyAsLong(require(p99, "p99"));
+                if (middle <= 0 || tail < middle) {
+                    throw new IllegalArgumentException("lognormal needs 0 < median <= p99");
+                }
+                var mu = Math.log(middle);
+                var sigma = Math.log(tail / middle) / Z_99;
+                yield () -> (long) Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian());
+            }
+            default -> throw new IllegalArgumentException(STR."Unknown distribution type: \{type}");
+        };
+    }
+
+    private String require(String field, String name) {
+        if (field == null) {
+            throw new IllegalArgumentException(STR."\{type} distribution needs \{name}");
+        }
+        return field;
+    }
+}
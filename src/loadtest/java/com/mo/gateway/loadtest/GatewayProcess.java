@@ -0,0 +1,180 @@
+package com.mo.gateway.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Gateway under test, run as a child JVM on the harness classpath
+ * Its working directory (logs, access log) is the scenario's output directory, its output goes
+ * to gateway.out there. Admin and actuator calls are made on the same port as traffic.
+ */
+final class GatewayProcess implements AutoCloseable {
+
+    private static final String MAIN_CLASS = "com.mo.gateway.GatewayApplication";
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final int port;
+
+    private final Process process;
+
+    GatewayProcess(Scenario.Gateway gateway, int redisPort, Path workDir) throws IOException {
+        this.port = freePort();
+        var properties = new LinkedHashMap<String, String>();
+        properties.put("server.port", String.valueOf(port));
+        properties.put("spring.profiles.active", "default");
+        properties.put("spring.data.redis.host", "127.0.0.1");
+        properties.put("spring.data.redis.port", String.valueOf(redisPort));
+        properties.put("gateway.discovery.type", "memory");
+        properties.put("gateway.auth.enabled", "false");
+        properties.putAll(gateway.properties());
+        var command = new ArrayList<String>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("--enable-preview");
+        command.addAll(gateway.jvmArgs());
+        command.add("-cp");
+        command.add(gatewayClassPath());
+        command.add(MAIN_CLASS);
+        properties.forEach((name, value) -> command.add(STR."--\{name}=\{value}"));
+        Files.createDirectories(workDir);
+        this.process = new ProcessBuilder(command)
+                .directory(workDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(workDir.resolve("gateway.out").toFile())
+                .start();
+        // Do not leave the gateway running when the harness is interrupted
+        Runtime.getRuntime().addShutdownHook(new Thread(process::destroy));
+    }
+
+    int port() {
+        return port;
+    }
+
+    URI uri(String path) {
+        return URI.create(STR."http://127.0.0.1:\{port}\{path}");
+    }
+
+    /**
+     * Wait until the gateway answers its health endpoint
+     */
+    void awaitReady() throws IOException, InterruptedException {
+        var deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IOException(STR."Gateway exited with status \{process.exitValue()}, see gateway.out");
+            }
+            try {
+                var response = client.send(HttpRequest.newBuilder(uri("/admin/health")).GET().build(),
+                        HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(500);
+        }
+        throw new IOException(STR."Gateway not ready after \{STARTUP_TIMEOUT}");
+    }
+
+    void register(StubBackend backend) throws IOException, InterruptedException {
+        var instance = Map.of(
+                "id", backend.id(),
+                "serviceId", backend.service(),
+                "host", "127.0.0.1",
+                "port", backend.port());
+        var request = HttpRequest.newBuilder(uri(STR."/admin/services/\{backend.service()}/instances"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(instance)))
+                .build();
+        expectOk(client.send(request, HttpResponse.BodyHandlers.ofString()));
+    }
+
+    void deregister(StubBackend backend) throws IOException, InterruptedException {
+        var request = HttpRequest.newBuilder(
+                        uri(STR."/admin/services/\{backend.service()}/instances/\{backend.id()}"))
+                .DELETE()
+                .build();
+        expectOk(client.send(request, HttpResponse.BodyHandlers.ofString()));
+    }
+
+    /**
+     * CPU time used by the gateway process so far
+     */
+    long cpuNanos() {
+        return process.info().totalCpuDuration().map(Duration::toNanos).orElse(0L);
+    }
+
+    /**
+     * Read a gateway metric statistic (VALUE, COUNT, TOTAL_TIME...), NaN when it does not exist
+     */
+    double metric(String name, String statistic) throws InterruptedException {
+        try {
+            var response = client.send(HttpRequest.newBuilder(uri(STR."/actuator/metrics/\{name}")).GET().build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                return Double.NaN;
+            }
+            for (var measurement : objectMapper.readTree(response.body()).path("measurements")) {
+                if (statistic.equals(measurement.path("statistic").asText())) {
+                    return measurement.path("value").asDouble();
+                }
+            }
+        } catch (IOException e) {
+            // Reported as missing
+        }
+        return Double.NaN;
+    }
+
+    private static void expectOk(HttpResponse<String> response) throws IOException {
+        if (response.statusCode() != 200) {
+            throw new IOException(STR."Admin call failed with \{response.statusCode()}: \{response.body()}");
+        }
+    }
+
+    /**
+     * The harness classpath without the test classes, so the harness logging configuration and
+     * scenarios stay out of the gateway
+     */
+    private static String gatewayClassPath() {
+        return Arrays.stream(System.getProperty("java.class.path").split(File.pathSeparator))
+                .filter(entry -> !Path.of(entry).endsWith("test-classes"))
+                .collect(Collectors.joining(File.pathSeparator));
+    }
+
+    private static int freePort() throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.mo.gateway.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test report
+ * Printed as a summary and written as JSON; latencies are in milliseconds, "latency" is
+ * corrected for coordinated omission and "service-time" is not.
+ */
+final class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private static final String[] LABELS = {"p50", "p90", "p99", "p99.9", "p99.99"};
+
+    private final Map<String, Object> report = new LinkedHashMap<>();
+
+    LoadReport(Scenario scenario, OpenLoopDriver.Run run, GatewayUsage usage,
+               List<StubBackend> backends, RedisStandIn redis, int churnEvents) {
+        var seconds = run.elapsedNanos / 1e9;
+        report.put("scenario", scenario.name());
+        report.put("offered-rate", scenario.rate());
+        report.put("duration-s", round(seconds));
+        report.put("throughput-rps", round(run.total.count() / seconds));
+        report.putAll(summary(run.total));
+        report.put("unfinished", run.unfinished);
+        report.put("max-send-lag-ms", round(TimeUnit.NANOSECONDS.toMicros(run.sendLag.get()) / 1000.0));
+        var gateway = new LinkedHashMap<String, Object>();
+        gateway.put("cpu-cores", round(usage.cpuNanos() / (double) run.elapsedNanos));
+        gateway.put("cpu-us-per-request", round(usage.cpuNanos() / 1000.0 / Math.max(1, run.total.count())));
+        gateway.put("allocated-mb", round(usage.allocatedBytes() / (1024.0 * 1024)));
+        gateway.put("allocated-kb-per-request",
+                round(usage.allocatedBytes() / 1024.0 / Math.max(1, run.total.count())));
+        report.put("gateway", gateway);
+        var traffic = new LinkedHashMap<String, Object>();
+        for (var i = 0; i < run.names.size(); i++) {
+            traffic.put(run.names.get(i), summary(run.perTraffic.get(i)));
+        }
+        report.put("traffic", traffic);
+        var instances = new TreeMap<String, Long>();
+        backends.forEach(backend -> instances.put(backend.id(), backend.requests()));
+        report.put("backend-requests", instances);
+        report.put("redis-commands", redis.commands());
+        report.put("churn-events", churnEvents);
+    }
+
+    private static Map<String, Object> summary(OpenLoopDriver.Stats stats) {
+        var summary = new LinkedHashMap<String, Object>();
+        summary.put("requests", stats.count());
+        summary.put("errors", stats.errors());
+        summary.put("error-rate", stats.count() == 0 ? 0 : round((double) stats.errors() / stats.count()));
+        var outcomes = new TreeMap<String, Long>();
+        stats.outcomes.forEach((outcome, count) -> outcomes.put(outcome, count.sum()));
+        summary.put("outcomes", outcomes);
+        summary.put("latency-ms", percentiles(stats.latency));
+        summary.put("service-time-ms", percentiles(stats.serviceTime));
+        summary.put("sent-mb", round(stats.bytesSent.sum() / (1024.0 * 1024)));
+        summary.put("received-mb", round(stats.bytesReceived.sum() / (1024.0 * 1024)));
+        return summary;
+    }
+
+    private static Map<String, Double> percentiles(Histogram histogram) {
+        var values = new LinkedHashMap<String, Double>();
+        for (var i = 0; i < PERCENTILES.length; i++) {
+            values.put(LABELS[i], round(histogram.getValueAtPercentile(PERCENTILES[i]) / 1000.0));
+        }
+        values.put("max", round(histogram.getMaxValue() / 1000.0));
+        values.put("mean", round(histogram.getMean() / 1000.0));
+        return values;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    void print(PrintStream out) throws IOException {
+        out.println(mapper().writeValueAsString(report));
+    }
+
+    void write(Path file) throws IOException {
+        mapper().writeValue(file.toFile(), report);
+    }
+
+    private static ObjectMapper mapper() {
+        return new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    /**
+     * CPU time and heap allocation of the gateway process over the measured run
+     */
+    record GatewayUsage(long cpuNanos, long allocatedBytes) {
+    }
+}
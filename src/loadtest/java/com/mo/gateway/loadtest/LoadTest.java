@@ -0,0 +1,118 @@
+package com.mo.gateway.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * End-to-end load test
+ * Starts a Redis stand-in and the scenario's stub backends, boots the gateway against them with
+ * in-memory discovery, registers the backends through the admin API and drives open-loop
+ * traffic: a warmup run, then the measured run. Gateway CPU time and heap allocation cover the
+ * measured run only. The report is printed and written to target/loadtest/{scenario}/report.json.
+ * <p>
+ * Run with: mvn -P loadtest test-compile exec:exec -Dloadtest.scenario=slow-backends
+ * (a scenario name under src/loadtest/resources/scenarios or the path of a scenario file)
+ */
+public final class LoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTest.class);
+
+    private static final String ALLOCATED_METRIC = "jvm.gc.memory.allocated";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        var scenario = Scenario.load(args.length > 0 ? args[0] : "slow-backends");
+        var outputDir = Path.of("target", "loadtest", scenario.name());
+        var backends = new ArrayList<StubBackend>();
+        try (var redis = new RedisStandIn()) {
+            var sequence = new HashMap<String, Integer>();
+            for (var backend : scenario.backends()) {
+                for (var i = 0; i < backend.instances(); i++) {
+                    var number = sequence.merge(backend.service(), 1, Integer::sum);
+                    backends.add(new StubBackend(backend.service(), STR."\{backend.service()}-\{number}", backend));
+                }
+            }
+            log.info("Started {} stub backends and the Redis stand-in on port {}", backends.size(), redis.port());
+            try (var gateway = new GatewayProcess(scenario.gateway(), redis.port(), outputDir)) {
+                gateway.awaitReady();
+                for (var backend : backends) {
+                    if (!backend.standby()) {
+                        gateway.register(backend);
+                    }
+                }
+                log.info("Gateway ready on port {}", gateway.port());
+                var churnEvents = new AtomicInteger();
+                var churn = scenario.churn() == null ? null
+                        : Thread.ofVirtual().name("instance-churn")
+                                .start(() -> churn(scenario.churn(), gateway, backends, churnEvents));
+                try {
+                    var driver = new OpenLoopDriver(gateway, scenario);
+                    log.info("Warming up for {} at {} requests/s", scenario.warmup(), scenario.rate());
+                    driver.run(scenario.rate(), scenario.warmup());
+                    backends.forEach(StubBackend::reset);
+                    redis.reset();
+                    churnEvents.set(0);
+                    var cpuBefore = gateway.cpuNanos();
+                    var allocatedBefore = gateway.metric(ALLOCATED_METRIC, "COUNT");
+                    log.info("Measuring for {} at {} requests/s", scenario.duration(), scenario.rate());
+                    var run = driver.run(scenario.rate(), scenario.duration());
+                    var usage = new LoadReport.GatewayUsage(gateway.cpuNanos() - cpuBefore,
+                            (long) (gateway.metric(ALLOCATED_METRIC, "COUNT") - allocatedBefore));
+                    var report = new LoadReport(scenario, run, usage, backends, redis, churnEvents.get());
+                    report.print(System.out);
+                    report.write(outputDir.resolve("report.json"));
+                    log.info("Report written to {}", outputDir.resolve("report.json").toAbsolutePath());
+                } finally {
+                    if (churn != null) {
+                        churn.interrupt();
+                    }
+                }
+            }
+        } finally {
+            backends.forEach(StubBackend::close);
+        }
+    }
+
+    /**
+     * Replace the longest registered instance of the service by a stopped or standby one every
+     * interval; with no spare instance the removed one comes back on the next change
+     */
+    private static void churn(Scenario.Churn churn, GatewayProcess gateway, List<StubBackend> backends,
+                              AtomicInteger events) {
+        var registered = new ArrayDeque<StubBackend>();
+        var spare = new ArrayDeque<StubBackend>();
+        for (var backend : backends) {
+            if (backend.service().equals(churn.service())) {
+                (backend.standby() ? spare : registered).add(backend);
+            }
+        }
+        try {
+            while (!registered.isEmpty()) {
+                Thread.sleep(churn.interval());
+                var removed = registered.poll();
+                gateway.deregister(removed);
+                var added = spare.isEmpty() ? removed : spare.poll();
+                if (added != removed) {
+                    spare.add(removed);
+                }
+                gateway.register(added);
+                registered.add(added);
+                events.incrementAndGet();
+                log.debug("Churn replaced {} with {}", removed.id(), added.id());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Instance churn stopped", e);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.mo.gateway.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Open-loop load generator
+ * Requests are started at a constant arrival rate whatever the gateway's response times, each
+ * on its own virtual thread. Latency is measured from the time a request was scheduled to start,
+ * not from the time it was sent, so a stalled gateway or a late sender shows in the percentiles
+ * instead of silently lowering the offered load (coordinated omission). The time from send to
+ * response is kept separately as service time.
+ */
+final class OpenLoopDriver {
+
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private static final byte[] FILLER = "x".repeat(64 * 1024).getBytes();
+
+    private final GatewayProcess gateway;
+
+    private final HttpClient client;
+
+    private final Duration timeout;
+
+    private final List<Target> targets = new ArrayList<>();
+
+    private final int totalWeight;
+
+    private record Target(Scenario.Traffic traffic, LongSupplier bodySize, int upTo) {
+    }
+
+    OpenLoopDriver(GatewayProcess gateway, Scenario scenario) {
+        this.gateway = gateway;
+        this.timeout = scenario.timeout();
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        var weight = 0;
+        for (var traffic : scenario.traffic()) {
+            weight += traffic.weight();
+            targets.add(new Target(traffic, traffic.body().bytes(), weight));
+        }
+        if (weight == 0) {
+            throw new IllegalArgumentException("Scenario has no traffic");
+        }
+        this.totalWeight = weight;
+    }
+
+    /**
+     * Offer rate requests per second for the duration, then wait for the requests still in
+     * flight (at most the request timeout)
+     */
+    Run run(int rate, Duration duration) throws InterruptedException {
+        var run = new Run(targets.stream().map(target -> target.traffic().name()).toList());
+        var inFlight = new AtomicInteger();
+        var interval = TimeUnit.SECONDS.toNanos(1) / (double) rate;
+        var start = System.nanoTime();
+        var end = start + duration.toNanos();
+        for (long i = 0; ; i++) {
+            var intended = start + (long) (i * interval);
+            if (intended >= end) break;
+            long now;
+            while ((now = System.nanoTime()) < intended) {
+                LockSupport.parkNanos(intended - now);
+            }
+            run.sendLag.accumulateAndGet(now - intended, Math::max);
+            var index = pick();
+            inFlight.incrementAndGet();
+            Thread.ofVirtual().start(() -> {
+                try {
+                    send(targets.get(index), run.total, run.perTraffic.get(index), intended);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+        var drainDeadline = System.nanoTime() + timeout.toNanos() + TimeUnit.SECONDS.toNanos(1);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        run.unfinished = inFlight.get();
+        run.elapsedNanos = System.nanoTime() - start;
+        return run;
+    }
+
+    private int pick() {
+        var ticket = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (var i = 0; i < targets.size(); i++) {
+            if (ticket < targets.get(i).upTo()) return i;
+        }
+        return targets.size() - 1;
+    }
+
+    private void send(Target target, Stats total, Stats stats, long intended) {
+        var traffic = target.traffic();
+        var path = traffic.path().replace("{random}",
+                String.valueOf(ThreadLocalRandom.current().nextInt(1_000_000)));
+        var size = target.bodySize().getAsLong();
+        var builder = HttpRequest.newBuilder(gateway.uri(path))
+                .timeout(timeout)
+                .method(traffic.method(), size == 0
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : body(size));
+        if (traffic.clientId() != null) {
+            builder.header("X-API-Key", traffic.clientId());
+        }
+        var received = new AtomicLong();
+        var sent = System.nanoTime();
+        String outcome;
+        try {
+            var response = client.send(builder.build(), HttpResponse.BodyHandlers.ofByteArrayConsumer(
+                    chunk -> chunk.ifPresent(bytes -> received.addAndGet(bytes.length))));
+            outcome = String.valueOf(response.statusCode());
+        } catch (HttpTimeoutException e) {
+            outcome = "timeout";
+        } catch (ConnectException e) {
+            outcome = "connect-error";
+        } catch (IOException e) {
+            outcome = "io-error";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        var done = System.nanoTime();
+        total.record(done - intended, done - sent, outcome, size, received.get());
+        stats.record(done - intended, done - sent, outcome, size, received.get());
+    }
+
+    private static HttpRequest.BodyPublisher body(long size) {
+        if (size <= FILLER.length) {
+            return HttpRequest.BodyPublishers.ofByteArray(FILLER, 0, (int) size);
+        }
+        var parts = new ArrayList<HttpRequest.BodyPublisher>();
+        for (var remaining = size; remaining > 0; remaining -= FILLER.length) {
+            parts.add(HttpRequest.BodyPublishers.ofByteArray(FILLER, 0, (int) Math.min(remaining, FILLER.length)));
+        }
+        return HttpRequest.BodyPublishers.concat(parts.toArray(HttpRequest.BodyPublisher[]::new));
+    }
+
+    /**
+     * Results of one run, overall and per traffic entry
+     */
+    static final class Run {
+
+        final Stats total = new Stats();
+
+        final List<Stats> perTraffic = new ArrayList<>();
+
+        final List<String> names;
+
+        final AtomicLong sendLag = new AtomicLong();
+
+        /**
+         * Requests still without a complete response once the run was over, not in the histograms
+         */
+        int unfinished;
+
+        long elapsedNanos;
+
+        Run(List<String> names) {
+            this.names = names;
+            names.forEach(name -> perTraffic.add(new Stats()));
+        }
+    }
+
+    /**
+     * Latency histograms (microseconds) and outcome counts
+     */
+    static final class Stats {
+
+        final Histogram latency = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+
+        final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+
+        final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+        final LongAdder bytesSent = new LongAdder();
+
+        final LongAdder bytesReceived = new LongAdder();
+
+        void record(long latencyNanos, long serviceNanos, String outcome, long sent, long received) {
+            latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_MICROS));
+            serviceTime.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(serviceNanos), HIGHEST_MICROS));
+            outcomes.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+            bytesSent.add(sent);
+            bytesReceived.add(received);
+        }
+
+        long count() {
+            return latency.getTotalCount();
+        }
+
+        /**
+         * Requests that did not get a 2xx or 3xx response
+         */
+        long errors() {
+            return outcomes.entrySet().stream()
+                    .filter(entry -> !entry.getKey().startsWith("2") && !entry.getKey().startsWith("3"))
+                    .mapToLong(entry -> entry.getValue().sum())
+                    .sum();
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.mo.gateway.loadtest;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Redis-compatible stand-in
+ * Speaks RESP2 over TCP with just the commands the gateway sends (strings with expiry, INCR and
+ * the rate limiter's increment script), one thread per connection. HELLO is refused so
+ * the client falls back to RESP2. Expired keys are dropped when read.
+ */
+final class RedisStandIn implements AutoCloseable {
+
+    private static final byte[] OK = "+OK\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] NIL = "$-1\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final Map<String, Value> store = new ConcurrentHashMap<>();
+
+    private final AtomicLong commands = new AtomicLong();
+
+    private final ServerSocket server;
+
+    private record Value(byte[] data, long expiresAt) {
+        boolean expired(long now) {
+            return expiresAt != 0 && expiresAt <= now;
+        }
+    }
+
+    RedisStandIn() throws IOException {
+        this.server = new ServerSocket(0, 1024, InetAddress.getLoopbackAddress());
+        Thread.ofPlatform().daemon().name("redis-stand-in").start(this::accept);
+    }
+
+    int port() {
+        return server.getLocalPort();
+    }
+
+    long commands() {
+        return commands.get();
+    }
+
+    void reset() {
+        commands.set(0);
+    }
+
+    private void accept() {
+        while (!server.isClosed()) {
+            try {
+                var socket = server.accept();
+                socket.setTcpNoDelay(true);
+                Thread.ofPlatform().daemon().name("redis-stand-in-connection").start(() -> serve(socket));
+            } catch (IOException e) {
+                // Closed
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            var in = new BufferedInputStream(socket.getInputStream());
+            var out = new BufferedOutputStream(socket.getOutputStream());
+            while (true) {
+                var command = readCommand(in);
+                if (command.isEmpty()) continue;
+                commands.incrementAndGet();
+                execute(command, out);
+                // Pipelined commands are answered together
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            // Connection closed by the client
+        }
+    }
+
+    private void execute(List<byte[]> command, OutputStream out) throws IOException {
+        var name = string(command.get(0)).toUpperCase(Locale.ROOT);
+        var now = System.currentTimeMillis();
+        switch (name) {
+            case "PING" -> out.write(command.size() > 1 ? bulk(command.get(1)) : simple("PONG"));
+            case "AUTH", "SELECT", "CLIENT", "READONLY" -> out.write(OK);
+            case "QUIT" -> {
+                out.write(OK);
+                out.flush();
+                throw new EOFException();
+            }
+            case "INFO" -> out.write(bulk("# Server\r\nredis_version:7.0.0\r\nredis_mode:standalone\r\n"
+                    .getBytes(StandardCharsets.US_ASCII)));
+            case "GET" -> {
+                var value = live(string(command.get(1)), now);
+                out.write(value == null ? NIL : bulk(value.data()));
+            }
+            case "SET" -> out.write(set(command, now));
+            case "SETEX", "PSETEX" -> {
+                var ttl = Long.parseLong(string(command.get(2)));
+                store.put(string(command.get(1)),
+                        new Value(command.get(3), now + ("SETEX".equals(name) ? ttl * 1000 : ttl)));
+                out.write(OK);
+            }
+            case "DEL", "UNLINK" -> {
+                long removed = 0;
+                for (var key : command.subList(1, command.size())) {
+                    if (store.remove(string(key)) != null) removed++;
+                }
+                out.write(integer(removed));
+            }
+            case "EXISTS" -> out.write(integer(live(string(command.get(1)), now) == null ? 0 : 1));
+            case "INCR" -> out.write(integer(incrementBy(string(command.get(1)), 1, now)));
+            case "INCRBY" -> out.write(integer(incrementBy(string(command.get(1)),
+                    Long.parseLong(string(command.get(2))), now)));
+            case "EXPIRE", "PEXPIRE" -> {
+                var ttl = Long.parseLong(string(command.get(2)));
+                out.write(integer(expire(string(command.get(1)),
+                        now + ("EXPIRE".equals(name) ? ttl * 1000 : ttl), now) ? 1 : 0));
+            }
+            case "PTTL", "TTL" -> {
+                var value = live(string(command.get(1)), now);
+                long ttl = value == null ? -2 : value.expiresAt() == 0 ? -1 : value.expiresAt() - now;
+                out.write(integer(ttl > 0 && "TTL".equals(name) ? ttl / 1000 : ttl));
+            }
+            case "DBSIZE" -> out.write(integer(store.size()));
+            case "FLUSHDB", "FLUSHALL" -> {
+                store.clear();
+                out.write(OK);
+            }
+            case "EVAL", "EVALSHA" -> out.write(integer(incrementScript(command, now)));
+            default -> out.write(error(STR."ERR unknown command '\{name}'"));
+        }
+    }
+
+    /**
+     * SET key value [EX seconds | PX milliseconds] [NX | XX]
+     */
+    private byte[] set(List<byte[]> command, long now) {
+        var key = string(command.get(1));
+        long expiresAt = 0;
+        boolean nx = false;
+        boolean xx = false;
+        for (var i = 3; i < command.size(); i++) {
+            switch (string(command.get(i)).toUpperCase(Locale.ROOT)) {
+                case "EX" -> expiresAt = now + Long.parseLong(string(command.get(++i))) * 1000;
+                case "PX" -> expiresAt = now + Long.parseLong(string(command.get(++i)));
+                case "NX" -> nx = true;
+                case "XX" -> xx = true;
+                default -> {
+                    return error("ERR syntax error");
+                }
+            }
+        }
+        var value = new Value(command.get(2), expiresAt);
+        if (nx) {
+            var stored = store.compute(key, (k, current) ->
+                    current == null || current.expired(now) ? value : current);
+            return stored == value ? OK : NIL;
+        }
+        if (xx) {
+            return store.computeIfPresent(key, (k, current) -> current.expired(now) ? null : value) == value
+                    ? OK : NIL;
+        }
+        store.put(key, value);
+        return OK;
+    }
+
+    /**
+     * The only script the gateway sends: increment KEYS[1], setting an expiry of ARGV[1] seconds
+     * when the key is created
+     */
+    private long incrementScript(List<byte[]> command, long now) {
+        var keys = Integer.parseInt(string(command.get(2)));
+        var key = string(command.get(3));
+        var seconds = keys + 3 < command.size()
+                ? Long.parseLong(string(command.get(keys + 3)).replace("\"", "")) : 0;
+        var updated = store.compute(key, (k, current) -> {
+            if (current == null || current.expired(now)) {
+                return new Value(bytes(1), seconds > 0 ? now + seconds * 1000 : 0);
+            }
+            return new Value(bytes(Long.parseLong(string(current.data())) + 1), current.expiresAt());
+        });
+        return Long.parseLong(string(updated.data()));
+    }
+
+    private long incrementBy(String key, long delta, long now) {
+        var updated = store.compute(key, (k, current) -> current == null || current.expired(now)
+                ? new Value(bytes(delta), 0)
+                : new Value(bytes(Long.parseLong(string(current.data())) + delta), current.expiresAt()));
+        return Long.parseLong(string(updated.data()));
+    }
+
+    private boolean expire(String key, long expiresAt, long now) {
+        return store.computeIfPresent(key, (k, current) ->
+                current.expired(now) ? null : new Value(current.data(), expiresAt)) != null;
+    }
+
+    private Value live(String key, long now) {
+        var value = store.get(key);
+        if (value != null && value.expired(now)) {
+            store.remove(key, value);
+            return null;
+        }
+        return value;
+    }
+
+    /**
+     * Read one command, an array of bulk strings or an inline command
+     */
+    private static List<byte[]> readCommand(InputStream in) throws IOException {
+        var first = in.read();
+        if (first < 0) throw new EOFException();
+        if (first != '*') {
+            var inline = (char) first + readLine(in);
+            var parts = new ArrayList<byte[]>();
+            for (var part : inline.trim().split("\\s+")) {
+                if (!part.isEmpty()) parts.add(part.getBytes(StandardCharsets.UTF_8));
+            }
+            return parts;
+        }
+        var count = Integer.parseInt(readLine(in));
+        var parts = new ArrayList<byte[]>(count);
+        for (var i = 0; i < count; i++) {
+            if (in.read() != '$') throw new IOException("Expected a bulk string");
+            var length = Integer.parseInt(readLine(in));
+            var data = in.readNBytes(length);
+            if (data.length < length) throw new EOFException();
+            in.skipNBytes(2);
+            parts.add(data);
+        }
+        return parts;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        var line = new StringBuilder();
+        for (int c = in.read(); c != '\r'; c = in.read()) {
+            if (c < 0) throw new EOFException();
+            line.append((char) c);
+        }
+        in.read();
+        return line.toString();
+    }
+
+    private static String string(byte[] data) {
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(long number) {
+        return Long.toString(number).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] simple(String text) {
+        return STR."+\{text}\r\n".getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] error(String text) {
+        return STR."-\{text}\r\n".getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] integer(long number) {
+        return STR.":\{number}\r\n".getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] bulk(byte[] data) {
+        var header = STR."$\{data.length}\r\n".getBytes(StandardCharsets.US_ASCII);
+        var reply = new byte[header.length + data.length + 2];
+        System.arraycopy(header, 0, reply, 0, header.length);
+        System.arraycopy(data, 0, reply, header.length, data.length);
+        reply[reply.length - 2] = '\r';
+        reply[reply.length - 1] = '\n';
+        return reply;
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+    }
+}
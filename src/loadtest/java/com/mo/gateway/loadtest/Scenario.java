@@ -0,0 +1,152 @@
+package com.mo.gateway.loadtest;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load test scenario, read from a YAML file
+ * Durations and sizes use the gateway's own notation (250ms, 2KB).
+ */
+public record Scenario(
+        String name,
+        String description,
+        Integer rate,
+        Duration warmup,
+        Duration duration,
+        Duration timeout,
+        Gateway gateway,
+        List<Backend> backends,
+        List<Traffic> traffic,
+        Churn churn
+) {
+    /**
+     * Unset values fall back to defaults
+     */
+    public Scenario {
+        if (rate == null) rate = 200;
+        if (warmup == null) warmup = Duration.ofSeconds(10);
+        if (duration == null) duration = Duration.ofSeconds(30);
+        if (timeout == null) timeout = Duration.ofSeconds(10);
+        if (gateway == null) gateway = Gateway.DEFAULT;
+        if (backends == null) backends = List.of();
+        if (traffic == null) traffic = List.of();
+    }
+
+    /**
+     * Load a scenario by name from the classpath (scenarios/{name}.yaml) or from a file path
+     */
+    public static Scenario load(String nameOrPath) throws IOException {
+        var file = Path.of(nameOrPath);
+        if (Files.isRegularFile(file)) {
+            try (var in = Files.newInputStream(file)) {
+                return read(in);
+            }
+        }
+        try (var in = Scenario.class.getClassLoader().getResourceAsStream(STR."scenarios/\{nameOrPath}.yaml")) {
+            if (in == null) {
+                throw new IllegalArgumentException(STR."Unknown scenario: \{nameOrPath}");
+            }
+            return read(in);
+        }
+    }
+
+    private static Scenario read(InputStream in) throws IOException {
+        var units = new SimpleModule()
+                .addDeserializer(Duration.class, new JsonDeserializer<>() {
+                    @Override
+                    public Duration deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+                        return DurationStyle.detectAndParse(parser.getValueAsString());
+                    }
+                })
+                .addDeserializer(DataSize.class, new JsonDeserializer<>() {
+                    @Override
+                    public DataSize deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+                        return DataSize.parse(parser.getValueAsString());
+                    }
+                });
+        return new ObjectMapper(new YAMLFactory())
+                .setPropertyNamingStrategy(PropertyNamingStrategies.KEBAB_CASE)
+                .enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .registerModule(units)
+                .readValue(in, Scenario.class);
+    }
+
+    /**
+     * Gateway process settings, properties are passed as command line arguments
+     */
+    public record Gateway(List<String> jvmArgs, Map<String, String> properties) {
+        public static final Gateway DEFAULT = new Gateway(null, null);
+
+        public Gateway {
+            if (jvmArgs == null) jvmArgs = List.of();
+            if (properties == null) properties = Map.of();
+        }
+    }
+
+    /**
+     * A group of identical stub instances of one service; standby instances are started but
+     * only registered by instance churn
+     */
+    public record Backend(
+            String service,
+            Integer instances,
+            Boolean standby,
+            Distribution latency,
+            Distribution payload,
+            String contentType
+    ) {
+        public Backend {
+            if (instances == null) instances = 1;
+            if (standby == null) standby = false;
+            if (latency == null) latency = Distribution.fixed("0ms");
+            if (payload == null) payload = Distribution.fixed("0B");
+            if (contentType == null) contentType = "application/octet-stream";
+        }
+    }
+
+    /**
+     * One kind of request in the traffic mix, picked in proportion to its weight; {random} in
+     * the path is replaced by a random number and client-id is sent as X-API-Key
+     */
+    public record Traffic(
+            String name,
+            Integer weight,
+            String method,
+            String path,
+            String clientId,
+            Distribution body
+    ) {
+        public Traffic {
+            if (weight == null) weight = 1;
+            if (method == null) method = "GET";
+            if (body == null) body = Distribution.fixed("0B");
+            if (name == null) name = STR."\{method} \{path}";
+        }
+    }
+
+    /**
+     * Every interval one registered instance of the service is deregistered and a stopped or
+     * standby instance registered in its place
+     */
+    public record Churn(String service, Duration interval) {
+        public Churn {
+            if (interval == null) interval = Duration.ofSeconds(5);
+        }
+    }
+}
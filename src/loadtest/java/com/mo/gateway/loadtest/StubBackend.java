@@ -0,0 +1,139 @@
+package com.mo.gateway.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Stub HTTP backend
+ * Answers every request after a sampled latency with a body of a sampled size. Requests run on
+ * platform threads: the JDK server writes responses holding a monitor, which would pin virtual
+ * threads to their carriers and stall the whole harness on small machines. Health probes are
+ * answered immediately.
+ */
+final class StubBackend implements AutoCloseable {
+
+    private static final String HEALTH_PATH = "/actuator/health";
+
+    private static final byte[] HEALTH_BODY = "{\"status\":\"UP\"}".getBytes();
+
+    private static final byte[] FILLER = filler(64 * 1024);
+
+    private final String service;
+
+    private final String id;
+
+    private final boolean standby;
+
+    private final LongSupplier latency;
+
+    private final LongSupplier payload;
+
+    private final String contentType;
+
+    private final AtomicLong requests = new AtomicLong();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(Thread.ofPlatform().daemon().factory());
+
+    private final HttpServer server;
+
+    StubBackend(String service, String id, Scenario.Backend backend) throws IOException {
+        this.service = service;
+        this.id = id;
+        this.standby = backend.standby();
+        this.latency = backend.latency().nanos();
+        this.payload = backend.payload().bytes();
+        this.contentType = backend.contentType();
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    String service() {
+        return service;
+    }
+
+    String id() {
+        return id;
+    }
+
+    boolean standby() {
+        return standby;
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    long requests() {
+        return requests.get();
+    }
+
+    void reset() {
+        requests.set(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (HEALTH_PATH.equals(exchange.getRequestURI().getPath())) {
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, HEALTH_BODY.length);
+                exchange.getResponseBody().write(HEALTH_BODY);
+                return;
+            }
+            requests.incrementAndGet();
+            discard(exchange.getRequestBody());
+            var delay = latency.getAsLong();
+            if (delay > 0) {
+                Thread.sleep(Duration.ofNanos(delay));
+            }
+            var size = payload.getAsLong();
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.getResponseHeaders().set("X-Stub-Instance", id);
+            exchange.sendResponseHeaders(200, size == 0 ? -1 : size);
+            write(exchange.getResponseBody(), size);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void discard(InputStream in) throws IOException {
+        var buffer = new byte[8192];
+        while (in.read(buffer) >= 0) {
+            // Request bodies are only drained
+        }
+    }
+
+    private static void write(OutputStream out, long size) throws IOException {
+        for (var remaining = size; remaining > 0; remaining -= FILLER.length) {
+            out.write(FILLER, 0, (int) Math.min(remaining, FILLER.length));
+        }
+    }
+
+    /**
+     * Printable, moderately compressible body content
+     */
+    private static byte[] filler(int size) {
+        var bytes = new byte[size];
+        for (var i = 0; i < size; i++) {
+            bytes[i] = (byte) ('a' + (i * 7 + i / 26) % 26);
+        }
+        return bytes;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
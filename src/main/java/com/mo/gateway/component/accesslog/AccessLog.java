@@ -0,0 +1,187 @@
+package com.mo.gateway.component.accesslog;
+
+import com.mo.gateway.config.properties.AccessLogProperties;
+import com.mo.gateway.model.dto.GatewayRequest;
+import com.mo.gateway.model.dto.GatewayResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Structured Access Log
+ * Request threads copy one fixed-schema record per request into a lock-free ring buffer and
+ * return; a single writer thread drains it in batches and appends JSON lines to a rolling file.
+ * When the writer falls behind the record is dropped rather than blocking the request, written
+ * and dropped records are counted as gateway.accesslog.records. The client identifier may be an
+ * API key or a credential, it is logged as a truncated SHA-256 that still groups a client's requests.
+ */
+@Component
+public class AccessLog implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessLog.class);
+
+    private final AccessLogProperties properties;
+
+    private final AccessLogRingBuffer buffer;
+
+    private final Counter written;
+
+    private final Counter dropped;
+
+    private final StringBuilder line = new StringBuilder(512);
+
+    private final MessageDigest digest;
+
+    private final Thread writer;
+
+    private volatile boolean running = true;
+
+    public AccessLog(AccessLogProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        this.buffer = new AccessLogRingBuffer(properties.bufferSize());
+        this.written = Counter.builder("gateway.accesslog.records")
+                .description("Access log records by outcome")
+                .tag("outcome", "written")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("gateway.accesslog.records")
+                .description("Access log records by outcome")
+                .tag("outcome", "dropped")
+                .register(meterRegistry);
+        if (properties.enabled()) {
+            this.writer = Thread.ofPlatform().name("gateway-access-log").daemon().start(this::drainLoop);
+        } else {
+            this.writer = null;
+        }
+    }
+
+    /**
+     * Record a completed request, a null response stands for a failure that escaped the pipeline
+     */
+    public void record(GatewayRequest request, GatewayResponse response, long durationNanos) {
+        if (writer == null) {
+            return;
+        }
+        var status = response != null ? response.statusCode() : 500;
+        var instanceId = response != null ? response.instanceId() : null;
+        if (!buffer.offer(System.currentTimeMillis(), request.id(), request.method(), request.path(),
+                request.getClientIdentifier(), status, durationNanos, instanceId)) {
+            dropped.increment();
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (writer != null) {
+            running = false;
+            LockSupport.unpark(writer);
+            writer.join(properties.flushInterval().toMillis() * 10);
+        }
+    }
+
+    private void drainLoop() {
+        RollingFile file;
+        try {
+            file = new RollingFile(Path.of(properties.file()), properties.maxFileSize().toBytes(), properties.maxHistory());
+        } catch (IOException e) {
+            log.error("Access log disabled, cannot open {}: {}", properties.file(), e.getMessage());
+            return;
+        }
+        var parkNanos = properties.flushInterval().toNanos();
+        try (var out = file) {
+            while (running) {
+                var count = drainBatch(out);
+                if (count < properties.batchSize()) {
+                    out.flush();
+                    LockSupport.parkNanos(parkNanos);
+                }
+            }
+            // Shutdown: write what request threads managed to publish
+            while (drainBatch(out) > 0) {
+                // keep draining
+            }
+            out.flush();
+        } catch (IOException e) {
+            log.warn("Access log writer stopped: {}", e.getMessage());
+        }
+    }
+
+    private int drainBatch(RollingFile file) throws IOException {
+        line.setLength(0);
+        var count = buffer.drain(this::append, properties.batchSize());
+        if (count > 0) {
+            var bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+            file.write(bytes, bytes.length);
+            written.increment(count);
+        }
+        return count;
+    }
+
+    private void append(AccessLogRingBuffer.Entry entry) {
+        line.append("{\"ts\":\"").append(Instant.ofEpochMilli(entry.timestamp)).append('"');
+        appendField("id", entry.requestId);
+        appendField("method", entry.method);
+        appendField("path", entry.path);
+        appendField("client", fingerprint(entry.clientId));
+        line.append(",\"status\":").append(entry.status);
+        line.append(",\"duration_us\":").append(entry.durationNanos / 1_000);
+        appendField("instance", entry.instanceId);
+        line.append("}\n");
+        // Release references held by the slot until it is reused
+        entry.requestId = entry.method = entry.path = entry.clientId = entry.instanceId = null;
+    }
+
+    /**
+     * First 8 bytes of the SHA-256 of the client identifier, in hex; only the writer thread calls it
+     */
+    private String fingerprint(String clientId) {
+        if (clientId == null) {
+            return null;
+        }
+        var hash = digest.digest(clientId.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(hash, 0, 8);
+    }
+
+    private void appendField(String name, String value) {
+        line.append(",\"").append(name).append("\":");
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (var i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+}
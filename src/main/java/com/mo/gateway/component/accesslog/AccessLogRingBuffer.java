@@ -0,0 +1,95 @@
+package com.mo.gateway.component.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded multi-producer, single-consumer ring of preallocated access log entries
+ * A producer claims a sequence with a CAS, fills the entry in place and publishes it by storing
+ * the sequence in the slot; the consumer reads published entries in order. Nothing is allocated
+ * per record and a full ring fails the offer instead of blocking the request thread.
+ */
+final class AccessLogRingBuffer {
+
+    /**
+     * One access log record, overwritten in place once consumed
+     */
+    static final class Entry {
+        long timestamp;
+        String requestId;
+        String method;
+        String path;
+        String clientId;
+        int status;
+        long durationNanos;
+        String instanceId;
+    }
+
+    private final Entry[] entries;
+
+    private final AtomicLongArray published;
+
+    private final int mask;
+
+    private final AtomicLong claimed = new AtomicLong();
+
+    private volatile long consumed;
+
+    AccessLogRingBuffer(int requestedCapacity) {
+        var capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.entries = new Entry[capacity];
+        this.published = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (var i = 0; i < capacity; i++) {
+            entries[i] = new Entry();
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * Append a record, false when the ring is full
+     */
+    boolean offer(long timestamp, String requestId, String method, String path, String clientId,
+                  int status, long durationNanos, String instanceId) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed >= entries.length) {
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        var index = (int) (sequence & mask);
+        var entry = entries[index];
+        entry.timestamp = timestamp;
+        entry.requestId = requestId;
+        entry.method = method;
+        entry.path = path;
+        entry.clientId = clientId;
+        entry.status = status;
+        entry.durationNanos = durationNanos;
+        entry.instanceId = instanceId;
+        published.set(index, sequence);
+        return true;
+    }
+
+    /**
+     * Hand up to max published records to the consumer in order, only called by the writer thread
+     */
+    int drain(Consumer<Entry> consumer, int max) {
+        var next = consumed;
+        var count = 0;
+        while (count < max) {
+            var index = (int) (next & mask);
+            // A claimed slot whose producer has not published yet ends the batch
+            if (published.get(index) != next) {
+                break;
+            }
+            consumer.accept(entries[index]);
+            next++;
+            count++;
+            consumed = next;
+        }
+        return count;
+    }
+}
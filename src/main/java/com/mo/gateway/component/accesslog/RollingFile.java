@@ -0,0 +1,78 @@
+package com.mo.gateway.component.accesslog;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only file rolled by size
+ * Once the file reaches maxSize it becomes file.1, older files shift up by one and the file past
+ * maxHistory is deleted. Only used by the access log writer thread, so nothing is synchronized.
+ */
+final class RollingFile implements AutoCloseable {
+
+    private final Path file;
+
+    private final long maxSize;
+
+    private final int maxHistory;
+
+    private OutputStream out;
+
+    private long size;
+
+    RollingFile(Path file, long maxSize, int maxHistory) throws IOException {
+        this.file = file;
+        this.maxSize = maxSize;
+        this.maxHistory = maxHistory;
+        var parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        open();
+    }
+
+    void write(byte[] bytes, int length) throws IOException {
+        if (size > 0 && size + length > maxSize) {
+            roll();
+        }
+        out.write(bytes, 0, length);
+        size += length;
+    }
+
+    void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void open() throws IOException {
+        out = new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024);
+        size = Files.size(file);
+    }
+
+    private void roll() throws IOException {
+        out.close();
+        Files.deleteIfExists(rolled(maxHistory));
+        for (var i = maxHistory - 1; i >= 1; i--) {
+            var source = rolled(i);
+            if (Files.exists(source)) {
+                Files.move(source, rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+        open();
+    }
+
+    private Path rolled(int index) {
+        return file.resolveSibling(STR."\{file.getFileName()}.\{index}");
+    }
+}
@@ -0,0 +1,65 @@
+package com.mo.gateway.component.cache;
+
+/**
+ * Parsed Cache-Control directives relevant to a shared cache
+ * Ages are in seconds, -1 when the directive is absent or malformed
+ */
+record CacheDirectives(
+        boolean noStore,
+        boolean noCache,
+        boolean isPrivate,
+        boolean isPublic,
+        boolean mustRevalidate,
+        long maxAge,
+        long sMaxAge
+) {
+    static final CacheDirectives NONE = new CacheDirectives(false, false, false, false, false, -1, -1);
+
+    /**
+     * Parse a Cache-Control header value, unknown directives are ignored
+     */
+    static CacheDirectives parse(String value) {
+        if (value == null || value.isBlank()) {
+            return NONE;
+        }
+        var noStore = false;
+        var noCache = false;
+        var isPrivate = false;
+        var isPublic = false;
+        var mustRevalidate = false;
+        long maxAge = -1;
+        long sMaxAge = -1;
+        for (var token : value.split(",")) {
+            var directive = token.trim();
+            var separator = directive.indexOf('=');
+            var name = separator < 0 ? directive : directive.substring(0, separator).trim();
+            var argument = separator < 0 ? null : unquote(directive.substring(separator + 1).trim());
+            // Field-name forms such as private="Set-Cookie" are treated like the bare directive
+            if (name.equalsIgnoreCase("no-store")) noStore = true;
+            else if (name.equalsIgnoreCase("no-cache")) noCache = true;
+            else if (name.equalsIgnoreCase("private")) isPrivate = true;
+            else if (name.equalsIgnoreCase("public")) isPublic = true;
+            else if (name.equalsIgnoreCase("must-revalidate") || name.equalsIgnoreCase("proxy-revalidate")) mustRevalidate = true;
+            else if (name.equalsIgnoreCase("max-age")) maxAge = seconds(argument);
+            else if (name.equalsIgnoreCase("s-maxage")) sMaxAge = seconds(argument);
+        }
+        return new CacheDirectives(noStore, noCache, isPrivate, isPublic, mustRevalidate, maxAge, sMaxAge);
+    }
+
+    private static String unquote(String argument) {
+        return argument.length() >= 2 && argument.startsWith("\"") && argument.endsWith("\"")
+                ? argument.substring(1, argument.length() - 1)
+                : argument;
+    }
+
+    private static long seconds(String argument) {
+        if (argument == null) {
+            return -1;
+        }
+        try {
+            return Math.max(0, Long.parseLong(argument));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.mo.gateway.component.cache;
+
+import com.mo.gateway.config.properties.CacheProperties.Storage;
+import com.mo.gateway.model.dto.GatewayResponse;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.util.IllegalReferenceCountException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stored response
+ * Off-heap bodies live in unpooled direct buffers owned by the cache. Every hit takes its own
+ * reference, so an entry evicted while it is being written stays valid until the write finishes.
+ */
+final class CachedResponse {
+
+    private static final UnpooledByteBufAllocator ALLOCATOR = new UnpooledByteBufAllocator(true);
+
+    private static final NettyDataBufferFactory BUFFER_FACTORY = new NettyDataBufferFactory(ALLOCATOR);
+
+    /**
+     * Rough per-entry cost of the key, the entry object and the cache node
+     */
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final int statusCode;
+
+    private final HttpHeaders headers;
+
+    private final byte[] heapBody;
+
+    private final ByteBuf directBody;
+
+    private final long storedAtNanos;
+
+    private final long initialAgeSeconds;
+
+    private final long ttlNanos;
+
+    private final int weight;
+
+    private CachedResponse(int statusCode, HttpHeaders headers, byte[] heapBody, ByteBuf directBody,
+                           long initialAgeSeconds, long ttlNanos, int weight) {
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.heapBody = heapBody;
+        this.directBody = directBody;
+        this.storedAtNanos = System.nanoTime();
+        this.initialAgeSeconds = initialAgeSeconds;
+        this.ttlNanos = ttlNanos;
+        this.weight = weight;
+    }
+
+    /**
+     * Copy a buffered upstream response into a cache entry
+     */
+    static CachedResponse of(GatewayResponse response, Storage storage, long initialAgeSeconds, long ttlNanos) {
+        var body = response.body();
+        var headers = HttpHeaders.readOnlyHttpHeaders(new HttpHeaders(response.headers()));
+        var weight = ENTRY_OVERHEAD + body.length;
+        for (var entry : headers.entrySet()) {
+            weight += entry.getKey().length();
+            for (var value : entry.getValue()) {
+                weight += value.length();
+            }
+        }
+        if (storage == Storage.OFF_HEAP && body.length > 0) {
+            var directBody = ALLOCATOR.directBuffer(body.length, body.length).writeBytes(body);
+            return new CachedResponse(response.statusCode(), headers, null, directBody, initialAgeSeconds, ttlNanos, weight);
+        }
+        return new CachedResponse(response.statusCode(), headers, body, null, initialAgeSeconds, ttlNanos, weight);
+    }
+
+    int weight() {
+        return weight;
+    }
+
+    long ttlNanos() {
+        return ttlNanos;
+    }
+
+    /**
+     * Build a response for a hit, null when the entry was released by a concurrent eviction
+     */
+    GatewayResponse toResponse() {
+        var age = initialAgeSeconds + TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - storedAtNanos);
+        var responseHeaders = new HttpHeaders();
+        responseHeaders.putAll(headers);
+        responseHeaders.set(HttpHeaders.AGE, String.valueOf(age));
+        responseHeaders.set("X-Gateway-Cache", "HIT");
+        var builder = GatewayResponse.builder()
+                .statusCode(statusCode)
+                .headers(responseHeaders);
+        if (directBody == null) {
+            return builder.body(heapBody).build();
+        }
+        ByteBuf duplicate;
+        try {
+            duplicate = directBody.retainedDuplicate();
+        } catch (IllegalReferenceCountException e) {
+            return null;
+        }
+        // The writer releases the buffer once it is flushed, or on discard if the write is cancelled
+        Flux<DataBuffer> bodyStream = Flux.<DataBuffer>just(BUFFER_FACTORY.wrap(duplicate))
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+        return builder.bodyStream(bodyStream).build();
+    }
+
+    /**
+     * Drop the cache's reference to an off-heap body
+     */
+    void release() {
+        if (directBody != null) {
+            directBody.release();
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.mo.gateway.component.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.mo.gateway.config.properties.CacheProperties;
+import com.mo.gateway.model.dto.GatewayRequest;
+import com.mo.gateway.model.dto.GatewayResponse;
+import com.mo.gateway.model.dto.RequestPayload;
+import com.mo.gateway.model.routing.RouteMatch;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response Cache
+ * Shared HTTP cache for routes with caching enabled. Entries are weighed by their size in bytes
+ * and evicted by Caffeine's W-TinyLFU policy, so a burst of one-off responses cannot push out
+ * the frequently requested ones. Freshness comes from s-maxage, max-age or Expires, falling back
+ * to the route's default TTL, and Vary request headers are part of the entry key. Requests that
+ * carry credentials (Authorization, Cookie, X-API-Key) are only stored when the origin explicitly
+ * allows sharing the response.
+ * Hits, misses and evictions are exported as cache.* meters tagged cache=gateway.response.
+ */
+@Component
+public class ResponseCache implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ResponseCache.class);
+
+    /**
+     * Status codes a cache may store without explicit permission (RFC 9110 section 15.1)
+     */
+    private static final Set<Integer> HEURISTICALLY_CACHEABLE = Set.of(200, 203, 204, 300, 301, 404, 405, 410, 414, 501);
+
+    private static final String[] NO_VARY = new String[0];
+
+    private static final String API_KEY_HEADER = "X-API-Key";
+
+    private final CacheProperties cacheProperties;
+
+    private final Cache<EntryKey, CachedResponse> entries;
+
+    /**
+     * Vary header names last seen for each resource, needed to build the entry key on lookup
+     */
+    private final Cache<ResourceKey, String[]> varyIndex;
+
+    public ResponseCache(CacheProperties cacheProperties, MeterRegistry meterRegistry) {
+        this.cacheProperties = cacheProperties;
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(cacheProperties.maxSize().toBytes())
+                .weigher((EntryKey key, CachedResponse entry) -> entry.weight())
+                .expireAfter(new FreshnessExpiry())
+                .removalListener((EntryKey key, CachedResponse entry, RemovalCause cause) -> {
+                    if (entry != null) entry.release();
+                })
+                .recordStats()
+                .build();
+        this.varyIndex = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "gateway.response");
+    }
+
+    /**
+     * Check whether a request may be answered from or stored in the cache
+     */
+    public boolean isCacheable(GatewayRequest request, RouteMatch route) {
+        return route.route().isCaching()
+                && "GET".equals(request.method())
+                && request.body() instanceof RequestPayload.Empty
+                && !CacheDirectives.parse(request.getHeader(HttpHeaders.CACHE_CONTROL)).noStore();
+    }
+
+    /**
+     * Fresh cached response for the request, null on a miss
+     * Requests sent with no-cache or max-age=0 skip the lookup and refresh the entry.
+     */
+    public GatewayResponse lookup(GatewayRequest request, RouteMatch route) {
+        var requestDirectives = CacheDirectives.parse(request.getHeader(HttpHeaders.CACHE_CONTROL));
+        if (requestDirectives.noCache() || requestDirectives.maxAge() == 0 || "no-cache".equals(request.getHeader("Pragma"))) {
+            return null;
+        }
+        var resource = ResourceKey.of(request, route);
+        var varyHeaders = varyIndex.getIfPresent(resource);
+        var entry = entries.getIfPresent(EntryKey.of(resource, varyHeaders != null ? varyHeaders : NO_VARY, request));
+        return entry != null ? entry.toResponse() : null;
+    }
+
+    /**
+     * Store a buffered response if HTTP caching rules allow it, the response is returned unchanged
+     */
+    public GatewayResponse store(GatewayRequest request, RouteMatch route, GatewayResponse response) {
+        if (response.body() == null || response.body().length > cacheProperties.maxEntrySize().toBytes()) {
+            return response;
+        }
+        var headers = response.headers();
+        var directives = CacheDirectives.parse(headers.getCacheControl());
+        if (!isStorable(request, response, directives)) {
+            return response;
+        }
+        var varyHeaders = varyHeaders(headers);
+        if (varyHeaders == null) {
+            return response;
+        }
+        var initialAge = initialAge(headers);
+        var ttlSeconds = Math.min(freshness(headers, directives, route) - initialAge,
+                route.route().cachePolicy().maxTtl().toSeconds());
+        if (ttlSeconds <= 0) {
+            return response;
+        }
+        var resource = ResourceKey.of(request, route);
+        varyIndex.put(resource, varyHeaders);
+        entries.put(EntryKey.of(resource, varyHeaders, request),
+                CachedResponse.of(response, cacheProperties.storage(), initialAge, TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        log.debug("Cached {} {} for {}s", request.method(), request.path(), ttlSeconds);
+        return response;
+    }
+
+    @Override
+    public void destroy() {
+        entries.invalidateAll();
+        entries.cleanUp();
+    }
+
+    private boolean isStorable(GatewayRequest request, GatewayResponse response, CacheDirectives directives) {
+        if (directives.noStore() || directives.noCache() || directives.isPrivate()) {
+            return false;
+        }
+        // Cookies are per client, a shared cache never replays them
+        if (response.headers().containsKey(HttpHeaders.SET_COOKIE)) {
+            return false;
+        }
+        // Authenticated responses are only shared when the origin explicitly allows it
+        if (request.getHeader(HttpHeaders.AUTHORIZATION) != null
+                && !directives.isPublic() && directives.sMaxAge() < 0 && !directives.mustRevalidate()) {
+            return false;
+        }
+        // Cookies and API keys identify the client as well, without Vary the entry key does not include them
+        if ((request.getHeader(HttpHeaders.COOKIE) != null || request.getHeader(API_KEY_HEADER) != null)
+                && !directives.isPublic() && directives.sMaxAge() < 0) {
+            return false;
+        }
+        return HEURISTICALLY_CACHEABLE.contains(response.statusCode())
+                || directives.isPublic() || directives.maxAge() >= 0 || directives.sMaxAge() >= 0;
+    }
+
+    /**
+     * Freshness lifetime in seconds: s-maxage, then max-age, then Expires, then the route default
+     */
+    private static long freshness(HttpHeaders headers, CacheDirectives directives, RouteMatch route) {
+        if (directives.sMaxAge() >= 0) {
+            return directives.sMaxAge();
+        }
+        if (directives.maxAge() >= 0) {
+            return directives.maxAge();
+        }
+        if (headers.containsKey(HttpHeaders.EXPIRES)) {
+            var expires = headers.getExpires();
+            // An invalid Expires value means already expired
+            return expires < 0 ? 0 : TimeUnit.MILLISECONDS.toSeconds(expires - responseDate(headers));
+        }
+        return route.route().cachePolicy().defaultTtl().toSeconds();
+    }
+
+    private static long responseDate(HttpHeaders headers) {
+        try {
+            var date = headers.getDate();
+            return date > 0 ? date : System.currentTimeMillis();
+        } catch (IllegalArgumentException e) {
+            return System.currentTimeMillis();
+        }
+    }
+
+    private static long initialAge(HttpHeaders headers) {
+        var age = headers.getFirst(HttpHeaders.AGE);
+        if (age == null) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Long.parseLong(age.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Sorted Vary header names, null for Vary: * which makes a response uncacheable
+     */
+    private static String[] varyHeaders(HttpHeaders headers) {
+        var vary = headers.getVary();
+        if (vary.isEmpty()) {
+            return NO_VARY;
+        }
+        if (vary.contains("*")) {
+            return null;
+        }
+        return vary.stream()
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .map(name -> name.toLowerCase(Locale.ROOT))
+                .distinct()
+                .sorted()
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Resource identity: upstream target without the instance
+     */
+    private record ResourceKey(String serviceId, String upstreamPath, String rawQuery) {
+
+        static ResourceKey of(GatewayRequest request, RouteMatch route) {
+            return new ResourceKey(route.serviceId(), route.upstreamPath(), request.rawQuery());
+        }
+    }
+
+    /**
+     * Entry identity: resource plus the request's values of the Vary headers
+     */
+    private record EntryKey(ResourceKey resource, List<String> varyHeaders, List<List<String>> varyValues) {
+
+        static EntryKey of(ResourceKey resource, String[] varyHeaders, GatewayRequest request) {
+            var varyValues = Arrays.stream(varyHeaders).map(request.headers()::getAll).toList();
+            return new EntryKey(resource, Arrays.asList(varyHeaders), varyValues);
+        }
+    }
+
+    /**
+     * Each entry expires when its own freshness lifetime runs out
+     */
+    private static final class FreshnessExpiry implements Expiry<EntryKey, CachedResponse> {
+
+        @Override
+        public long expireAfterCreate(EntryKey key, CachedResponse entry, long currentTime) {
+            return entry.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(EntryKey key, CachedResponse entry, long currentTime, long currentDuration) {
+            return entry.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterRead(EntryKey key, CachedResponse entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
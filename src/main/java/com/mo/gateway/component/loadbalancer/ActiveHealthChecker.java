@@ -0,0 +1,220 @@
+package com.mo.gateway.component.loadbalancer;
+
+import com.mo.gateway.component.proxy.UpstreamClientRegistry;
+import com.mo.gateway.config.properties.LoadBalancerProperties;
+import com.mo.gateway.config.properties.LoadBalancerProperties.HealthCheckSettings;
+import com.mo.gateway.config.properties.ServiceDiscoveryProperties;
+import com.mo.gateway.model.loadbalancer.HealthStatus;
+import com.mo.gateway.model.loadbalancer.ServiceInstance;
+import com.mo.gateway.service.loadbalancer.ServiceDiscoveryService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Active Health Checker
+ * Probes every known instance on the discovery health check path with a non-blocking GET and
+ * reports status changes through ServiceDiscoveryService.updateInstanceHealth once the healthy or
+ * unhealthy threshold is reached. Each instance runs its own probe schedule starting at a random
+ * offset within the interval and re-jittered on every round, so thousands of instances spread
+ * their probes evenly instead of firing together. The instance list is re-read from discovery
+ * once per interval to pick up new and departed instances.
+ */
+@Component
+public class ActiveHealthChecker implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ActiveHealthChecker.class);
+
+    private final ServiceDiscoveryService serviceDiscovery;
+
+    private final UpstreamClientRegistry upstreamClients;
+
+    private final TaskScheduler taskScheduler;
+
+    private final MeterRegistry meterRegistry;
+
+    private final HealthCheckSettings settings;
+
+    private final long intervalMillis;
+
+    private final String healthCheckPath;
+
+    private final Counter healthyProbes;
+
+    private final Counter unhealthyProbes;
+
+    private final ConcurrentHashMap<String, Target> targets = new ConcurrentHashMap<>();
+
+    private final ScheduledFuture<?> refresh;
+
+    public ActiveHealthChecker(ServiceDiscoveryService serviceDiscovery, UpstreamClientRegistry upstreamClients,
+                               TaskScheduler taskScheduler, MeterRegistry meterRegistry,
+                               LoadBalancerProperties loadBalancerProperties,
+                               ServiceDiscoveryProperties discoveryProperties) {
+        this.serviceDiscovery = serviceDiscovery;
+        this.upstreamClients = upstreamClients;
+        this.taskScheduler = taskScheduler;
+        this.meterRegistry = meterRegistry;
+        this.settings = loadBalancerProperties.healthCheck();
+        this.intervalMillis = Math.max(100, loadBalancerProperties.healthCheckIntervalMs());
+        this.healthCheckPath = discoveryProperties.kubernetes().healthCheckPath();
+        this.healthyProbes = probes("healthy");
+        this.unhealthyProbes = probes("unhealthy");
+        Gauge.builder("gateway.healthcheck.targets", targets, ConcurrentHashMap::size)
+                .description("Instances under active health checking")
+                .register(meterRegistry);
+        this.refresh = settings.enabled()
+                ? taskScheduler.scheduleWithFixedDelay(this::refreshTargets, Duration.ofMillis(intervalMillis))
+                : null;
+    }
+
+    @Override
+    public void destroy() {
+        if (refresh != null) {
+            refresh.cancel(false);
+        }
+        targets.values().forEach(Target::stop);
+        targets.clear();
+    }
+
+    /**
+     * Start probing new instances, stop probing departed ones
+     */
+    void refreshTargets() {
+        var current = new HashMap<String, ServiceInstance>();
+        for (var instance : serviceDiscovery.getAllInstances()) {
+            current.put(STR."\{instance.serviceId()}/\{instance.id()}", instance);
+        }
+        current.forEach((key, instance) -> targets.compute(key, (k, target) -> {
+            if (target == null) {
+                var created = new Target(instance);
+                schedule(created, (long) (ThreadLocalRandom.current().nextDouble() * intervalMillis));
+                return created;
+            }
+            target.instance = instance;
+            target.status = instance.healthStatus();
+            return target;
+        }));
+        targets.entrySet().removeIf(entry -> {
+            if (current.containsKey(entry.getKey())) {
+                return false;
+            }
+            entry.getValue().stop();
+            return true;
+        });
+    }
+
+    private void probe(Target target) {
+        if (target.stopped) {
+            return;
+        }
+        var instance = target.instance;
+        // Discovery confirmed the instance's health recently, this round is not needed
+        if (!instance.isHealthCheckStale(intervalMillis / 2)) {
+            scheduleNext(target);
+            return;
+        }
+        upstreamClients.forInstance(instance)
+                .get()
+                .uri(STR."\{instance.getUrl()}\{healthCheckPath}")
+                .exchangeToMono(response -> response.releaseBody()
+                        .thenReturn(response.statusCode().is2xxSuccessful()))
+                .timeout(settings.timeout())
+                .onErrorReturn(false)
+                .defaultIfEmpty(false)
+                .subscribe(healthy -> {
+                    onResult(target, healthy);
+                    scheduleNext(target);
+                });
+    }
+
+    /**
+     * Count consecutive results and report a status change once a threshold is reached
+     */
+    private void onResult(Target target, boolean healthy) {
+        (healthy ? healthyProbes : unhealthyProbes).increment();
+        HealthStatus reached = null;
+        if (healthy) {
+            target.failures = 0;
+            if (++target.successes >= settings.healthyThreshold() && target.status != HealthStatus.HEALTHY) {
+                reached = HealthStatus.HEALTHY;
+            }
+        } else {
+            target.successes = 0;
+            if (++target.failures >= settings.unhealthyThreshold() && target.status != HealthStatus.UNHEALTHY) {
+                reached = HealthStatus.UNHEALTHY;
+            }
+        }
+        if (reached == null || target.stopped) {
+            return;
+        }
+        var instance = target.instance;
+        target.status = reached;
+        serviceDiscovery.updateInstanceHealth(instance.serviceId(), instance.id(), reached);
+        meterRegistry.counter("gateway.healthcheck.transitions",
+                "service", instance.serviceId(), "status", reached.name().toLowerCase(Locale.ROOT)).increment();
+        log.warn("Health check marked instance {} of service {} {}", instance.id(), instance.serviceId(), reached);
+    }
+
+    private void scheduleNext(Target target) {
+        var jitter = settings.jitter() * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        schedule(target, (long) (intervalMillis * (1 + jitter)));
+    }
+
+    private void schedule(Target target, long delayMillis) {
+        if (!target.stopped) {
+            target.next = taskScheduler.schedule(() -> probe(target), Instant.now().plusMillis(delayMillis));
+        }
+    }
+
+    private Counter probes(String result) {
+        return Counter.builder("gateway.healthcheck.probes")
+                .description("Active health check probes by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Probe state of one instance, counters are only touched by its own sequential probe chain
+     */
+    private static final class Target {
+
+        private volatile ServiceInstance instance;
+
+        private volatile HealthStatus status;
+
+        private volatile boolean stopped;
+
+        private volatile ScheduledFuture<?> next;
+
+        private int successes;
+
+        private int failures;
+
+        Target(ServiceInstance instance) {
+            this.instance = instance;
+            this.status = instance.healthStatus();
+        }
+
+        void stop() {
+            stopped = true;
+            var scheduled = next;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.mo.gateway.component.metrics;
+
+import com.mo.gateway.config.properties.ExecutionProperties;
+import com.mo.gateway.config.properties.MetricsProperties;
+import com.mo.gateway.model.dto.GatewayResponse;
+import com.mo.gateway.model.dto.RequestTimings;
+import com.mo.gateway.model.dto.RequestTimings.Phase;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pipeline Phase Metrics
+ * Records the time each request spent in every pipeline phase as gateway.pipeline.stage, tagged
+ * with the phase, route, service and execution mode so async and virtual-thread runs can be
+ * compared. Timers are registered once per route and service, recording a request is two map
+ * lookups and an array walk. Histogram buckets are enabled through management.metrics.distribution.
+ */
+@Component
+public class PipelineMetrics {
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final MeterRegistry meterRegistry;
+
+    private final String mode;
+
+    private final boolean serverTiming;
+
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Timer[]>> timers = new ConcurrentHashMap<>();
+
+    public PipelineMetrics(MeterRegistry meterRegistry, ExecutionProperties executionProperties,
+                           MetricsProperties metricsProperties) {
+        this.meterRegistry = meterRegistry;
+        this.mode = executionProperties.mode().value();
+        this.serverTiming = metricsProperties.serverTiming();
+    }
+
+    /**
+     * Record every phase of a completed pipeline, the write phase follows once the response is sent
+     */
+    public void record(RequestTimings timings) {
+        var phaseTimers = timersFor(timings);
+        for (var phase : PHASES) {
+            var duration = timings.nanos(phase);
+            if (duration > 0 && phase != Phase.WRITE) {
+                phaseTimers[phase.ordinal()].record(duration, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Record the time from pipeline completion until the response was written to the client
+     */
+    public void recordWrite(RequestTimings timings) {
+        var completedAt = timings.completedAt();
+        if (completedAt != 0) {
+            timersFor(timings)[Phase.WRITE.ordinal()].record(System.nanoTime() - completedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Response carrying the processing time and, when enabled, a Server-Timing header
+     */
+    public GatewayResponse withTimings(GatewayResponse response, RequestTimings timings) {
+        if (response == null) {
+            return null;
+        }
+        var headers = response.headers();
+        if (serverTiming) {
+            // Response headers may be shared with the cache or coalesced waiters, never modify them in place
+            headers = new HttpHeaders();
+            headers.putAll(response.headers());
+            headers.add("Server-Timing", timings.serverTiming());
+        }
+        return new GatewayResponse(response.statusCode(), headers, response.body(), response.bodyStream(),
+                response.timestamp(), response.instanceId(), timings.processingTimeMs());
+    }
+
+    private Timer[] timersFor(RequestTimings timings) {
+        var route = timings.routeId();
+        return timers.computeIfAbsent(route, ignored -> new ConcurrentHashMap<>())
+                .computeIfAbsent(timings.serviceId(), service -> register(route, service));
+    }
+
+    private Timer[] register(String route, String service) {
+        var phaseTimers = new Timer[PHASES.length];
+        for (var phase : PHASES) {
+            phaseTimers[phase.ordinal()] = Timer.builder("gateway.pipeline.stage")
+                    .description("Time spent in a request pipeline phase")
+                    .tag("stage", phase.tag())
+                    .tag("route", route)
+                    .tag("service", service)
+                    .tag("mode", mode)
+                    .register(meterRegistry);
+        }
+        return phaseTimers;
+    }
+}
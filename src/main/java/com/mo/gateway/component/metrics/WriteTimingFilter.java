@@ -0,0 +1,48 @@
+package com.mo.gateway.component.metrics;
+
+import com.mo.gateway.model.dto.RequestTimings;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Response Write Timing Filter
+ * Servlet responses are written by Spring MVC after the gateway controller returns, on the async
+ * dispatch for CompletableFuture handlers. The write phase ends when the dispatch that wrote the
+ * response leaves the filter chain.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class WriteTimingFilter extends OncePerRequestFilter {
+
+    /**
+     * Request attribute under which gateway controllers store the request's timings
+     */
+    public static final String TIMINGS_ATTRIBUTE = WriteTimingFilter.class.getName() + ".timings";
+
+    private final PipelineMetrics pipelineMetrics;
+
+    public WriteTimingFilter(PipelineMetrics pipelineMetrics) {
+        this.pipelineMetrics = pipelineMetrics;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        filterChain.doFilter(request, response);
+        if (!request.isAsyncStarted() && request.getAttribute(TIMINGS_ATTRIBUTE) instanceof RequestTimings timings) {
+            pipelineMetrics.recordWrite(timings);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.mo.gateway.component.proxy;
+
+import com.mo.gateway.model.dto.GatewayRequest;
+import com.mo.gateway.model.dto.GatewayResponse;
+import com.mo.gateway.model.dto.RequestPayload;
+import com.mo.gateway.model.routing.RouteMatch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight Request Coalescer
+ * The first request for a key becomes the leader and performs the upstream call, identical
+ * requests arriving while it is in flight wait for the same result. The key is dropped as soon
+ * as the call completes, so nothing is served after the fact and no staleness is introduced.
+ * Responses that set cookies or are marked private are never handed to other waiters.
+ */
+@Component
+public class RequestCoalescer {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestCoalescer.class);
+
+    private final ConcurrentHashMap<Key, CompletableFuture<GatewayResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter leaders;
+
+    private final Counter followers;
+
+    public RequestCoalescer(MeterRegistry meterRegistry) {
+        this.leaders = Counter.builder("gateway.coalescing.requests")
+                .description("Requests on coalescing routes by role")
+                .tag("role", "leader")
+                .register(meterRegistry);
+        this.followers = Counter.builder("gateway.coalescing.requests")
+                .description("Requests on coalescing routes by role")
+                .tag("role", "follower")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Check whether a request may share an upstream call, only bodiless GET and HEAD qualify
+     */
+    public boolean isCoalescable(GatewayRequest request, RouteMatch route) {
+        return route.route().isCoalescing()
+                && ("GET".equals(request.method()) || "HEAD".equals(request.method()))
+                && request.body() instanceof RequestPayload.Empty;
+    }
+
+    /**
+     * Join the in-flight call for this request or start it
+     * The response is shared by every waiter, so the call must produce a buffered response.
+     */
+    public CompletableFuture<GatewayResponse> execute(GatewayRequest request, RouteMatch route,
+                                                      Supplier<CompletableFuture<GatewayResponse>> call) {
+        var key = Key.of(request, route);
+        var pending = new CompletableFuture<GatewayResponse>();
+        var existing = inFlight.putIfAbsent(key, pending);
+        if (existing != null) {
+            // Responses meant for a single client are not fanned out, the waiter makes its own call
+            return follow(request, existing).thenCompose(response -> isShareable(response)
+                    ? CompletableFuture.completedFuture(response)
+                    : call.get());
+        }
+        leaders.increment();
+        try {
+            call.get().whenComplete((response, throwable) -> settle(key, pending, response, throwable));
+        } catch (RuntimeException e) {
+            settle(key, pending, null, e);
+        }
+        return pending.copy();
+    }
+
+    /**
+     * Direct-style variant for virtual threads, the leader runs the call on its own thread
+     * and waiters park until it completes
+     */
+    public GatewayResponse executeBlocking(GatewayRequest request, RouteMatch route, Supplier<GatewayResponse> call) {
+        var key = Key.of(request, route);
+        var pending = new CompletableFuture<GatewayResponse>();
+        var existing = inFlight.putIfAbsent(key, pending);
+        if (existing != null) {
+            var response = follow(request, existing).join();
+            return isShareable(response) ? response : call.get();
+        }
+        leaders.increment();
+        GatewayResponse response = null;
+        Throwable failure = null;
+        try {
+            response = call.get();
+            return response;
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            settle(key, pending, response, failure);
+        }
+    }
+
+    private CompletableFuture<GatewayResponse> follow(GatewayRequest request, CompletableFuture<GatewayResponse> flight) {
+        followers.increment();
+        log.debug("Coalesced {} {} onto in-flight call", request.method(), request.path());
+        // A copy keeps a cancelled waiter from cancelling the shared call
+        return flight.copy();
+    }
+
+    private void settle(Key key, CompletableFuture<GatewayResponse> pending, GatewayResponse response,
+                        Throwable throwable) {
+        // Remove before completing, later arrivals start a fresh call
+        inFlight.remove(key, pending);
+        if (throwable != null) {
+            pending.completeExceptionally(throwable);
+        } else {
+            pending.complete(response);
+        }
+    }
+
+    private static boolean isShareable(GatewayResponse response) {
+        var headers = response.headers();
+        if (headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return false;
+        }
+        var cacheControl = headers.getCacheControl();
+        return cacheControl == null || !cacheControl.toLowerCase(Locale.ROOT).contains("private");
+    }
+
+    /**
+     * Coalescing key: upstream target without the instance plus the vary header values
+     */
+    private record Key(String method, String serviceId, String upstreamPath, String rawQuery,
+                       List<List<String>> varyValues) {
+
+        static Key of(GatewayRequest request, RouteMatch route) {
+            var varyHeaders = route.route().coalescingVaryHeaders();
+            var varyValues = Arrays.stream(varyHeaders).map(request.headers()::getAll).toList();
+            return new Key(request.method(), route.serviceId(), route.upstreamPath(), request.rawQuery(), varyValues);
+        }
+    }
+}
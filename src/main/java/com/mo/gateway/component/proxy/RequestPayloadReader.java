@@ -0,0 +1,146 @@
+package com.mo.gateway.component.proxy;
+
+import com.mo.gateway.config.properties.ProxyProperties;
+import com.mo.gateway.model.dto.RequestPayload;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Request Payload Reader
+ * Turns the servlet input stream or the reactive request body into a RequestPayload according to
+ * the configured request mode. Streaming mode defers every read until the upstream exchange subscribes,
+ * buffered mode keeps small bodies on heap and spills anything above the threshold to a temp file.
+ */
+@Component
+public class RequestPayloadReader {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestPayloadReader.class);
+
+    private final ProxyProperties properties;
+
+    private final Path spillDirectory;
+
+    public RequestPayloadReader(ProxyProperties properties) {
+        this.properties = properties;
+        this.spillDirectory = Path.of(properties.spillDirectory());
+    }
+
+    /**
+     * Read the body of a servlet request
+     */
+    public RequestPayload read(HttpServletRequest request) throws IOException {
+        var contentLength = request.getContentLengthLong();
+        if (!hasBody(request, contentLength)) {
+            return RequestPayload.EMPTY;
+        }
+        return switch (properties.requestMode()) {
+            case STREAMING -> new RequestPayload.Streamed(
+                    DataBufferUtils.readInputStream(request::getInputStream,
+                                    DefaultDataBufferFactory.sharedInstance, RequestPayload.CHUNK_SIZE)
+                            .subscribeOn(Schedulers.boundedElastic()),
+                    contentLength);
+            case BUFFERED -> buffer(request.getInputStream(), contentLength);
+        };
+    }
+
+    /**
+     * Read the body of a reactive request without blocking the event loop
+     */
+    public Mono<RequestPayload> read(ServerHttpRequest request) {
+        var contentLength = request.getHeaders().getContentLength();
+        if (!hasBody(request, contentLength)) {
+            return Mono.just(RequestPayload.EMPTY);
+        }
+        return switch (properties.requestMode()) {
+            case STREAMING -> Mono.just(new RequestPayload.Streamed(request.getBody(), contentLength));
+            // Chunked uploads of unknown size go straight to disk rather than growing a heap buffer
+            case BUFFERED -> contentLength >= 0 && contentLength <= properties.requestSpillThreshold()
+                    ? DataBufferUtils.join(request.getBody()).map(RequestPayloadReader::toInMemory)
+                    : spill(request.getBody());
+        };
+    }
+
+    private boolean hasBody(HttpServletRequest request, long contentLength) {
+        return contentLength > 0 || (contentLength < 0 && request.getHeader("Transfer-Encoding") != null);
+    }
+
+    private boolean hasBody(ServerHttpRequest request, long contentLength) {
+        return contentLength > 0 || (contentLength < 0 && request.getHeaders().containsKey(HttpHeaders.TRANSFER_ENCODING));
+    }
+
+    private static RequestPayload toInMemory(DataBuffer buffer) {
+        try {
+            var bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return RequestPayload.of(bytes);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    private Mono<RequestPayload> spill(Flux<DataBuffer> body) {
+        return Mono.fromCallable(() -> Files.createTempFile(spillDirectory, "gateway-body-", ".tmp"))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(file -> DataBufferUtils.write(body, file)
+                        .then(Mono.fromCallable(() -> {
+                            var size = Files.size(file);
+                            log.debug("Spilled {} byte request body to {}", size, file);
+                            return (RequestPayload) new RequestPayload.Spilled(file, size);
+                        }))
+                        .onErrorResume(e -> {
+                            new RequestPayload.Spilled(file, -1).release();
+                            return Mono.error(e);
+                        })
+                        // A client that goes away mid-upload cancels the write, nobody will release the file
+                        .doOnCancel(() -> new RequestPayload.Spilled(file, -1).release()));
+    }
+
+    private RequestPayload buffer(InputStream in, long contentLength) throws IOException {
+        var threshold = properties.requestSpillThreshold();
+        if (contentLength > threshold) {
+            return spill(new byte[0], 0, in);
+        }
+        var heap = new ByteArrayOutputStream(contentLength > 0 ? (int) contentLength : RequestPayload.CHUNK_SIZE);
+        var chunk = new byte[RequestPayload.CHUNK_SIZE];
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            if (heap.size() + read > threshold) {
+                // Chunked upload grew past the threshold, move what we have to disk
+                heap.write(chunk, 0, read);
+                return spill(heap.toByteArray(), heap.size(), in);
+            }
+            heap.write(chunk, 0, read);
+        }
+        return RequestPayload.of(heap.toByteArray());
+    }
+
+    private RequestPayload spill(byte[] head, int headLength, InputStream in) throws IOException {
+        var file = Files.createTempFile(spillDirectory, "gateway-body-", ".tmp");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            out.write(head, 0, headLength);
+            var size = headLength + in.transferTo(out);
+            log.debug("Spilled {} byte request body to {}", size, file);
+            return new RequestPayload.Spilled(file, size);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,416 @@
+package com.mo.gateway.component.proxy;
+
+import com.mo.gateway.config.properties.CompressionProperties;
+import com.mo.gateway.config.properties.ProxyProperties;
+import com.mo.gateway.model.dto.GatewayRequest;
+import com.mo.gateway.model.dto.GatewayResponse;
+import com.mo.gateway.util.ResponseUtils;
+import com.sun.management.OperatingSystemMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.compression.ZlibCodecFactory;
+import io.netty.handler.codec.compression.ZlibWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Response Content Encoder
+ * Upstream bodies that are already encoded travel to the client byte-for-byte when its
+ * Accept-Encoding allows the coding; only when it does not (a shared cached or coalesced
+ * response, or an upstream ignoring Accept-Encoding) is the body decoded. Identity responses
+ * are gzipped by the gateway above a minimum size, at a level that drops as CPU usage rises
+ * and stops altogether under heavy load. A buffered body is decoded up to maxInMemorySize, a
+ * larger one is answered with a 502 instead of being expanded on heap. Partial responses and
+ * those marked no-transform are forwarded untouched.
+ */
+@Component
+public class ResponseEncoder {
+
+    private static final Logger log = LoggerFactory.getLogger(ResponseEncoder.class);
+
+    private static final long CPU_SAMPLE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final NettyDataBufferFactory BUFFER_FACTORY = new NettyDataBufferFactory(ByteBufAllocator.DEFAULT);
+
+    private final CompressionProperties properties;
+
+    private final ProxyProperties proxyProperties;
+
+    private final OperatingSystemMXBean operatingSystem = ManagementFactory.getPlatformMXBean(OperatingSystemMXBean.class);
+
+    private final Map<Outcome, Counter> outcomes = new EnumMap<>(Outcome.class);
+
+    private volatile long cpuSampledAt = System.nanoTime() - CPU_SAMPLE_INTERVAL_NANOS;
+
+    private volatile double cpuLoad;
+
+    public ResponseEncoder(CompressionProperties properties, ProxyProperties proxyProperties,
+                           MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.proxyProperties = proxyProperties;
+        for (var outcome : Outcome.values()) {
+            outcomes.put(outcome, Counter.builder("gateway.compression.responses")
+                    .description("Responses by content-coding decision")
+                    .tag("outcome", outcome.tag())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("gateway.compression.level", this, ResponseEncoder::currentLevel)
+                .description("Gzip level currently applied, 0 when compression is suspended")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adapt the response body to the content codings the client accepts
+     */
+    public GatewayResponse encode(GatewayRequest request, GatewayResponse response) {
+        if (!hasBody(response)) {
+            return response;
+        }
+        var acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        var contentEncoding = response.headers().getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (contentEncoding != null && !contentEncoding.equalsIgnoreCase("identity")) {
+            if (acceptsAll(acceptEncoding, contentEncoding) || !isTransformable(response)) {
+                outcomes.get(Outcome.PASSTHROUGH).increment();
+                return response;
+            }
+            return decode(response, contentEncoding.trim());
+        }
+        if (isTransformable(response) && isCompressible(response) && accepts(acceptEncoding, "gzip")) {
+            var level = currentLevel();
+            if (level > 0) {
+                return compress(response, level);
+            }
+        }
+        outcomes.get(Outcome.IDENTITY).increment();
+        return response;
+    }
+
+    /**
+     * Whether encode would decode or gzip a buffered body in place, CPU work that callers on an
+     * event loop hand to a worker; small bodies are only worth it when they get decoded
+     */
+    public boolean transcodesBuffered(GatewayRequest request, GatewayResponse response) {
+        if (!hasBody(response) || response.isStreaming() || !isTransformable(response)) {
+            return false;
+        }
+        var acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        var contentEncoding = response.headers().getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (contentEncoding != null && !contentEncoding.equalsIgnoreCase("identity")) {
+            return !acceptsAll(acceptEncoding, contentEncoding);
+        }
+        return isCompressible(response) && accepts(acceptEncoding, "gzip") && currentLevel() > 0;
+    }
+
+    /**
+     * Gzip level for the current CPU usage, 0 when compression is off or suspended
+     */
+    public int currentLevel() {
+        if (!properties.enabled()) {
+            return 0;
+        }
+        var load = cpuLoad();
+        if (load >= properties.disableAboveCpu()) {
+            return 0;
+        }
+        return load >= properties.reduceAboveCpu() ? properties.reducedLevel() : properties.level();
+    }
+
+    private GatewayResponse decode(GatewayResponse response, String contentEncoding) {
+        ZlibWrapper wrapper;
+        if (contentEncoding.equalsIgnoreCase("gzip") || contentEncoding.equalsIgnoreCase("x-gzip")) {
+            wrapper = ZlibWrapper.GZIP;
+        } else if (contentEncoding.equalsIgnoreCase("deflate")) {
+            wrapper = ZlibWrapper.ZLIB_OR_NONE;
+        } else {
+            // br, zstd or stacked codings cannot be decoded here, the client gets what the upstream sent
+            log.debug("Forwarding {} response to a client that does not accept it", contentEncoding);
+            outcomes.get(Outcome.PASSTHROUGH).increment();
+            return response;
+        }
+        var headers = representationHeaders(response);
+        headers.remove(HttpHeaders.CONTENT_ENCODING);
+        if (response.isStreaming()) {
+            outcomes.get(Outcome.DECODED).increment();
+            return copy(response, headers).bodyStream(transcodeInbound(response.bodyStream(),
+                    () -> ZlibCodecFactory.newZlibDecoder(wrapper))).build();
+        }
+        var decoded = inflate(response.body(), wrapper, proxyProperties.maxInMemorySize());
+        if (decoded == null) {
+            log.warn("Decoded {} response from instance {} exceeds {} bytes", contentEncoding,
+                    response.instanceId(), proxyProperties.maxInMemorySize());
+            outcomes.get(Outcome.TOO_LARGE).increment();
+            return ResponseUtils.createErrorResponse(502, "Upstream response too large to decode");
+        }
+        outcomes.get(Outcome.DECODED).increment();
+        return copy(response, headers).body(decoded).build();
+    }
+
+    private GatewayResponse compress(GatewayResponse response, int level) {
+        var headers = representationHeaders(response);
+        headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        outcomes.get(Outcome.COMPRESSED).increment();
+        if (response.isStreaming()) {
+            return copy(response, headers).bodyStream(transcodeOutbound(response.bodyStream(),
+                    () -> ZlibCodecFactory.newZlibEncoder(ZlibWrapper.GZIP, level))).build();
+        }
+        return copy(response, headers).body(gzip(response.body(), level)).build();
+    }
+
+    /**
+     * Writable copy of the headers for a re-encoded body: the representation now depends on
+     * Accept-Encoding and a strong validator no longer identifies the bytes sent
+     */
+    private static HttpHeaders representationHeaders(GatewayResponse response) {
+        var headers = new HttpHeaders();
+        response.headers().forEach(headers::addAll);
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+        if (!headers.getVary().contains(HttpHeaders.ACCEPT_ENCODING)) {
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        var etag = headers.getETag();
+        if (etag != null && etag.startsWith("\"")) {
+            headers.setETag("W/" + etag);
+        }
+        return headers;
+    }
+
+    private static GatewayResponse.Builder copy(GatewayResponse response, HttpHeaders headers) {
+        return GatewayResponse.builder()
+                .statusCode(response.statusCode())
+                .headers(headers)
+                .timestamp(response.timestamp())
+                .instanceId(response.instanceId())
+                .processingTimeMs(response.processingTimeMs());
+    }
+
+    /**
+     * Whether the body may be re-encoded: a partial response's Content-Range counts bytes of the
+     * coding the upstream sent, and no-transform forbids intermediaries to change it
+     */
+    private static boolean isTransformable(GatewayResponse response) {
+        var headers = response.headers();
+        if (response.statusCode() == 206 || headers.containsKey(HttpHeaders.CONTENT_RANGE)) {
+            return false;
+        }
+        var cacheControl = headers.getCacheControl();
+        return cacheControl == null || !cacheControl.toLowerCase(Locale.ROOT).contains("no-transform");
+    }
+
+    private boolean isCompressible(GatewayResponse response) {
+        var contentType = response.headers().getFirst(HttpHeaders.CONTENT_TYPE);
+        if (contentType == null || !matchesMimeType(contentType)) {
+            return false;
+        }
+        // Streams of unknown length are compressed, the size check needs a known length
+        var length = response.isStreaming() ? response.headers().getContentLength() : response.body().length;
+        return length < 0 || length >= properties.minResponseSize().toBytes();
+    }
+
+    private boolean matchesMimeType(String contentType) {
+        for (var mimeType : properties.mimeTypes()) {
+            var length = mimeType.length();
+            if (contentType.regionMatches(true, 0, mimeType, 0, length)
+                    && (contentType.length() == length || contentType.charAt(length) == ';' || contentType.charAt(length) == ' ')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasBody(GatewayResponse response) {
+        var status = response.statusCode();
+        if (status == 204 || status == 304 || status < 200) {
+            return false;
+        }
+        return response.isStreaming() || (response.body() != null && response.body().length > 0);
+    }
+
+    /**
+     * Check every coding of a Content-Encoding list against the client's Accept-Encoding
+     */
+    private static boolean acceptsAll(String acceptEncoding, String contentEncoding) {
+        for (var coding : contentEncoding.split(",")) {
+            var name = coding.trim();
+            if (!name.isEmpty() && !accepts(acceptEncoding, name)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether Accept-Encoding allows a coding, honouring q=0 and the * wildcard
+     * A client that sends no Accept-Encoding only gets identity.
+     */
+    private static boolean accepts(String acceptEncoding, String coding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        var wildcard = false;
+        for (var token : acceptEncoding.split(",")) {
+            var separator = token.indexOf(';');
+            var name = (separator < 0 ? token : token.substring(0, separator)).trim();
+            var allowed = separator < 0 || !isZeroQuality(token.substring(separator + 1));
+            if (name.equalsIgnoreCase(coding) || (coding.equalsIgnoreCase("gzip") && name.equalsIgnoreCase("x-gzip"))) {
+                return allowed;
+            }
+            if (name.equals("*")) {
+                wildcard = allowed;
+            }
+        }
+        return wildcard;
+    }
+
+    private static boolean isZeroQuality(String parameters) {
+        for (var parameter : parameters.split(";")) {
+            var trimmed = parameter.trim();
+            if (trimmed.length() > 2 && (trimmed.charAt(0) == 'q' || trimmed.charAt(0) == 'Q') && trimmed.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(trimmed.substring(2)) <= 0;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private double cpuLoad() {
+        var now = System.nanoTime();
+        if (now - cpuSampledAt >= CPU_SAMPLE_INTERVAL_NANOS) {
+            // Benign race, concurrent samplers store the same kind of value
+            cpuSampledAt = now;
+            var load = operatingSystem.getCpuLoad();
+            cpuLoad = load < 0 ? 0 : load;
+        }
+        return cpuLoad;
+    }
+
+    private static byte[] gzip(byte[] body, int level) {
+        var out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (var gzip = new LevelledGzipOutputStream(out, level)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode a buffered body, null when it expands beyond limit bytes
+     */
+    private static byte[] inflate(byte[] body, ZlibWrapper wrapper, int limit) {
+        try (InputStream in = wrapper == ZlibWrapper.GZIP
+                ? new GZIPInputStream(new ByteArrayInputStream(body))
+                : new InflaterInputStream(new ByteArrayInputStream(body))) {
+            var decoded = in.readNBytes(limit);
+            return in.read() < 0 ? decoded : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode upstream response body", e);
+        }
+    }
+
+    /**
+     * Run a stream through a Netty decoder, chunk by chunk without aggregating
+     */
+    private static Flux<DataBuffer> transcodeInbound(Flux<DataBuffer> body, Supplier<ChannelHandler> codec) {
+        return Flux.using(() -> new EmbeddedChannel(codec.get()),
+                channel -> body
+                        .concatMapIterable(buffer -> {
+                            channel.writeInbound(NettyDataBufferFactory.toByteBuf(buffer));
+                            return drain(channel, true);
+                        })
+                        .concatWith(Flux.defer(() -> {
+                            channel.finish();
+                            return Flux.fromIterable(drain(channel, true));
+                        })),
+                EmbeddedChannel::finishAndReleaseAll);
+    }
+
+    /**
+     * Run a stream through a Netty encoder, each chunk is flushed so streaming stays incremental
+     */
+    private static Flux<DataBuffer> transcodeOutbound(Flux<DataBuffer> body, Supplier<ChannelHandler> codec) {
+        return Flux.using(() -> new EmbeddedChannel(codec.get()),
+                channel -> body
+                        .concatMapIterable(buffer -> {
+                            channel.writeOutbound(NettyDataBufferFactory.toByteBuf(buffer));
+                            return drain(channel, false);
+                        })
+                        .concatWith(Flux.defer(() -> {
+                            // Closing the channel writes the gzip trailer
+                            channel.finish();
+                            return Flux.fromIterable(drain(channel, false));
+                        })),
+                EmbeddedChannel::finishAndReleaseAll);
+    }
+
+    private static List<DataBuffer> drain(EmbeddedChannel channel, boolean inbound) {
+        var buffers = new ArrayList<DataBuffer>(2);
+        ByteBuf buffer;
+        while ((buffer = inbound ? channel.readInbound() : channel.readOutbound()) != null) {
+            if (buffer.isReadable()) {
+                buffers.add(BUFFER_FACTORY.wrap(buffer));
+            } else {
+                buffer.release();
+            }
+        }
+        return buffers;
+    }
+
+    /**
+     * Content-coding decision for a response
+     */
+    private enum Outcome {
+        PASSTHROUGH("passthrough"),
+        DECODED("decoded"),
+        TOO_LARGE("too_large"),
+        COMPRESSED("compressed"),
+        IDENTITY("identity");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+
+        String tag() {
+            return tag;
+        }
+    }
+
+    private static final class LevelledGzipOutputStream extends GZIPOutputStream {
+
+        LevelledGzipOutputStream(ByteArrayOutputStream out, int level) throws IOException {
+            super(out);
+            def.setLevel(level);
+        }
+    }
+}
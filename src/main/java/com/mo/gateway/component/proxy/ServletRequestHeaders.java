@@ -0,0 +1,45 @@
+package com.mo.gateway.component.proxy;
+
+import com.mo.gateway.model.dto.RequestHeaders;
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Request headers read straight from the servlet request
+ * Tomcat already matches header names case-insensitively, so lookups go to the container
+ * without building an intermediate map.
+ */
+public final class ServletRequestHeaders extends RequestHeaders {
+
+    private final HttpServletRequest request;
+
+    public ServletRequestHeaders(HttpServletRequest request) {
+        this.request = request;
+    }
+
+    @Override
+    public String getFirst(String name) {
+        return request.getHeader(name);
+    }
+
+    @Override
+    public List<String> getAll(String name) {
+        var values = request.getHeaders(name);
+        return values == null ? List.of() : Collections.list(values);
+    }
+
+    @Override
+    public void forEachValue(BiConsumer<String, String> consumer) {
+        var names = request.getHeaderNames();
+        while (names.hasMoreElements()) {
+            var name = names.nextElement();
+            var values = request.getHeaders(name);
+            while (values.hasMoreElements()) {
+                consumer.accept(name, values.nextElement());
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.mo.gateway.component.proxy;
+
+import com.mo.gateway.config.properties.ProxyProperties;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+
+/**
+ * Streaming Body Message Converter
+ * Writes an upstream {@code Flux<DataBuffer>} to the servlet response chunk by chunk.
+ * At most {@code prefetch} chunks are requested ahead of the client, so memory stays
+ * constant regardless of the body size and a slow client slows down the upstream read.
+ */
+@Component
+public class StreamingBodyHttpMessageConverter extends AbstractHttpMessageConverter<Flux<DataBuffer>> {
+
+    private final int prefetch;
+
+    public StreamingBodyHttpMessageConverter(ProxyProperties proxyProperties) {
+        super(MediaType.APPLICATION_OCTET_STREAM, MediaType.ALL);
+        this.prefetch = proxyProperties.streamingPrefetch();
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Flux.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Flux<DataBuffer> readInternal(Class<? extends Flux<DataBuffer>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Streaming bodies can only be written", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Flux<DataBuffer> body, HttpOutputMessage outputMessage) throws IOException {
+        var out = outputMessage.getBody();
+        // Copy each chunk off the pooled buffer on the event loop so nothing leaks if the client aborts
+        try (var chunks = body.map(StreamingBodyHttpMessageConverter::toBytes).toStream(prefetch)) {
+            var iterator = chunks.iterator();
+            while (iterator.hasNext()) {
+                out.write(iterator.next());
+                out.flush();
+            }
+        }
+    }
+
+    private static byte[] toBytes(DataBuffer buffer) {
+        try {
+            var bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return bytes;
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.mo.gateway.component.proxy;
+
+import com.mo.gateway.config.properties.ProxyProperties;
+import com.mo.gateway.config.properties.UpstreamProperties;
+import com.mo.gateway.config.properties.UpstreamProperties.PoolSettings;
+import com.mo.gateway.config.properties.UpstreamProperties.Protocol;
+import com.mo.gateway.model.loadbalancer.ServiceInstance;
+import io.netty.channel.ChannelOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorResourceFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Upstream Client Registry
+ * Holds one WebClient and connection pool per configured upstream pool, plus a shared default
+ * pool for every other service. Pools keep connections per backend address, so each instance
+ * gets its own set of connections with the settings of its pool; HTTP/2 pools multiplex
+ * concurrent requests over a few long-lived connections instead of opening one per request.
+ */
+@Component
+public class UpstreamClientRegistry implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(UpstreamClientRegistry.class);
+
+    private static final String DEFAULT_POOL = "default";
+
+    private final ProxyProperties proxyProperties;
+
+    private final ReactorResourceFactory resourceFactory;
+
+    private final List<ConnectionProvider> providers = new ArrayList<>();
+
+    private final WebClient defaultClient;
+
+    private final Map<String, WebClient> clients;
+
+    public UpstreamClientRegistry(UpstreamProperties upstreamProperties, ProxyProperties proxyProperties,
+                                  ReactorResourceFactory resourceFactory) {
+        this.proxyProperties = proxyProperties;
+        this.resourceFactory = resourceFactory;
+        this.defaultClient = createClient(DEFAULT_POOL, upstreamProperties.defaults());
+        // Only configured pools get their own client, so the map never grows at runtime
+        var configured = new HashMap<String, WebClient>();
+        upstreamProperties.pools().keySet()
+                .forEach(name -> configured.put(name, createClient(name, upstreamProperties.pool(name))));
+        this.clients = Map.copyOf(configured);
+    }
+
+    /**
+     * Client for an instance, selected by its upstream-pool metadata, then by its service id
+     */
+    public WebClient forInstance(ServiceInstance instance) {
+        var metadata = instance.metadata();
+        var pool = metadata != null ? metadata.get(UpstreamProperties.POOL_METADATA_KEY) : null;
+        var client = clients.get(pool != null ? pool : instance.serviceId());
+        return client != null ? client : defaultClient;
+    }
+
+    /**
+     * Client of the shared default pool
+     */
+    public WebClient defaultClient() {
+        return defaultClient;
+    }
+
+    @Override
+    public void destroy() {
+        Flux.fromIterable(providers)
+                .flatMap(ConnectionProvider::disposeLater)
+                .blockLast(Duration.ofSeconds(10));
+    }
+
+    private WebClient createClient(String name, PoolSettings settings) {
+        var providerBuilder = ConnectionProvider.builder(STR."upstream-\{name}")
+                .maxConnections(settings.maxConnections())
+                .maxIdleTime(settings.maxIdleTime())
+                .maxLifeTime(settings.maxLifeTime())
+                .pendingAcquireTimeout(settings.pendingAcquireTimeout())
+                .pendingAcquireMaxCount(settings.pendingAcquireMaxCount())
+                .evictInBackground(settings.evictInterval())
+                .metrics(true);
+        if (settings.protocol() != Protocol.HTTP1_1) {
+            // Open another connection only once the existing ones carry maxConcurrentStreams streams
+            providerBuilder.allocationStrategy(Http2AllocationStrategy.builder()
+                    .maxConnections(settings.maxConnections())
+                    .maxConcurrentStreams(settings.maxConcurrentStreams())
+                    .minConnections(1)
+                    .build());
+        }
+        var provider = providerBuilder.build();
+        providers.add(provider);
+        // HTTP client with connect and response timeouts (the request deadline bounds the rest),
+        // running on the same event loops as the Reactor Netty server when the gateway runs in reactive mode
+        var httpClient = HttpClient.create(provider)
+                .runOn(resourceFactory.getLoopResources())
+                .protocol(protocols(settings.protocol()))
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) settings.connectTimeout().toMillis())
+                .responseTimeout(settings.responseTimeout());
+        log.info("Upstream pool '{}': protocol={}, maxConnections={}, maxLifeTime={}, responseTimeout={}",
+                name, settings.protocol(), settings.maxConnections(), settings.maxLifeTime(), settings.responseTimeout());
+        return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(proxyProperties.maxInMemorySize()))
+                .build();
+    }
+
+    private static HttpProtocol[] protocols(Protocol protocol) {
+        return switch (protocol) {
+            case HTTP1_1 -> new HttpProtocol[]{HttpProtocol.HTTP11};
+            case H2 -> new HttpProtocol[]{HttpProtocol.H2, HttpProtocol.HTTP11};
+            case H2C -> new HttpProtocol[]{HttpProtocol.H2C};
+        };
+    }
+}
@@ -0,0 +1,320 @@
+package com.mo.gateway.component.ratelimit.storage;
+
+import com.mo.gateway.config.properties.RateLimitProperties;
+import com.mo.gateway.model.ratelimit.RateLimitBucket;
+import com.mo.gateway.model.ratelimit.RateLimitPolicy;
+import com.mo.gateway.model.ratelimit.RateLimitResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process Rate Limit Storage
+ * Limits are enforced per gateway replica, without a network hop: every future is already
+ * complete. Keys are spread over striped maps and each key holds a single long, updated by
+ * compare-and-set, that packs a time in milliseconds (upper 40 bits) with a token or request count
+ * (lower 24 bits, so capacities are capped at 16,777,215 and results report the capped limit).
+ * Token buckets keep the time of their last refill and window counters the end of their window.
+ * <p>
+ * Keys idle for longer than their bucket takes to refill, or past their window, are dropped by a
+ * periodic sweep; such a bucket would be full again anyway. Each stripe holds at most its share
+ * of maxKeys, a full stripe first drops its idle keys, then the sixteenth of its keys that were
+ * used the longest ago.
+ */
+@Component("local")
+public class LocalRateLimitStorage implements RateLimitStorage, DisposableBean {
+
+    private static final int STRIPES = 64;
+
+    private static final int COUNT_BITS = 24;
+
+    static final long MAX_COUNT = (1L << COUNT_BITS) - 1;
+
+    private static final long MAX_TIME = (1L << (64 - COUNT_BITS)) - 1;
+
+    private static final VarHandle STATE;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(Entry.class, "state", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private final int maxKeysPerStripe;
+
+    private final long originNanos = System.nanoTime();
+
+    private final long originEpochMs = System.currentTimeMillis();
+
+    private final Counter idleEvictions;
+
+    private final Counter capacityEvictions;
+
+    private final ScheduledFuture<?> sweeping;
+
+    /**
+     * Packed state of one key, expiresAt is when the key may be dropped
+     */
+    private static final class Entry {
+
+        volatile long state;
+
+        volatile long expiresAt;
+
+        Entry(long state, long expiresAt) {
+            this.state = state;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean compareAndSet(long expected, long state) {
+            return STATE.compareAndSet(this, expected, state);
+        }
+    }
+
+    private static final class Stripe {
+
+        final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+        final AtomicInteger size = new AtomicInteger();
+    }
+
+    public LocalRateLimitStorage(RateLimitProperties properties, MeterRegistry meterRegistry,
+                                 TaskScheduler taskScheduler) {
+        var settings = properties.local();
+        for (var i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.maxKeysPerStripe = Math.max(1, Math.ceilDiv(settings.maxKeys(), STRIPES));
+        this.idleEvictions = evictions(meterRegistry, "idle");
+        this.capacityEvictions = evictions(meterRegistry, "capacity");
+        Gauge.builder("gateway.ratelimit.local.keys", this, LocalRateLimitStorage::size)
+                .description("Rate limit keys held in process")
+                .register(meterRegistry);
+        this.sweeping = taskScheduler.scheduleAtFixedRate(this::sweep, settings.sweepInterval());
+    }
+
+    private static Counter evictions(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("gateway.ratelimit.local.evictions")
+                .description("Rate limit keys dropped from the in-process storage")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Refill the token bucket of the key and take the policy's request cost from it in one step
+     */
+    @Override
+    public CompletableFuture<RateLimitResult> consumeTokens(String key, RateLimitPolicy policy) {
+        var capacity = Math.min(policy.capacity(), MAX_COUNT);
+        var rate = policy.refillRate();
+        var cost = policy.requestCost();
+        // Time for an empty bucket to fill up, past it a bucket is as good as new
+        var refillMs = rate > 0 ? Math.ceilDiv(capacity * 1000, rate) : policy.windowSizeMs();
+        var now = now();
+        var entry = entry(key, pack(now, capacity), now, refillMs);
+        while (true) {
+            var current = entry.state;
+            var refilledAt = current >>> COUNT_BITS;
+            var tokens = Math.min(current & MAX_COUNT, capacity);
+            var elapsed = now - refilledAt;
+            if (tokens >= capacity || rate > 0 && elapsed >= refillMs) {
+                tokens = capacity;
+                refilledAt = now;
+            } else if (rate > 0 && elapsed > 0) {
+                var added = elapsed * rate / 1000;
+                if (tokens + added >= capacity) {
+                    tokens = capacity;
+                    refilledAt = now;
+                } else if (added > 0) {
+                    // Only the time the added tokens took is spent, the remainder counts towards the next one
+                    tokens += added;
+                    refilledAt += added * 1000 / rate;
+                }
+            }
+            var allowed = tokens >= cost;
+            var next = pack(refilledAt, allowed ? tokens - cost : tokens);
+            if (next == current || entry.compareAndSet(current, next)) {
+                entry.expiresAt = now + refillMs;
+                if (allowed) {
+                    return CompletableFuture.completedFuture(RateLimitResult.allowed(tokens - cost, capacity));
+                }
+                var retryAfter = rate > 0
+                        ? Math.max(1, Math.ceilDiv((cost - tokens) * 1000, rate) - Math.max(0, now - refilledAt))
+                        : policy.windowSizeMs();
+                return CompletableFuture.completedFuture(RateLimitResult.rejected(tokens, capacity, retryAfter));
+            }
+        }
+    }
+
+    @Override
+    public CompletableFuture<Long> increment(String key, long expiration) {
+        var now = now();
+        var entry = entry(key, 0, now, expiration);
+        while (true) {
+            var current = entry.state;
+            var expired = current >>> COUNT_BITS <= now;
+            var next = expired ? pack(now + expiration, 1)
+                    : current + ((current & MAX_COUNT) < MAX_COUNT ? 1 : 0);
+            if (entry.compareAndSet(current, next)) {
+                if (expired) {
+                    entry.expiresAt = now + expiration;
+                }
+                return CompletableFuture.completedFuture(next & MAX_COUNT);
+            }
+        }
+    }
+
+    @Override
+    public CompletableFuture<RateLimitBucket> getBucket(String key) {
+        var entry = stripe(key).entries.get(key);
+        if (entry == null || entry.expiresAt <= now()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        var state = entry.state;
+        return CompletableFuture.completedFuture(
+                new RateLimitBucket(state & MAX_COUNT, originEpochMs + (state >>> COUNT_BITS)));
+    }
+
+    @Override
+    public CompletableFuture<Void> setBucket(String key, RateLimitBucket bucket, long ttl) {
+        var now = now();
+        var state = packBucket(bucket);
+        var entry = entry(key, state, now, ttl);
+        entry.state = state;
+        entry.expiresAt = now + ttl;
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> setIfNotExists(String key, RateLimitBucket bucket, long ttl) {
+        var now = now();
+        var stripe = stripe(key);
+        var existing = stripe.entries.get(key);
+        if (existing != null && existing.expiresAt > now) {
+            return CompletableFuture.completedFuture(false);
+        }
+        var created = new Entry(packBucket(bucket), now + ttl);
+        if (existing != null) {
+            return CompletableFuture.completedFuture(stripe.entries.replace(key, existing, created));
+        }
+        return CompletableFuture.completedFuture(insert(stripe, key, created, now) == created);
+    }
+
+    /**
+     * Keys currently held
+     */
+    public int size() {
+        var size = 0;
+        for (var stripe : stripes) {
+            size += stripe.size.get();
+        }
+        return size;
+    }
+
+    @Override
+    public void destroy() {
+        sweeping.cancel(false);
+    }
+
+    /**
+     * Drop the keys past their expiry
+     */
+    void sweep() {
+        var now = now();
+        for (var stripe : stripes) {
+            removeExpired(stripe, now);
+        }
+    }
+
+    private Entry entry(String key, long initialState, long now, long ttl) {
+        var stripe = stripe(key);
+        var entry = stripe.entries.get(key);
+        return entry != null ? entry : insert(stripe, key, new Entry(initialState, now + ttl), now);
+    }
+
+    /**
+     * Add the entry unless the key is already held, returns the entry held for the key
+     */
+    private Entry insert(Stripe stripe, String key, Entry entry, long now) {
+        if (stripe.size.get() >= maxKeysPerStripe) {
+            makeRoom(stripe, now);
+        }
+        var existing = stripe.entries.putIfAbsent(key, entry);
+        if (existing != null) {
+            return existing;
+        }
+        stripe.size.incrementAndGet();
+        return entry;
+    }
+
+    private void makeRoom(Stripe stripe, long now) {
+        if (removeExpired(stripe, now) > 0 && stripe.size.get() < maxKeysPerStripe) {
+            return;
+        }
+        // Drop a batch so a stripe full of live keys is not scanned on every new key
+        var deadlines = stripe.entries.values().stream().mapToLong(entry -> entry.expiresAt).toArray();
+        if (deadlines.length == 0) {
+            return;
+        }
+        Arrays.sort(deadlines);
+        var cutoff = deadlines[deadlines.length / 16];
+        for (var iterator = stripe.entries.entrySet().iterator(); iterator.hasNext(); ) {
+            var entry = iterator.next();
+            if (entry.getValue().expiresAt <= cutoff && stripe.entries.remove(entry.getKey(), entry.getValue())) {
+                stripe.size.decrementAndGet();
+                capacityEvictions.increment();
+            }
+        }
+    }
+
+    private int removeExpired(Stripe stripe, long now) {
+        var removed = 0;
+        for (var entry : stripe.entries.entrySet()) {
+            if (entry.getValue().expiresAt <= now && stripe.entries.remove(entry.getKey(), entry.getValue())) {
+                stripe.size.decrementAndGet();
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            idleEvictions.increment(removed);
+        }
+        return removed;
+    }
+
+    private Stripe stripe(String key) {
+        var hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    /**
+     * Milliseconds since this storage was created, on the monotonic clock
+     */
+    private long now() {
+        return (System.nanoTime() - originNanos) / 1_000_000;
+    }
+
+    private long packBucket(RateLimitBucket bucket) {
+        var refilledAt = Math.clamp(bucket.lastRefill() - originEpochMs, 0, MAX_TIME);
+        return pack(refilledAt, Math.clamp(bucket.tokens(), 0, MAX_COUNT));
+    }
+
+    private static long pack(long time, long count) {
+        return time << COUNT_BITS | count;
+    }
+}
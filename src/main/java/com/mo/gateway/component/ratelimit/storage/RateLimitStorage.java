@@ -1,6 +1,8 @@
 package com.mo.gateway.component.ratelimit.storage;
 
 import com.mo.gateway.model.ratelimit.RateLimitBucket;
+import com.mo.gateway.model.ratelimit.RateLimitPolicy;
+import com.mo.gateway.model.ratelimit.RateLimitResult;
 
 import java.util.concurrent.CompletableFuture;
 
@@ -29,4 +31,41 @@ public interface RateLimitStorage {
      * Set bucket only if it doesn't exist
      */
     CompletableFuture<Boolean> setIfNotExists(String key, RateLimitBucket bucket, long ttl);
+
+    /**
+     * Refill the token bucket of the key and take the policy's request cost from it
+     * The default reads and writes the bucket, storages that can do it atomically override it.
+     */
+    default CompletableFuture<RateLimitResult> consumeTokens(String key, RateLimitPolicy policy) {
+        return getBucket(key).thenCompose(bucket -> {
+            var now = System.currentTimeMillis();
+            var refilled = refill(bucket, policy, now);
+            if (refilled.hasTokens(policy.requestCost())) {
+                var consumed = refilled.consumeTokens(policy.requestCost());
+                return setBucket(key, consumed, policy.windowSizeMs())
+                        .thenApply(v -> RateLimitResult.allowed(consumed.tokens(), policy.capacity()));
+            }
+            return setBucket(key, refilled, policy.windowSizeMs())
+                    .thenApply(v -> RateLimitResult.rejected(refilled.tokens(), policy.capacity(),
+                            retryAfter(refilled, policy)));
+        });
+    }
+
+    private static RateLimitBucket refill(RateLimitBucket bucket, RateLimitPolicy policy, long now) {
+        if (bucket == null) {
+            return new RateLimitBucket(policy.capacity(), now);
+        }
+        var timePassed = now - bucket.lastRefill();
+        var tokensToAdd = (timePassed * policy.refillRate()) / 1000;
+        var newTokens = Math.min(policy.capacity(), bucket.tokens() + tokensToAdd);
+        return new RateLimitBucket(newTokens, now);
+    }
+
+    private static long retryAfter(RateLimitBucket bucket, RateLimitPolicy policy) {
+        if (bucket.tokens() >= policy.requestCost()) {
+            return 0;
+        }
+        var tokensNeeded = policy.requestCost() - bucket.tokens();
+        return (tokensNeeded * 1000) / policy.refillRate();
+    }
 }
@@ -4,6 +4,7 @@ import com.mo.gateway.model.ratelimit.RateLimitBucket;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Component;
@@ -11,12 +12,13 @@ import org.springframework.stereotype.Component;
 import java.time.Duration;
 import java.util.Collections;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Redis-based Rate Limit Storage
  * Provides distributed rate limiting across multiple gateway instances
  */
-@Component
+@Component("redis")
 public class RedisRateLimitStorage implements RateLimitStorage {
 
     private static final Logger log = LoggerFactory.getLogger(RedisRateLimitStorage.class);
@@ -25,6 +27,8 @@ public class RedisRateLimitStorage implements RateLimitStorage {
 
     private final ObjectMapper objectMapper;
 
+    private final Executor executor;
+
     // Lua script for atomic increment with expiration
     private static final String INCREMENT_SCRIPT = """
         local current = redis.call('GET', KEYS[1])
@@ -37,9 +41,11 @@ public class RedisRateLimitStorage implements RateLimitStorage {
         end
         """;
 
-    public RedisRateLimitStorage(RedisTemplate<String, Object> redisTemplate, ObjectMapper objectMapper) {
+    public RedisRateLimitStorage(RedisTemplate<String, Object> redisTemplate, ObjectMapper objectMapper,
+                                 @Qualifier("gatewayTaskExecutor") Executor executor) {
         this.redisTemplate = redisTemplate;
         this.objectMapper = objectMapper;
+        this.executor = executor;
     }
 
     @Override
@@ -54,7 +60,7 @@ public class RedisRateLimitStorage implements RateLimitStorage {
                 log.error("Failed to increment key: {}", key, e);
                 throw new RuntimeException("Redis increment failed", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -70,7 +76,7 @@ public class RedisRateLimitStorage implements RateLimitStorage {
                 log.error("Failed to get bucket for key: {}", key, e);
                 return null;
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -83,7 +89,7 @@ public class RedisRateLimitStorage implements RateLimitStorage {
                 log.error("Failed to set bucket for key: {}", key, e);
                 throw new RuntimeException("Redis set bucket failed", e);
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -96,6 +102,6 @@ public class RedisRateLimitStorage implements RateLimitStorage {
                 log.error("Failed to set bucket if not exists for key: {}", key, e);
                 return false;
             }
-        });
+        }, executor);
     }
 }
\ No newline at end of file
@@ -0,0 +1,135 @@
+package com.mo.gateway.component.resilience;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mo.gateway.component.resilience.InstanceCircuitBreaker.State;
+import com.mo.gateway.config.properties.LoadBalancerProperties;
+import com.mo.gateway.model.loadbalancer.ServiceInstance;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.Exceptions;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Circuit Breaker Registry
+ * One breaker per service instance, consulted by the load balancer before a strategy sees the
+ * candidates and fed with the outcome of every upstream call. Breakers of instances that have not
+ * been seen for ten minutes are dropped, so pod churn does not accumulate state. Transitions are
+ * counted in gateway.circuit.transitions and current states gauged in gateway.circuit.instances.
+ * Disabled by gateway.loadbalancer.enable-circuit-breaker=false.
+ */
+@Component
+public class CircuitBreakerRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreakerRegistry.class);
+
+    private final LoadBalancerProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Cache<String, InstanceCircuitBreaker> breakers = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build();
+
+    public CircuitBreakerRegistry(LoadBalancerProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        for (var state : State.values()) {
+            Gauge.builder("gateway.circuit.instances", breakers, cache -> count(cache, state))
+                    .description("Instances with a circuit breaker by state")
+                    .tag("state", tagValue(state))
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Candidates whose circuit lets traffic through, the same list when none is open
+     */
+    public List<ServiceInstance> available(List<ServiceInstance> instances) {
+        if (!properties.enableCircuitBreaker() || instances.stream().allMatch(this::isAvailable)) {
+            return instances;
+        }
+        return instances.stream().filter(this::isAvailable).toList();
+    }
+
+    /**
+     * Claim a call on the selected instance, false when a half-open instance has no trial call left
+     */
+    public boolean tryAcquire(ServiceInstance instance) {
+        if (!properties.enableCircuitBreaker()) {
+            return true;
+        }
+        var breaker = breakers.getIfPresent(instance.id());
+        return breaker == null || breaker.tryAcquire();
+    }
+
+    /**
+     * Give back a call claimed by tryAcquire that produced no outcome: cancelled, refused by the
+     * gateway before it was sent, or a selection that was not used
+     */
+    public void release(ServiceInstance instance) {
+        if (!properties.enableCircuitBreaker()) {
+            return;
+        }
+        var breaker = breakers.getIfPresent(instance.id());
+        if (breaker != null) {
+            breaker.release();
+        }
+    }
+
+    /**
+     * Record a call that produced a response, 5xx counts as a failure
+     */
+    public void recordResponse(ServiceInstance instance, long startNanos, int statusCode) {
+        record(instance, startNanos, statusCode >= 500);
+    }
+
+    /**
+     * Record a call that failed; an expired request deadline is not held against the instance
+     * beyond counting as slow
+     */
+    public void recordFailure(ServiceInstance instance, long startNanos, Throwable throwable) {
+        var cause = Exceptions.unwrap(throwable);
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        record(instance, startNanos, !(cause instanceof TimeoutException));
+    }
+
+    private void record(ServiceInstance instance, long startNanos, boolean failed) {
+        if (!properties.enableCircuitBreaker()) {
+            return;
+        }
+        breakers.get(instance.id(), id -> newBreaker(instance))
+                .record(System.nanoTime() - startNanos, failed);
+    }
+
+    private boolean isAvailable(ServiceInstance instance) {
+        var breaker = breakers.getIfPresent(instance.id());
+        return breaker == null || breaker.isAvailable();
+    }
+
+    private InstanceCircuitBreaker newBreaker(ServiceInstance instance) {
+        return new InstanceCircuitBreaker(properties.circuitBreaker(), state -> {
+            log.warn("Circuit of instance {} ({}) is now {}", instance.id(), instance.serviceId(), state);
+            meterRegistry.counter("gateway.circuit.transitions",
+                    "service", instance.serviceId(), "state", tagValue(state)).increment();
+        });
+    }
+
+    private static double count(Cache<String, InstanceCircuitBreaker> cache, State state) {
+        return cache.asMap().values().stream().filter(breaker -> breaker.state() == state).count();
+    }
+
+    private static String tagValue(State state) {
+        return state.name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,109 @@
+package com.mo.gateway.component.resilience;
+
+import com.mo.gateway.config.properties.ConcurrencyLimitProperties;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive in-flight limit of one service, after the gradient algorithm of Netflix's
+ * concurrency-limits: the limit is scaled by longRtt / shortRtt (clamped to [0.5, 1]) plus a
+ * queue allowance of sqrt(limit), so it grows while recent latency matches the long-term
+ * baseline and shrinks once requests start queueing at the service.
+ * Admission is a CAS on the in-flight counter; samples are folded in under a tryLock and simply
+ * dropped when another thread is updating, the estimate does not need every sample.
+ */
+final class GradientLimit {
+
+    /**
+     * Samples averaged into the short-term RTT
+     */
+    private static final int SHORT_WINDOW = 10;
+
+    private final ConcurrencyLimitProperties settings;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile int limit;
+
+    private double estimatedLimit;
+
+    private double shortRttNanos;
+
+    private double longRttNanos;
+
+    private long samples;
+
+    GradientLimit(ConcurrencyLimitProperties settings) {
+        this.settings = settings;
+        this.estimatedLimit = settings.initialLimit();
+        this.limit = settings.initialLimit();
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Take an in-flight slot, returns the in-flight count including this call or -1 when the limit is reached
+     */
+    int tryAcquire() {
+        while (true) {
+            var current = inFlight.get();
+            if (current >= limit) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Give the slot back, a measured round trip also updates the limit
+     *
+     * @param rttNanos           round-trip time, negative when the call yielded no usable sample
+     * @param inFlightAtStart    in-flight count when the call was admitted
+     */
+    void release(long rttNanos, int inFlightAtStart) {
+        inFlight.decrementAndGet();
+        if (rttNanos < 0 || !lock.tryLock()) {
+            return;
+        }
+        try {
+            update(rttNanos, inFlightAtStart);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void update(long rttNanos, int inFlightAtStart) {
+        samples++;
+        if (samples == 1) {
+            shortRttNanos = rttNanos;
+            longRttNanos = rttNanos;
+            return;
+        }
+        shortRttNanos += (rttNanos - shortRttNanos) / Math.min(samples, SHORT_WINDOW);
+        longRttNanos += (rttNanos - longRttNanos) / Math.min(samples, settings.longWindow());
+        // After a long overload the baseline has drifted up, let it come back down faster
+        if (longRttNanos > 2 * shortRttNanos) {
+            longRttNanos *= 0.95;
+        }
+        // Nothing to learn about the limit while the service is far from reaching it
+        if (inFlightAtStart < estimatedLimit / 2) {
+            return;
+        }
+        var gradient = Math.clamp(settings.rttTolerance() * longRttNanos / shortRttNanos, 0.5, 1.0);
+        var newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = Math.clamp(estimatedLimit * (1 - settings.smoothing()) + newLimit * settings.smoothing(),
+                settings.minLimit(), settings.maxLimit());
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,204 @@
+package com.mo.gateway.component.resilience;
+
+import com.mo.gateway.config.properties.LoadBalancerProperties.CircuitBreakerSettings;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Circuit breaker of one service instance
+ * The sliding window is a ring of time buckets, each packed into a single long (bucket epoch,
+ * calls, failures, slow calls; 16 bits each) so recording a call is one CAS and a bucket that
+ * rolls over is reset by the same CAS. Counts saturate at 65535 calls per bucket.
+ */
+final class InstanceCircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final int BUCKETS = 10;
+
+    private static final long FIELD_MASK = 0xFFFF;
+
+    private static final long CALL = 1L << 32;
+
+    private static final long FAILURE = 1L << 16;
+
+    private static final long SLOW = 1L;
+
+    private final CircuitBreakerSettings settings;
+
+    private final long bucketNanos;
+
+    private final Consumer<State> onTransition;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+
+    private final AtomicInteger halfOpenSuccesses = new AtomicInteger();
+
+    private volatile long openedAtNanos;
+
+    private volatile long halfOpenedAtNanos;
+
+    InstanceCircuitBreaker(CircuitBreakerSettings settings, Consumer<State> onTransition) {
+        this.settings = settings;
+        this.bucketNanos = settings.window().toNanos() / BUCKETS;
+        this.onTransition = onTransition;
+    }
+
+    State state() {
+        return state.get();
+    }
+
+    /**
+     * Whether the instance may be offered to the load balancing strategy
+     * An open circuit whose open duration has elapsed moves to half-open here.
+     */
+    boolean isAvailable() {
+        return switch (state.get()) {
+            case CLOSED -> true;
+            case OPEN -> {
+                if (System.nanoTime() - openedAtNanos < settings.openDuration().toNanos()) {
+                    yield false;
+                }
+                halfOpen();
+                yield halfOpenPermits.get() > 0;
+            }
+            case HALF_OPEN -> {
+                if (halfOpenPermits.get() > 0) {
+                    yield true;
+                }
+                // Trial calls that never report back must not keep the circuit half-open for good
+                if (System.nanoTime() - halfOpenedAtNanos >= settings.openDuration().toNanos()) {
+                    open(State.HALF_OPEN);
+                }
+                yield false;
+            }
+        };
+    }
+
+    /**
+     * Take the right to call the selected instance, only limited while half-open
+     */
+    boolean tryAcquire() {
+        return switch (state.get()) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                while (true) {
+                    var permits = halfOpenPermits.get();
+                    if (permits <= 0) {
+                        yield false;
+                    }
+                    if (halfOpenPermits.compareAndSet(permits, permits - 1)) {
+                        yield true;
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Give back a call taken by tryAcquire that ended without an outcome
+     */
+    void release() {
+        if (state.get() == State.HALF_OPEN) {
+            halfOpenPermits.updateAndGet(permits -> Math.min(permits + 1, settings.halfOpenCalls()));
+        }
+    }
+
+    /**
+     * Record the outcome of a call, every call taken by tryAcquire is either recorded or released
+     */
+    void record(long durationNanos, boolean failed) {
+        var slow = durationNanos >= settings.slowCallDuration().toNanos();
+        switch (state.get()) {
+            case CLOSED -> {
+                add(failed, slow);
+                // Rates only rise on a failed or slow call, so successes skip the evaluation
+                if ((failed || slow) && isTripped()) {
+                    open(State.CLOSED);
+                }
+            }
+            case HALF_OPEN -> {
+                if (failed || slow) {
+                    open(State.HALF_OPEN);
+                } else if (halfOpenSuccesses.incrementAndGet() >= settings.halfOpenCalls()) {
+                    for (var i = 0; i < BUCKETS; i++) {
+                        buckets.set(i, 0);
+                    }
+                    transition(State.HALF_OPEN, State.CLOSED);
+                }
+            }
+            case OPEN -> {
+                // Calls started before the circuit opened, nothing to learn from them
+            }
+        }
+    }
+
+    /**
+     * Only the thread that wins the transition hands out the trial permits
+     */
+    private void halfOpen() {
+        if (state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            halfOpenedAtNanos = System.nanoTime();
+            halfOpenSuccesses.set(0);
+            halfOpenPermits.set(settings.halfOpenCalls());
+            onTransition.accept(State.HALF_OPEN);
+        }
+    }
+
+    private void open(State from) {
+        openedAtNanos = System.nanoTime();
+        transition(from, State.OPEN);
+    }
+
+    private void transition(State from, State to) {
+        if (state.compareAndSet(from, to)) {
+            onTransition.accept(to);
+        }
+    }
+
+    private void add(boolean failed, boolean slow) {
+        var epoch = Math.floorDiv(System.nanoTime(), bucketNanos);
+        var index = (int) Math.floorMod(epoch, BUCKETS);
+        var tag = epoch & FIELD_MASK;
+        var delta = CALL + (failed ? FAILURE : 0) + (slow ? SLOW : 0);
+        while (true) {
+            var current = buckets.get(index);
+            // A bucket left over from an earlier lap of the ring starts from zero
+            var base = (current >>> 48) == tag ? current : tag << 48;
+            if (((base >>> 32) & FIELD_MASK) == FIELD_MASK) {
+                return;
+            }
+            if (buckets.compareAndSet(index, current, base + delta)) {
+                return;
+            }
+        }
+    }
+
+    private boolean isTripped() {
+        var tag = Math.floorDiv(System.nanoTime(), bucketNanos) & FIELD_MASK;
+        long calls = 0;
+        long failures = 0;
+        long slowCalls = 0;
+        for (var i = 0; i < BUCKETS; i++) {
+            var bucket = buckets.get(i);
+            if (((tag - (bucket >>> 48)) & FIELD_MASK) < BUCKETS) {
+                calls += (bucket >>> 32) & FIELD_MASK;
+                failures += (bucket >>> 16) & FIELD_MASK;
+                slowCalls += bucket & FIELD_MASK;
+            }
+        }
+        return calls >= settings.minimumCalls()
+                && (failures >= settings.failureRateThreshold() * calls
+                || slowCalls >= settings.slowCallRateThreshold() * calls);
+    }
+}
@@ -0,0 +1,145 @@
+package com.mo.gateway.component.resilience;
+
+import com.mo.gateway.config.properties.LoadSheddingProperties;
+import com.mo.gateway.model.dto.GatewayRequest;
+import com.mo.gateway.model.ratelimit.ClientTier;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.client.reactive.ReactorResourceFactory;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import reactor.netty.resources.LoopResources;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Priority Load Shedder
+ * Admits or sheds each request at the door by comparing gateway saturation with the threshold of
+ * the client's tier, so lower tiers are shed first and higher tiers keep their latency while the
+ * gateway is overloaded. Saturation combines the in-flight request count, read on every request,
+ * with pending upstream connection acquires and event loop lag, sampled every sampleInterval.
+ * Event loop lag is the delay of a no-op task submitted to each upstream event loop; a task that
+ * has not run yet counts with its age so far.
+ */
+@Component
+public class LoadShedder implements DisposableBean {
+
+    private static final List<String> PENDING_GAUGES = List.of(
+            "reactor.netty.connection.provider.pending.connections",
+            "reactor.netty.connection.provider.pending.streams");
+
+    private final LoadSheddingProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final List<EventExecutor> eventLoops = new ArrayList<>();
+
+    private final AtomicLongArray probeSubmittedAt;
+
+    private final AtomicLongArray probeLag;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final double[] thresholds = new double[ClientTier.values().length];
+
+    private final Counter[] shed = new Counter[ClientTier.values().length];
+
+    private final ScheduledFuture<?> sampling;
+
+    private volatile double sampledSaturation;
+
+    public LoadShedder(LoadSheddingProperties properties, MeterRegistry meterRegistry,
+                       ReactorResourceFactory resourceFactory, TaskScheduler taskScheduler) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        EventLoopGroup group = resourceFactory.getLoopResources().onClient(LoopResources.DEFAULT_NATIVE);
+        group.forEach(eventLoops::add);
+        this.probeSubmittedAt = new AtomicLongArray(eventLoops.size());
+        this.probeLag = new AtomicLongArray(eventLoops.size());
+        for (var tier : ClientTier.values()) {
+            thresholds[tier.ordinal()] = properties.tierThresholds().getOrDefault(tier.key(), Double.POSITIVE_INFINITY);
+            shed[tier.ordinal()] = Counter.builder("gateway.shed.requests")
+                    .description("Requests shed under overload by client tier")
+                    .tag("tier", tier.key())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("gateway.shed.saturation", this, shedder -> shedder.saturation(shedder.inFlight.get()))
+                .description("Gateway saturation compared against the tier thresholds")
+                .register(meterRegistry);
+        Gauge.builder("gateway.inflight", inFlight, AtomicInteger::get)
+                .description("Requests admitted and not completed yet")
+                .register(meterRegistry);
+        this.sampling = properties.enabled()
+                ? taskScheduler.scheduleAtFixedRate(this::sample, properties.sampleInterval())
+                : null;
+    }
+
+    /**
+     * Admit a request or shed it, every admitted request must be released once complete
+     */
+    public boolean tryAdmit(GatewayRequest request) {
+        if (properties.enabled()) {
+            var tier = ClientTier.of(request.getClientIdentifier());
+            if (saturation(inFlight.get()) >= thresholds[tier.ordinal()]) {
+                shed[tier.ordinal()].increment();
+                return false;
+            }
+        }
+        inFlight.incrementAndGet();
+        return true;
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    @Override
+    public void destroy() {
+        if (sampling != null) {
+            sampling.cancel(false);
+        }
+    }
+
+    private double saturation(int currentInFlight) {
+        return Math.max((double) currentInFlight / properties.maxInFlight(), sampledSaturation);
+    }
+
+    /**
+     * Measure pending connection acquires and event loop lag
+     */
+    void sample() {
+        var now = System.nanoTime();
+        long lag = 0;
+        for (var i = 0; i < eventLoops.size(); i++) {
+            var submittedAt = probeSubmittedAt.get(i);
+            if (submittedAt != 0) {
+                // The previous probe is still queued behind other work
+                lag = Math.max(lag, now - submittedAt);
+                continue;
+            }
+            lag = Math.max(lag, probeLag.get(i));
+            var index = i;
+            probeSubmittedAt.set(i, now);
+            eventLoops.get(i).execute(() -> {
+                probeLag.set(index, System.nanoTime() - now);
+                probeSubmittedAt.set(index, 0);
+            });
+        }
+        double pending = 0;
+        for (var name : PENDING_GAUGES) {
+            for (var gauge : meterRegistry.find(name).gauges()) {
+                pending += gauge.value();
+            }
+        }
+        sampledSaturation = Math.max(pending / properties.maxPendingAcquires(),
+                (double) lag / properties.maxEventLoopLag().toNanos());
+    }
+}
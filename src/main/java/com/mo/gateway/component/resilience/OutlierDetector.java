@@ -0,0 +1,296 @@
+package com.mo.gateway.component.resilience;
+
+import com.mo.gateway.config.properties.LoadBalancerProperties;
+import com.mo.gateway.config.properties.LoadBalancerProperties.OutlierDetectionSettings;
+import com.mo.gateway.model.loadbalancer.ServiceInstance;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import reactor.core.Exceptions;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Passive Outlier Detector
+ * Watches the outcome of every upstream call and ejects instances that return consecutive 5xx,
+ * fail consecutively at the transport level, or answer much slower than the rest of their
+ * service. Ejected instances are skipped by the load balancer until their ejection time runs out;
+ * the time doubles with every repeated ejection and decays while the instance behaves. At most
+ * maxEjectionPercent of a service, and never its last instance, is ejected at once; the cap is taken
+ * over the instances discovery currently lists, so departed ones that still have stats do not count.
+ * Discovery health is left alone: ejection is a time-bound overlay on top of it.
+ */
+@Component
+public class OutlierDetector {
+
+    private static final Logger log = LoggerFactory.getLogger(OutlierDetector.class);
+
+    /**
+     * Instances without traffic for this long are forgotten
+     */
+    private static final long IDLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final OutlierDetectionSettings settings;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<String, ServiceOutliers> services = new ConcurrentHashMap<>();
+
+    public OutlierDetector(LoadBalancerProperties properties, MeterRegistry meterRegistry, TaskScheduler taskScheduler) {
+        this.settings = properties.outlierDetection();
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("gateway.outlier.ejected", services, OutlierDetector::ejectedCount)
+                .description("Instances currently ejected by outlier detection")
+                .register(meterRegistry);
+        if (settings.enabled()) {
+            taskScheduler.scheduleWithFixedDelay(this::analyze, settings.interval());
+        }
+    }
+
+    /**
+     * Candidates that are not ejected, all of them when every candidate is
+     */
+    public List<ServiceInstance> notEjected(List<ServiceInstance> instances) {
+        if (!settings.enabled() || instances.isEmpty()) {
+            return instances;
+        }
+        var outliers = services.get(instances.getFirst().serviceId());
+        if (outliers == null) {
+            return instances;
+        }
+        var now = System.nanoTime();
+        if (instances.stream().noneMatch(instance -> outliers.isEjected(instance.id(), now))) {
+            return instances;
+        }
+        var remaining = instances.stream()
+                .filter(instance -> !outliers.isEjected(instance.id(), now))
+                .toList();
+        return remaining.isEmpty() ? instances : remaining;
+    }
+
+    /**
+     * Note the instances discovery currently lists for their service, before any filtering
+     */
+    public void discovered(List<ServiceInstance> instances) {
+        if (!settings.enabled() || instances.isEmpty()) {
+            return;
+        }
+        var outliers = services.get(instances.getFirst().serviceId());
+        if (outliers != null && outliers.discovered != instances) {
+            outliers.discovered = instances;
+        }
+    }
+
+    /**
+     * Record a call that produced a response
+     */
+    public void recordResponse(ServiceInstance instance, long startNanos, int statusCode) {
+        if (!settings.enabled()) {
+            return;
+        }
+        var now = System.nanoTime();
+        var stats = stats(instance, now);
+        if (statusCode >= 500) {
+            onError(instance, stats, statusCode == 502 || statusCode == 503 || statusCode == 504, now);
+            return;
+        }
+        stats.consecutive5xx.set(0);
+        stats.consecutiveGatewayFailures.set(0);
+        stats.latencyNanos.add(now - startNanos);
+        stats.latencyCount.increment();
+    }
+
+    /**
+     * Record a call that failed, an expired request deadline says nothing about the instance
+     */
+    public void recordFailure(ServiceInstance instance, Throwable throwable) {
+        if (!settings.enabled()) {
+            return;
+        }
+        var cause = Exceptions.unwrap(throwable);
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof TimeoutException) {
+            return;
+        }
+        var now = System.nanoTime();
+        onError(instance, stats(instance, now), true, now);
+    }
+
+    private void onError(ServiceInstance instance, InstanceStats stats, boolean gatewayFailure, long now) {
+        var consecutive5xx = stats.consecutive5xx.incrementAndGet();
+        var consecutiveGatewayFailures = gatewayFailure
+                ? stats.consecutiveGatewayFailures.incrementAndGet()
+                : resetToZero(stats.consecutiveGatewayFailures);
+        if (consecutive5xx >= settings.consecutive5xx()) {
+            eject(instance.serviceId(), instance.id(), stats, "consecutive_5xx", now);
+        } else if (consecutiveGatewayFailures >= settings.consecutiveGatewayFailure()) {
+            eject(instance.serviceId(), instance.id(), stats, "consecutive_gateway_failure", now);
+        }
+    }
+
+    /**
+     * Periodic pass: latency outliers, ejection decay and cleanup of departed instances
+     */
+    void analyze() {
+        var now = System.nanoTime();
+        services.forEach((serviceId, outliers) -> {
+            var latencies = new ArrayList<Latency>();
+            outliers.instances.forEach((instanceId, stats) -> {
+                var count = stats.latencyCount.sumThenReset();
+                var total = stats.latencyNanos.sumThenReset();
+                if (!stats.isEjected(now) && now - stats.lastSeenNanos > IDLE_NANOS) {
+                    outliers.instances.remove(instanceId, stats);
+                    return;
+                }
+                outliers.decay(stats, now);
+                if (count >= settings.latencyMinimumRequests()) {
+                    latencies.add(new Latency(instanceId, stats, total / count));
+                }
+            });
+            if (latencies.size() < settings.latencyMinimumInstances()) {
+                return;
+            }
+            latencies.sort(Comparator.comparingLong(Latency::meanNanos));
+            var median = latencies.get(latencies.size() / 2).meanNanos();
+            for (var latency : latencies) {
+                if (latency.meanNanos() > settings.latencyFactor() * median) {
+                    eject(serviceId, latency.instanceId(), latency.stats(), "latency", now);
+                }
+            }
+        });
+    }
+
+    private void eject(String serviceId, String instanceId, InstanceStats stats, String reason, long now) {
+        var outliers = services.get(serviceId);
+        if (outliers == null) {
+            return;
+        }
+        var ejectionNanos = outliers.eject(stats, now);
+        if (ejectionNanos > 0) {
+            log.warn("Ejected instance {} of service {} for {}s: {}",
+                    instanceId, serviceId, TimeUnit.NANOSECONDS.toSeconds(ejectionNanos), reason);
+            meterRegistry.counter("gateway.outlier.ejections", "service", serviceId, "reason", reason).increment();
+        }
+    }
+
+    private InstanceStats stats(ServiceInstance instance, long now) {
+        var stats = services.computeIfAbsent(instance.serviceId(), id -> new ServiceOutliers())
+                .instances.computeIfAbsent(instance.id(), id -> new InstanceStats());
+        stats.lastSeenNanos = now;
+        return stats;
+    }
+
+    private static int resetToZero(AtomicInteger counter) {
+        counter.set(0);
+        return 0;
+    }
+
+    private static double ejectedCount(ConcurrentHashMap<String, ServiceOutliers> services) {
+        var now = System.nanoTime();
+        return services.values().stream()
+                .flatMap(outliers -> outliers.instances.values().stream())
+                .filter(stats -> stats.isEjected(now))
+                .count();
+    }
+
+    private record Latency(String instanceId, InstanceStats stats, long meanNanos) {
+    }
+
+    /**
+     * Instances of one service, ejections are serialized per service to respect the ejection cap
+     */
+    private final class ServiceOutliers {
+
+        private final ConcurrentHashMap<String, InstanceStats> instances = new ConcurrentHashMap<>();
+
+        /**
+         * Instances of the last load balancer selection, null until the first one
+         */
+        private volatile List<ServiceInstance> discovered;
+
+        boolean isEjected(String instanceId, long now) {
+            var stats = instances.get(instanceId);
+            return stats != null && stats.isEjected(now);
+        }
+
+        /**
+         * Eject if the cap allows it, returns the ejection time or 0 when the instance stays
+         */
+        synchronized long eject(InstanceStats stats, long now) {
+            if (stats.isEjected(now)) {
+                return 0;
+            }
+            var current = discovered;
+            int total;
+            long ejected;
+            if (current == null) {
+                total = instances.size();
+                ejected = instances.values().stream().filter(other -> other.isEjected(now)).count();
+            } else {
+                // Stats of departed instances linger until they go idle, only the listed ones count
+                total = current.size();
+                ejected = current.stream().filter(instance -> isEjected(instance.id(), now)).count();
+            }
+            // A positive percentage allows at least one ejection, 0 turns ejection off
+            var allowed = settings.maxEjectionPercent() == 0 ? 0
+                    : Math.min(total - 1, Math.max(1, total * settings.maxEjectionPercent() / 100));
+            if (ejected >= allowed) {
+                return 0;
+            }
+            stats.ejections++;
+            var ejectionNanos = Math.min(settings.baseEjectionTime().toNanos() << Math.min(stats.ejections - 1, 20),
+                    settings.maxEjectionTime().toNanos());
+            stats.ejectedUntilNanos = now + ejectionNanos;
+            stats.consecutive5xx.set(0);
+            stats.consecutiveGatewayFailures.set(0);
+            return ejectionNanos;
+        }
+
+        /**
+         * Each interval an instance spends back in rotation halves its next ejection time again
+         */
+        synchronized void decay(InstanceStats stats, long now) {
+            if (stats.ejections > 0 && !stats.isEjected(now)
+                    && now - stats.ejectedUntilNanos > settings.interval().toNanos()) {
+                stats.ejections--;
+            }
+        }
+    }
+
+    /**
+     * Live counters of one instance
+     */
+    private static final class InstanceStats {
+
+        private final AtomicInteger consecutive5xx = new AtomicInteger();
+
+        private final AtomicInteger consecutiveGatewayFailures = new AtomicInteger();
+
+        private final LongAdder latencyNanos = new LongAdder();
+
+        private final LongAdder latencyCount = new LongAdder();
+
+        private volatile long ejectedUntilNanos = System.nanoTime();
+
+        private volatile long lastSeenNanos;
+
+        private int ejections;
+
+        boolean isEjected(long now) {
+            return ejectedUntilNanos - now > 0;
+        }
+    }
+}
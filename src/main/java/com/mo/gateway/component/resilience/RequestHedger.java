@@ -0,0 +1,289 @@
+package com.mo.gateway.component.resilience;
+
+import com.mo.gateway.component.proxy.DeadlineTimer;
+import com.mo.gateway.config.properties.RetryProperties.RetryPolicy;
+import com.mo.gateway.config.properties.RouteProperties.HedgePolicy;
+import com.mo.gateway.model.dto.GatewayRequest;
+import com.mo.gateway.model.dto.GatewayResponse;
+import com.mo.gateway.model.routing.RouteMatch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request Hedger
+ * Sends a second request to another instance when the first one has not answered within the
+ * route's hedge delay, the first response wins and the other call is cancelled. The delay follows
+ * the observed upstream latency percentile of the route, and a per-route token budget bounds the
+ * extra load. The percentile is taken over the primary calls whatever their outcome; a primary
+ * cancelled because the hedge won counts with its latency so far. Hedges wait on the deadline
+ * timer's wheel, so the delay is rounded up to its tick. Hedge rate and win rate are exported per
+ * route as gateway.hedge.requests and gateway.hedge.wins.
+ */
+@Component
+public class RequestHedger {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestHedger.class);
+
+    /**
+     * Latencies observed before the percentile replaces the fixed delay
+     */
+    private static final long MIN_SAMPLES = 20;
+
+    /**
+     * Hedges a quiet route may fire in a burst
+     */
+    private static final int MAX_BURST = 10;
+
+    private final MeterRegistry meterRegistry;
+
+    private final DeadlineTimer timer;
+
+    private final ConcurrentHashMap<String, RouteHedging> routes = new ConcurrentHashMap<>();
+
+    public RequestHedger(MeterRegistry meterRegistry, DeadlineTimer timer) {
+        this.meterRegistry = meterRegistry;
+        this.timer = timer;
+    }
+
+    /**
+     * Check whether a request may be sent twice, the route's retry policy decides which methods are safe
+     */
+    public boolean isHedgeable(GatewayRequest request, RouteMatch route, RetryPolicy retryPolicy) {
+        return route.route().isHedging()
+                && retryPolicy.methods().contains(request.method())
+                && request.body().isReplayable();
+    }
+
+    /**
+     * Race the primary call against a delayed hedge
+     * Fails only when every call that was started failed, with the primary's error.
+     *
+     * @param hedge  call on another instance, completing empty when there is none
+     */
+    public CompletableFuture<GatewayResponse> execute(RouteMatch route, Mono<GatewayResponse> primary,
+                                                      Mono<GatewayResponse> hedge) {
+        var hedging = routes.computeIfAbsent(route.route().id(),
+                id -> new RouteHedging(id, route.route().hedgePolicy(), meterRegistry));
+        var call = new HedgedCall(hedging, hedge);
+        call.start(primary, timer);
+        return call.result;
+    }
+
+    /**
+     * Per-route delay estimate, budget and meters
+     */
+    private static final class RouteHedging {
+
+        private final HedgePolicy policy;
+
+        private final Timer latency;
+
+        private final TokenBudget budget;
+
+        private final Counter notNeeded;
+
+        private final Counter failed;
+
+        private final Counter hedged;
+
+        private final Counter budgetExhausted;
+
+        private final Counter noInstance;
+
+        private final Counter primaryWins;
+
+        private final Counter hedgeWins;
+
+        private volatile long delayNanos;
+
+        private volatile long refreshedAtNanos;
+
+        RouteHedging(String routeId, HedgePolicy policy, MeterRegistry meterRegistry) {
+            this.policy = policy;
+            var latencyBuilder = Timer.builder("gateway.hedge.latency")
+                    .description("Upstream latency on hedging routes, drives the hedge delay")
+                    .tag("route", routeId)
+                    .distributionStatisticExpiry(Duration.ofMinutes(1));
+            if (policy.percentile() > 0) {
+                latencyBuilder.publishPercentiles(policy.percentile());
+            }
+            this.latency = latencyBuilder.register(meterRegistry);
+            this.budget = new TokenBudget(policy.maxExtraLoad(), 0, MAX_BURST);
+            this.notNeeded = requests(routeId, "not_needed", meterRegistry);
+            this.failed = requests(routeId, "failed", meterRegistry);
+            this.hedged = requests(routeId, "hedged", meterRegistry);
+            this.budgetExhausted = requests(routeId, "budget_exhausted", meterRegistry);
+            this.noInstance = requests(routeId, "no_instance", meterRegistry);
+            this.primaryWins = wins(routeId, "primary", meterRegistry);
+            this.hedgeWins = wins(routeId, "hedge", meterRegistry);
+            this.delayNanos = policy.delay().toNanos();
+        }
+
+        /**
+         * Hedge delay, the percentile snapshot is refreshed at most once per second
+         */
+        long delayNanos() {
+            if (policy.percentile() == 0 || latency.count() < MIN_SAMPLES) {
+                return policy.delay().toNanos();
+            }
+            var now = System.nanoTime();
+            if (now - refreshedAtNanos > 1_000_000_000L) {
+                refreshedAtNanos = now;
+                for (var value : latency.takeSnapshot().percentileValues()) {
+                    var nanos = (long) value.value(TimeUnit.NANOSECONDS);
+                    if (nanos > 0) {
+                        delayNanos = nanos;
+                    }
+                }
+            }
+            return delayNanos;
+        }
+
+        private static Counter requests(String routeId, String outcome, MeterRegistry meterRegistry) {
+            return Counter.builder("gateway.hedge.requests")
+                    .description("Requests on hedging routes by hedge outcome")
+                    .tags("route", routeId, "outcome", outcome)
+                    .register(meterRegistry);
+        }
+
+        private static Counter wins(String routeId, String winner, MeterRegistry meterRegistry) {
+            return Counter.builder("gateway.hedge.wins")
+                    .description("Hedged requests by the call that answered first")
+                    .tags("route", routeId, "winner", winner)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * One request racing its primary call against a hedge, state is guarded by the call itself
+     */
+    private static final class HedgedCall {
+
+        private final CompletableFuture<GatewayResponse> result = new CompletableFuture<>();
+
+        private final RouteHedging hedging;
+
+        private final Mono<GatewayResponse> hedge;
+
+        private final long startNanos = System.nanoTime();
+
+        private CompletableFuture<GatewayResponse> primaryCall;
+
+        private CompletableFuture<GatewayResponse> hedgeCall;
+
+        private int running;
+
+        private Throwable primaryFailure;
+
+        private boolean primaryRecorded;
+
+        HedgedCall(RouteHedging hedging, Mono<GatewayResponse> hedge) {
+            this.hedging = hedging;
+            this.hedge = hedge;
+        }
+
+        void start(Mono<GatewayResponse> primary, DeadlineTimer timer) {
+            hedging.budget.deposit();
+            var delay = hedging.delayNanos();
+            synchronized (this) {
+                running = 1;
+                // Futures of Mono.toFuture cancel the underlying exchange when cancelled
+                primaryCall = primary.toFuture();
+            }
+            primaryCall.whenComplete((response, throwable) -> onComplete(false, response, throwable));
+            if (result.isDone()) {
+                countUnhedged();
+            } else {
+                var pendingHedge = timer.schedule(this::launchHedge, delay, TimeUnit.NANOSECONDS);
+                // A call that completes first takes its hedge off the wheel rather than keeping it until the delay
+                result.whenComplete((response, throwable) -> {
+                    if (pendingHedge.cancel()) {
+                        countUnhedged();
+                    }
+                });
+            }
+        }
+
+        private synchronized void launchHedge() {
+            if (result.isDone()) {
+                countUnhedged();
+                return;
+            }
+            if (!hedging.budget.tryWithdraw()) {
+                hedging.budgetExhausted.increment();
+                return;
+            }
+            hedging.hedged.increment();
+            running++;
+            hedgeCall = hedge.toFuture();
+            hedgeCall.whenComplete((response, throwable) -> onComplete(true, response, throwable));
+        }
+
+        private synchronized void onComplete(boolean isHedge, GatewayResponse response, Throwable throwable) {
+            running--;
+            if (!isHedge) {
+                recordPrimary();
+            }
+            if (result.isDone()) {
+                discard(response);
+                return;
+            }
+            if (throwable == null && response != null) {
+                result.complete(response);
+                if (hedgeCall != null) {
+                    // A primary that lost is cancelled below, it counts with its latency so far
+                    recordPrimary();
+                    (isHedge ? hedging.hedgeWins : hedging.primaryWins).increment();
+                    (isHedge ? primaryCall : hedgeCall).cancel(true);
+                    log.debug("Hedged request answered by the {} call", isHedge ? "hedge" : "primary");
+                }
+                return;
+            }
+            if (!isHedge) {
+                primaryFailure = throwable != null ? throwable : new IllegalStateException("Upstream call completed empty");
+            } else if (throwable == null) {
+                hedging.noInstance.increment();
+            }
+            if (running == 0 && primaryFailure != null) {
+                result.completeExceptionally(primaryFailure);
+            }
+        }
+
+        /**
+         * Feed the primary's latency to the hedge delay estimate, once
+         */
+        private void recordPrimary() {
+            if (!primaryRecorded) {
+                primaryRecorded = true;
+                hedging.latency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        /**
+         * Count a request that completed before its hedge was due
+         */
+        private void countUnhedged() {
+            (result.isCompletedExceptionally() ? hedging.failed : hedging.notNeeded).increment();
+        }
+
+        /**
+         * Release the body of a response that lost the race
+         */
+        private static void discard(GatewayResponse response) {
+            if (response != null && response.bodyStream() != null) {
+                response.bodyStream().subscribe(DataBufferUtils::release, error -> { });
+            }
+        }
+    }
+}
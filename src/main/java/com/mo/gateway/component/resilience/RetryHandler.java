@@ -0,0 +1,146 @@
+package com.mo.gateway.component.resilience;
+
+import com.mo.gateway.config.properties.RetryProperties;
+import com.mo.gateway.config.properties.RetryProperties.RetryPolicy;
+import com.mo.gateway.model.dto.GatewayRequest;
+import com.mo.gateway.model.dto.GatewayResponse;
+import com.mo.gateway.model.routing.RouteMatch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ConnectTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.Exceptions;
+import reactor.netty.channel.AbortedException;
+import reactor.netty.http.client.PrematureCloseException;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Upstream Retry Handler
+ * Decides whether a failed attempt is retried. Connect failures are always safe to retry,
+ * resets and retryable statuses only for idempotent methods, and only replayable bodies are
+ * sent twice. Every retry must also win a token from the service's retry budget, so when a
+ * whole service is down retries add at most a fixed share of load instead of multiplying it.
+ */
+@Component
+public class RetryHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(RetryHandler.class);
+
+    private final RetryProperties retryProperties;
+
+    private final ConcurrentHashMap<String, TokenBudget> budgets = new ConcurrentHashMap<>();
+
+    private final Counter retried;
+
+    private final Counter budgetExhausted;
+
+    public RetryHandler(RetryProperties retryProperties, MeterRegistry meterRegistry) {
+        this.retryProperties = retryProperties;
+        this.retried = Counter.builder("gateway.retry.requests")
+                .description("Retry decisions for failed upstream attempts")
+                .tag("outcome", "retried")
+                .register(meterRegistry);
+        this.budgetExhausted = Counter.builder("gateway.retry.requests")
+                .description("Retry decisions for failed upstream attempts")
+                .tag("outcome", "budget_exhausted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Retry policy of a route, routes without their own fall back to the gateway defaults
+     */
+    public RetryPolicy policyFor(RouteMatch route) {
+        var policy = route.route().retryPolicy();
+        return policy != null ? policy : retryProperties.defaults();
+    }
+
+    /**
+     * Credit the service's budget for a first attempt
+     */
+    public void recordRequest(String serviceId) {
+        budget(serviceId).deposit();
+    }
+
+    /**
+     * Check whether an attempt that produced this response or failure is retried
+     *
+     * @param retries  retries already performed for the request
+     */
+    public boolean shouldRetry(RetryPolicy policy, GatewayRequest request, String serviceId, int retries,
+                               GatewayResponse response, Throwable failure) {
+        if (retries >= policy.maxRetries() || !request.body().isReplayable()) {
+            return false;
+        }
+        var retryable = failure != null
+                ? isRetryable(classify(failure), policy, request)
+                : policy.statuses().contains(response.statusCode()) && policy.methods().contains(request.method());
+        if (!retryable) {
+            return false;
+        }
+        if (!budget(serviceId).tryWithdraw()) {
+            budgetExhausted.increment();
+            log.debug("Retry budget of service {} exhausted, not retrying {} {}", serviceId, request.method(), request.path());
+            return false;
+        }
+        retried.increment();
+        return true;
+    }
+
+    /**
+     * Jittered pause before a retry, doubling with every retry already performed
+     */
+    public long backoffMillis(RetryPolicy policy, int retries) {
+        var ceiling = policy.backoff().toMillis() << Math.min(retries, 10);
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static boolean isRetryable(Failure failure, RetryPolicy policy, GatewayRequest request) {
+        return switch (failure) {
+            case CONNECT -> true;
+            case RESET -> policy.methods().contains(request.method());
+            case OTHER -> false;
+        };
+    }
+
+    /**
+     * Connect failures happen before anything is sent, resets may hit a request the upstream already processed
+     */
+    private static Failure classify(Throwable failure) {
+        var cause = Exceptions.unwrap(failure);
+        while (cause instanceof CompletionException || cause instanceof WebClientRequestException) {
+            if (cause.getCause() == null) {
+                break;
+            }
+            cause = cause.getCause();
+        }
+        if (cause instanceof ConnectException || cause instanceof NoRouteToHostException
+                || cause instanceof UnknownHostException || cause instanceof ConnectTimeoutException) {
+            return Failure.CONNECT;
+        }
+        if (cause instanceof PrematureCloseException || cause instanceof AbortedException || cause instanceof IOException) {
+            return Failure.RESET;
+        }
+        return Failure.OTHER;
+    }
+
+    private TokenBudget budget(String serviceId) {
+        return budgets.computeIfAbsent(serviceId, id -> {
+            var settings = retryProperties.budget();
+            return new TokenBudget(settings.ratio(), settings.minRetriesPerSecond(), settings.maxTokens());
+        });
+    }
+
+    private enum Failure {
+        CONNECT, RESET, OTHER
+    }
+}
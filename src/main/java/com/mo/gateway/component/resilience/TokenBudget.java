@@ -0,0 +1,70 @@
+package com.mo.gateway.component.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket counted in thousandths of a token
+ * Every request deposits a fraction of a token, every extra call (retry or hedge) withdraws a whole
+ * one, and an optional time-based refill keeps a floor for low-traffic services.
+ */
+final class TokenBudget {
+
+    private static final long TOKEN = 1000;
+
+    private final long depositPerRequest;
+
+    private final long refillPerSecond;
+
+    private final long capacity;
+
+    private final AtomicLong balance;
+
+    private final AtomicLong lastRefillNanos = new AtomicLong(System.nanoTime());
+
+    TokenBudget(double ratio, int refillPerSecond, int maxTokens) {
+        this.depositPerRequest = Math.round(ratio * TOKEN);
+        this.refillPerSecond = refillPerSecond * TOKEN;
+        this.capacity = maxTokens * TOKEN;
+        this.balance = new AtomicLong(Math.min(capacity, this.refillPerSecond));
+    }
+
+    void deposit() {
+        add(depositPerRequest);
+    }
+
+    boolean tryWithdraw() {
+        refill();
+        while (true) {
+            var current = balance.get();
+            if (current < TOKEN) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Credit the time-based floor, only the thread that advances the timestamp adds it
+     */
+    private void refill() {
+        if (refillPerSecond == 0) {
+            return;
+        }
+        var now = System.nanoTime();
+        var last = lastRefillNanos.get();
+        var elapsed = now - last;
+        if (elapsed < 1_000_000 || !lastRefillNanos.compareAndSet(last, now)) {
+            return;
+        }
+        // A long idle period fills the bucket anyway, clamping keeps the product from overflowing
+        add(Math.min(elapsed, 60_000_000_000L) * refillPerSecond / 1_000_000_000L);
+    }
+
+    private void add(long amount) {
+        if (amount > 0) {
+            balance.accumulateAndGet(amount, (current, delta) -> Math.min(capacity, current + delta));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.mo.gateway.component.routing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mo.gateway.config.properties.RouteProperties;
+import com.mo.gateway.model.dto.GatewayRequest;
+import com.mo.gateway.model.routing.Route;
+import com.mo.gateway.model.routing.RouteMatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Route Table
+ * Compiles gateway.routing.routes into a radix tree at startup and resolves each request to its
+ * target service, upstream path and route settings in one lookup. Requests no configured route
+ * accepts fall back to the /api/{service} convention unless that is disabled; convention routes
+ * are compiled once per service and kept with the table, for at most MAX_CONVENTION_ROUTES services.
+ */
+@Component
+public class RouteTable {
+
+    private static final Logger log = LoggerFactory.getLogger(RouteTable.class);
+
+    /**
+     * Bound on cached convention routes, so arbitrary /api/{service} paths cannot grow the cache
+     */
+    private static final int MAX_CONVENTION_ROUTES = 1024;
+
+    private final RouteTree tree = new RouteTree();
+
+    private final Cache<String, Route> conventionRoutes = Caffeine.newBuilder()
+            .maximumSize(MAX_CONVENTION_ROUTES)
+            .build();
+
+    private final boolean conventionFallback;
+
+    public RouteTable(RouteProperties properties) {
+        this.conventionFallback = properties.conventionFallback();
+        for (var definition : properties.routes()) {
+            if (definition.serviceId() == null || definition.serviceId().isBlank()) {
+                throw new IllegalArgumentException(STR."Route \{definition.id()} has no service-id");
+            }
+            var route = Route.from(definition);
+            tree.insert(route);
+            log.debug("Compiled route {}: {} -> {}", route.id(), route.pathPrefix(), route.serviceId());
+        }
+        log.info("Route table compiled with {} routes, convention fallback {}",
+                properties.routes().size(), conventionFallback ? "enabled" : "disabled");
+    }
+
+    /**
+     * Resolve the route for a request, null when nothing matches
+     */
+    public RouteMatch match(GatewayRequest request) {
+        var path = request.path();
+        var route = tree.find(request);
+        if (route != null) {
+            return new RouteMatch(route, route.rewrite(path));
+        }
+        return conventionFallback ? matchConvention(path) : null;
+    }
+
+    private RouteMatch matchConvention(String path) {
+        // /api/user-service/users -> user-service, /users
+        if (!path.startsWith(Route.CONVENTION_PREFIX)) {
+            return null;
+        }
+        var start = Route.CONVENTION_PREFIX.length();
+        var end = path.indexOf('/', start);
+        var serviceId = end < 0 ? path.substring(start) : path.substring(start, end);
+        if (serviceId.isEmpty()) {
+            return null;
+        }
+        return new RouteMatch(conventionRoutes.get(serviceId, Route::convention), end < 0 ? "" : path.substring(end));
+    }
+}
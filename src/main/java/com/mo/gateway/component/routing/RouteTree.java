@@ -0,0 +1,146 @@
+package com.mo.gateway.component.routing;
+
+import com.mo.gateway.model.dto.GatewayRequest;
+import com.mo.gateway.model.routing.Route;
+
+import java.util.Arrays;
+
+/**
+ * Radix tree of route path prefixes
+ * Lookup walks the request path once, so its cost depends on the path length rather than the
+ * number of routes. The longest prefix whose predicates accept the request wins; routes sharing
+ * a prefix are tried in definition order. Built once and read-only afterwards.
+ */
+final class RouteTree {
+
+    private final Node root = new Node("");
+
+    /**
+     * Add a route under its path prefix
+     */
+    void insert(Route route) {
+        var key = route.pathPrefix();
+        var node = root;
+        var offset = 0;
+        while (offset < key.length()) {
+            var child = node.child(key.charAt(offset));
+            if (child == null) {
+                child = new Node(key.substring(offset));
+                node.addChild(child);
+                node = child;
+                break;
+            }
+            var common = commonPrefixLength(child.label, key, offset);
+            if (common < child.label.length()) {
+                child = node.split(child, common);
+            }
+            node = child;
+            offset += common;
+        }
+        node.addRoute(route);
+    }
+
+    /**
+     * Find the most specific route for the request, null when none matches
+     */
+    Route find(GatewayRequest request) {
+        return find(root, request.path(), 0, request);
+    }
+
+    private Route find(Node node, String path, int offset, GatewayRequest request) {
+        if (offset < path.length()) {
+            var child = node.child(path.charAt(offset));
+            if (child != null && path.startsWith(child.label, offset)) {
+                var route = find(child, path, offset + child.label.length(), request);
+                if (route != null) {
+                    return route;
+                }
+            }
+        }
+        if (node.routes.length > 0 && isSegmentBoundary(path, offset)) {
+            for (var route : node.routes) {
+                if (route.matches(request)) {
+                    return route;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A prefix only matches whole segments: /api/users matches /api/users/1 but not /api/usersX
+     */
+    private static boolean isSegmentBoundary(String path, int offset) {
+        return offset == 0
+                || offset == path.length()
+                || path.charAt(offset) == '/'
+                || path.charAt(offset - 1) == '/';
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        var max = Math.min(label.length(), key.length() - offset);
+        var i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Tree node, children are keyed by the first character of their label
+     */
+    private static final class Node {
+
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private static final Route[] NO_ROUTES = new Route[0];
+
+        private String label;
+
+        private char[] firstChars = new char[0];
+
+        private Node[] children = NO_CHILDREN;
+
+        private Route[] routes = NO_ROUTES;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        private Node child(char c) {
+            for (var i = 0; i < firstChars.length; i++) {
+                if (firstChars[i] == c) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private void addChild(Node child) {
+            firstChars = Arrays.copyOf(firstChars, firstChars.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            firstChars[firstChars.length - 1] = child.label.charAt(0);
+            children[children.length - 1] = child;
+        }
+
+        private void addRoute(Route route) {
+            routes = Arrays.copyOf(routes, routes.length + 1);
+            routes[routes.length - 1] = route;
+        }
+
+        /**
+         * Insert an intermediate node holding the first {@code at} characters of the child's label
+         */
+        private Node split(Node child, int at) {
+            var middle = new Node(child.label.substring(0, at));
+            child.label = child.label.substring(at);
+            middle.addChild(child);
+            for (var i = 0; i < children.length; i++) {
+                if (children[i] == child) {
+                    children[i] = middle;
+                }
+            }
+            return middle;
+        }
+    }
+}
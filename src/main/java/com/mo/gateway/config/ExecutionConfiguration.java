@@ -0,0 +1,41 @@
+package com.mo.gateway.config;
+
+import com.mo.gateway.config.properties.ExecutionProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Request Execution Configuration
+ *
+ * Configures:
+ * - Executor used by the blocking pipeline stages (Redis, policy resolution, discovery, auth)
+ * - Virtual-thread request threads for Tomcat when gateway.execution.mode=virtual-threads
+ */
+@Configuration
+public class ExecutionConfiguration {
+
+    /**
+     * In async mode blocking stages hop to the common pool as before. In virtual-thread mode
+     * the caller already owns a virtual thread, so stages run inline and simply park on I/O.
+     */
+    @Bean(name = "gatewayTaskExecutor")
+    public Executor taskExecutor(ExecutionProperties executionProperties) {
+        return switch (executionProperties.mode()) {
+            case ASYNC -> ForkJoinPool.commonPool();
+            case VIRTUAL_THREADS -> Runnable::run;
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "gateway.execution.mode", havingValue = "virtual-threads")
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        var threadFactory = Thread.ofVirtual().name("gateway-vt-", 0).factory();
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newThreadPerTaskExecutor(threadFactory));
+    }
+}
@@ -3,42 +3,17 @@ package com.mo.gateway.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import io.netty.channel.ChannelOption;
-import io.netty.handler.timeout.ReadTimeoutHandler;
-import io.netty.handler.timeout.WriteTimeoutHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.reactive.ReactorClientHttpConnector;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
-import org.springframework.web.reactive.function.client.WebClient;
-import reactor.netty.http.client.HttpClient;
-import reactor.netty.resources.ConnectionProvider;
-
-import java.time.Duration;
-import java.util.concurrent.Executor;
 
 /**
  * Core Gateway Configuration
  *
  * Configures:
- * - WebClient with connection pooling
- * - Task executor for async processing
  * - ObjectMapper for JSON handling
  */
 @Configuration
 public class GatewayConfiguration {
-    @Bean(name = "gatewayTaskExecutor")
-    public Executor taskExecutor() {
-        var executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(10);
-        executor.setMaxPoolSize(50);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("gateway-");
-        executor.setWaitForTasksToCompleteOnShutdown(true);
-        executor.setAwaitTerminationSeconds(30);
-        executor.initialize();
-        return executor;
-    }
 
     @Bean
     public ObjectMapper objectMapper() {
@@ -46,27 +21,4 @@ public class GatewayConfiguration {
                 .registerModule(new JavaTimeModule())
                 .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
     }
-
-    @Bean
-    public WebClient webClient() {
-        // Connection provider for efficient connection management
-        var connectionProvider = ConnectionProvider.builder("gateway-pool")
-                .maxConnections(500)
-                .maxIdleTime(Duration.ofSeconds(20))
-                .maxLifeTime(Duration.ofSeconds(60))
-                .pendingAcquireTimeout(Duration.ofSeconds(60))
-                .evictInBackground(Duration.ofSeconds(120))
-                .build();
-        // HTTP client with timeouts and connection settings
-        var httpClient = HttpClient.create(connectionProvider)
-                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000)
-                .responseTimeout(Duration.ofSeconds(30))
-                .doOnConnected(conn ->
-                        conn.addHandlerLast(new ReadTimeoutHandler(30))
-                                .addHandlerLast(new WriteTimeoutHandler(30)));
-        return WebClient.builder()
-                .clientConnector(new ReactorClientHttpConnector(httpClient))
-                .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(1024 * 1024))
-                .build();
-    }
 }
@@ -0,0 +1,35 @@
+package com.mo.gateway.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.embedded.netty.NettyRouteProvider;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorResourceFactory;
+
+/**
+ * Reactive Server Configuration
+ *
+ * Active when spring.main.web-application-type=reactive (see the "reactive" profile).
+ * Tomcat stays on the classpath for the servlet mode and would otherwise win as the
+ * reactive server, so Reactor Netty is selected explicitly and bound to the same
+ * resource factory as the upstream WebClient.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveServerConfiguration {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory(
+            ReactorResourceFactory resourceFactory,
+            ObjectProvider<NettyRouteProvider> routes,
+            ObjectProvider<NettyServerCustomizer> serverCustomizers) {
+        var factory = new NettyReactiveWebServerFactory();
+        factory.setResourceFactory(resourceFactory);
+        routes.orderedStream().forEach(factory::addRouteProviders);
+        factory.getServerCustomizers().addAll(serverCustomizers.orderedStream().toList());
+        return factory;
+    }
+}
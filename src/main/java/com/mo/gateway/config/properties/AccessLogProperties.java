@@ -0,0 +1,52 @@
+package com.mo.gateway.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Access Log Configuration Properties
+ * One JSON line per request, buffered in memory and written by a background thread; records
+ * arriving while the buffer is full are dropped and counted.
+ *
+ * @param enabled        whether requests are logged
+ * @param file           access log file, rolled files get a numeric suffix
+ * @param bufferSize     records held in memory, rounded up to a power of two
+ * @param batchSize      records written per batch
+ * @param flushInterval  pause of the writer while the buffer is empty
+ * @param maxFileSize    size at which the file is rolled
+ * @param maxHistory     rolled files kept
+ */
+@ConfigurationProperties(prefix = "gateway.access-log")
+public record AccessLogProperties(
+        Boolean enabled,
+        String file,
+        Integer bufferSize,
+        Integer batchSize,
+        Duration flushInterval,
+        DataSize maxFileSize,
+        Integer maxHistory
+) {
+    /**
+     * Binding constructor, unset values fall back to defaults
+     */
+    @ConstructorBinding
+    public AccessLogProperties {
+        if (enabled == null) enabled = true;
+        if (file == null || file.isBlank()) file = "logs/access.log";
+        if (bufferSize == null || bufferSize < 2) bufferSize = 65536;
+        if (batchSize == null || batchSize < 1) batchSize = 1024;
+        if (flushInterval == null || flushInterval.isZero()) flushInterval = Duration.ofMillis(200);
+        if (maxFileSize == null) maxFileSize = DataSize.ofMegabytes(100);
+        if (maxHistory == null || maxHistory < 1) maxHistory = 10;
+    }
+
+    /**
+     * Default constructor with sensible defaults
+     */
+    public AccessLogProperties() {
+        this(true, "logs/access.log", 65536, 1024, Duration.ofMillis(200), DataSize.ofMegabytes(100), 10);
+    }
+}
@@ -0,0 +1,52 @@
+package com.mo.gateway.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Response Cache Configuration Properties
+ * Sizing and storage of the shared response cache used by routes with caching enabled
+ *
+ * @param maxSize       total bytes of cached bodies and headers, eviction keeps the cache below it
+ * @param maxEntrySize  larger responses are never cached
+ * @param storage       where cached bodies live
+ */
+@ConfigurationProperties(prefix = "gateway.cache")
+public record CacheProperties(
+        DataSize maxSize,
+        DataSize maxEntrySize,
+        Storage storage
+) {
+    /**
+     * Binding constructor, unset values fall back to defaults
+     */
+    @ConstructorBinding
+    public CacheProperties {
+        if (maxSize == null) maxSize = DataSize.ofMegabytes(64);
+        if (maxEntrySize == null) maxEntrySize = DataSize.ofMegabytes(1);
+        if (storage == null) storage = Storage.HEAP;
+    }
+
+    /**
+     * Default constructor with sensible defaults
+     */
+    public CacheProperties() {
+        this(DataSize.ofMegabytes(64), DataSize.ofMegabytes(1), Storage.HEAP);
+    }
+
+    /**
+     * Storage of cached response bodies
+     */
+    public enum Storage {
+        /**
+         * Byte arrays on the Java heap
+         */
+        HEAP,
+
+        /**
+         * Direct memory released explicitly on eviction, large entries stay out of the old generation
+         */
+        OFF_HEAP
+    }
+}
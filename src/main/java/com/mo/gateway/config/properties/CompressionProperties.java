@@ -0,0 +1,56 @@
+package com.mo.gateway.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+/**
+ * Response Compression Configuration Properties
+ * Upstream bodies that are already encoded are passed through untouched, these settings only
+ * govern the gzip compression the gateway applies to identity-encoded responses.
+ *
+ * @param enabled          whether the gateway compresses responses itself
+ * @param minResponseSize  smaller bodies are sent uncompressed
+ * @param mimeTypes        compressible content types
+ * @param level            gzip level while CPU usage is below reduceAboveCpu
+ * @param reducedLevel     gzip level while CPU usage is between the two thresholds
+ * @param reduceAboveCpu   system CPU usage (0..1) above which the reduced level is used
+ * @param disableAboveCpu  system CPU usage (0..1) above which nothing is compressed
+ */
+@ConfigurationProperties(prefix = "gateway.compression")
+public record CompressionProperties(
+        Boolean enabled,
+        DataSize minResponseSize,
+        List<String> mimeTypes,
+        Integer level,
+        Integer reducedLevel,
+        Double reduceAboveCpu,
+        Double disableAboveCpu
+) {
+    public static final List<String> DEFAULT_MIME_TYPES = List.of(
+            "application/json", "application/xml", "application/javascript",
+            "text/html", "text/xml", "text/plain", "text/css");
+
+    /**
+     * Binding constructor, unset values fall back to defaults
+     */
+    @ConstructorBinding
+    public CompressionProperties {
+        if (enabled == null) enabled = true;
+        if (minResponseSize == null) minResponseSize = DataSize.ofKilobytes(1);
+        if (mimeTypes == null) mimeTypes = DEFAULT_MIME_TYPES;
+        if (level == null) level = 6;
+        if (reducedLevel == null) reducedLevel = 1;
+        if (reduceAboveCpu == null) reduceAboveCpu = 0.6;
+        if (disableAboveCpu == null) disableAboveCpu = 0.85;
+    }
+
+    /**
+     * Default constructor with sensible defaults
+     */
+    public CompressionProperties() {
+        this(true, DataSize.ofKilobytes(1), DEFAULT_MIME_TYPES, 6, 1, 0.6, 0.85);
+    }
+}
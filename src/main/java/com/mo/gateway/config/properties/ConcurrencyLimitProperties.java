@@ -0,0 +1,51 @@
+package com.mo.gateway.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+
+/**
+ * Adaptive Concurrency Limit Configuration Properties
+ * Each upstream service gets its own in-flight limit that starts at initialLimit and follows the
+ * ratio of long-term to recent round-trip time: it grows while latency holds and shrinks as soon
+ * as the service starts queueing.
+ *
+ * @param enabled       whether upstream calls are limited
+ * @param initialLimit  in-flight calls allowed before the first measurements
+ * @param minLimit      lower bound of the limit
+ * @param maxLimit      upper bound of the limit
+ * @param smoothing     weight of each new estimate in the limit, between 0 and 1
+ * @param rttTolerance  recent RTT growth over the long-term RTT tolerated before the limit shrinks
+ * @param longWindow    samples averaged into the long-term RTT
+ */
+@ConfigurationProperties(prefix = "gateway.concurrency-limit")
+public record ConcurrencyLimitProperties(
+        Boolean enabled,
+        Integer initialLimit,
+        Integer minLimit,
+        Integer maxLimit,
+        Double smoothing,
+        Double rttTolerance,
+        Integer longWindow
+) {
+    /**
+     * Binding constructor, unset values fall back to defaults
+     */
+    @ConstructorBinding
+    public ConcurrencyLimitProperties {
+        if (enabled == null) enabled = true;
+        if (minLimit == null || minLimit < 1) minLimit = 5;
+        if (maxLimit == null || maxLimit < minLimit) maxLimit = Math.max(1000, minLimit);
+        if (initialLimit == null) initialLimit = 20;
+        initialLimit = Math.clamp(initialLimit, minLimit, maxLimit);
+        if (smoothing == null || smoothing <= 0 || smoothing > 1) smoothing = 0.2;
+        if (rttTolerance == null || rttTolerance < 1) rttTolerance = 1.5;
+        if (longWindow == null || longWindow < 10) longWindow = 600;
+    }
+
+    /**
+     * Default constructor with sensible defaults
+     */
+    public ConcurrencyLimitProperties() {
+        this(true, 20, 5, 1000, 0.2, 1.5, 600);
+    }
+}
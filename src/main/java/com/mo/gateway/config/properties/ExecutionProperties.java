@@ -0,0 +1,56 @@
+package com.mo.gateway.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+
+/**
+ * Request Execution Configuration Properties
+ * Selects how the servlet data plane schedules request processing
+ */
+@ConfigurationProperties(prefix = "gateway.execution")
+public record ExecutionProperties(
+        Mode mode
+) {
+    /**
+     * Binding constructor, unset values fall back to defaults
+     */
+    @ConstructorBinding
+    public ExecutionProperties {
+        if (mode == null) mode = Mode.ASYNC;
+    }
+
+    /**
+     * Default constructor with sensible defaults
+     */
+    public ExecutionProperties() {
+        this(Mode.ASYNC);
+    }
+
+    /**
+     * Execution model for the request pipeline
+     */
+    public enum Mode {
+        /**
+         * CompletableFuture pipeline, blocking stages hop to the shared pool
+         */
+        ASYNC("async"),
+
+        /**
+         * Each request runs on its own virtual thread and the pipeline blocks in direct style
+         */
+        VIRTUAL_THREADS("virtual-threads");
+
+        private final String value;
+
+        Mode(String value) {
+            this.value = value;
+        }
+
+        /**
+         * Property value, also used as the metrics tag
+         */
+        public String value() {
+            return value;
+        }
+    }
+}
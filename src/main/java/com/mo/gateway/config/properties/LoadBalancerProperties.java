@@ -1,28 +1,45 @@
 package com.mo.gateway.config.properties;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
 
-import java.util.HashMap;
+import java.time.Duration;
 import java.util.Map;
 
 /**
  * Load Balancer Configuration Properties
+ * Upstream timeouts live with the connection pools in gateway.upstream
  */
 @ConfigurationProperties(prefix = "gateway.loadbalancer")
 public record LoadBalancerProperties(
         Map<String, String> serviceStrategies,
         String defaultStrategy,
-        int healthCheckIntervalMs,
-        int connectionTimeoutMs,
-        int readTimeoutMs,
-        boolean enableCircuitBreaker
+        Integer healthCheckIntervalMs,
+        Boolean enableCircuitBreaker,
+        CircuitBreakerSettings circuitBreaker,
+        OutlierDetectionSettings outlierDetection,
+        HealthCheckSettings healthCheck
 ) {
+    /**
+     * Binding constructor, unset values fall back to defaults
+     */
+    @ConstructorBinding
+    public LoadBalancerProperties {
+        if (serviceStrategies == null) serviceStrategies = Map.of();
+        if (defaultStrategy == null) defaultStrategy = "roundRobin";
+        if (healthCheckIntervalMs == null) healthCheckIntervalMs = 30000;
+        if (enableCircuitBreaker == null) enableCircuitBreaker = true;
+        if (circuitBreaker == null) circuitBreaker = CircuitBreakerSettings.DEFAULT;
+        if (outlierDetection == null) outlierDetection = OutlierDetectionSettings.DEFAULT;
+        if (healthCheck == null) healthCheck = HealthCheckSettings.DEFAULT;
+    }
 
     /**
      * Default constructor with sensible defaults
      */
     public LoadBalancerProperties() {
-        this(new HashMap<>(), "roundRobin", 30000, 5000, 10000, true);
+        this(Map.of(), "roundRobin", 30000, true, CircuitBreakerSettings.DEFAULT, OutlierDetectionSettings.DEFAULT,
+                HealthCheckSettings.DEFAULT);
     }
 
     /**
@@ -31,4 +48,129 @@ public record LoadBalancerProperties(
     public String getStrategy(String serviceId) {
         return serviceStrategies.getOrDefault(serviceId, defaultStrategy);
     }
+
+    /**
+     * Per-instance circuit breaker, active when enableCircuitBreaker is set
+     * Calls are counted in a sliding time window; once it holds minimumCalls and the failure or
+     * slow-call rate reaches its threshold the instance is taken out of rotation for openDuration,
+     * then halfOpenCalls trial calls decide whether it returns. Trial calls that have not all
+     * reported back within openDuration open the circuit again.
+     *
+     * @param failureRateThreshold   share of failed calls (errors and 5xx) that opens the circuit
+     * @param slowCallRateThreshold  share of calls slower than slowCallDuration that opens the circuit
+     * @param slowCallDuration       duration from which a call counts as slow
+     * @param minimumCalls           calls in the window before rates are evaluated
+     * @param window                 length of the sliding window, kept in ten buckets
+     * @param openDuration           time an open instance receives no traffic
+     * @param halfOpenCalls          trial calls that must all succeed to close the circuit again
+     */
+    public record CircuitBreakerSettings(
+            Double failureRateThreshold,
+            Double slowCallRateThreshold,
+            Duration slowCallDuration,
+            Integer minimumCalls,
+            Duration window,
+            Duration openDuration,
+            Integer halfOpenCalls
+    ) {
+        public static final CircuitBreakerSettings DEFAULT = new CircuitBreakerSettings(0.5, 0.9,
+                Duration.ofSeconds(5), 20, Duration.ofSeconds(10), Duration.ofSeconds(10), 5);
+
+        /**
+         * Binding constructor, unset values fall back to defaults
+         */
+        @ConstructorBinding
+        public CircuitBreakerSettings {
+            if (failureRateThreshold == null) failureRateThreshold = 0.5;
+            if (slowCallRateThreshold == null) slowCallRateThreshold = 0.9;
+            if (slowCallDuration == null) slowCallDuration = Duration.ofSeconds(5);
+            if (minimumCalls == null || minimumCalls < 1) minimumCalls = 20;
+            if (window == null || window.toMillis() < 10) window = Duration.ofSeconds(10);
+            if (openDuration == null) openDuration = Duration.ofSeconds(10);
+            if (halfOpenCalls == null || halfOpenCalls < 1) halfOpenCalls = 5;
+        }
+    }
+
+    /**
+     * Passive outlier detection from live traffic
+     * An instance is ejected after consecutive 5xx or gateway failures (502/503/504, connect
+     * errors, resets), or when its mean latency over an interval exceeds latencyFactor times the
+     * median of its service. Each ejection lasts baseEjectionTime doubled per previous ejection.
+     *
+     * @param enabled                    whether instances are ejected
+     * @param consecutive5xx             5xx responses or errors in a row that eject an instance
+     * @param consecutiveGatewayFailure  gateway failures in a row that eject an instance
+     * @param interval                   period of the latency analysis and ejection decay
+     * @param baseEjectionTime           ejection time of a first offence
+     * @param maxEjectionTime            upper bound of the growing ejection time
+     * @param maxEjectionPercent         share of a service's instances that may be ejected at once,
+     *                                   at least one instance when positive; 0 never ejects
+     * @param latencyFactor              mean latency relative to the service median that ejects
+     * @param latencyMinimumRequests     requests an instance needs in an interval to be judged on latency
+     * @param latencyMinimumInstances    instances a service needs for a meaningful median
+     */
+    public record OutlierDetectionSettings(
+            Boolean enabled,
+            Integer consecutive5xx,
+            Integer consecutiveGatewayFailure,
+            Duration interval,
+            Duration baseEjectionTime,
+            Duration maxEjectionTime,
+            Integer maxEjectionPercent,
+            Double latencyFactor,
+            Integer latencyMinimumRequests,
+            Integer latencyMinimumInstances
+    ) {
+        public static final OutlierDetectionSettings DEFAULT = new OutlierDetectionSettings(true, 5, 5,
+                Duration.ofSeconds(10), Duration.ofSeconds(30), Duration.ofMinutes(5), 10, 3.0, 20, 3);
+
+        /**
+         * Binding constructor, unset values fall back to defaults
+         */
+        @ConstructorBinding
+        public OutlierDetectionSettings {
+            if (enabled == null) enabled = true;
+            if (consecutive5xx == null || consecutive5xx < 1) consecutive5xx = 5;
+            if (consecutiveGatewayFailure == null || consecutiveGatewayFailure < 1) consecutiveGatewayFailure = 5;
+            if (interval == null || interval.toMillis() < 100) interval = Duration.ofSeconds(10);
+            if (baseEjectionTime == null) baseEjectionTime = Duration.ofSeconds(30);
+            if (maxEjectionTime == null) maxEjectionTime = Duration.ofMinutes(5);
+            if (maxEjectionPercent == null || maxEjectionPercent < 0) maxEjectionPercent = 10;
+            if (latencyFactor == null || latencyFactor <= 1) latencyFactor = 3.0;
+            if (latencyMinimumRequests == null) latencyMinimumRequests = 20;
+            if (latencyMinimumInstances == null || latencyMinimumInstances < 2) latencyMinimumInstances = 3;
+        }
+    }
+
+    /**
+     * Active health checking, every known instance is probed once per healthCheckIntervalMs
+     * on the discovery health check path; a 2xx answer within timeout is a success.
+     *
+     * @param enabled             whether instances are probed
+     * @param timeout             time a probe may take before it counts as failed
+     * @param healthyThreshold    successful probes in a row that mark an instance healthy
+     * @param unhealthyThreshold  failed probes in a row that mark an instance unhealthy
+     * @param jitter              share of the interval by which each probe is randomly moved
+     */
+    public record HealthCheckSettings(
+            Boolean enabled,
+            Duration timeout,
+            Integer healthyThreshold,
+            Integer unhealthyThreshold,
+            Double jitter
+    ) {
+        public static final HealthCheckSettings DEFAULT = new HealthCheckSettings(true, Duration.ofSeconds(2), 2, 3, 0.1);
+
+        /**
+         * Binding constructor, unset values fall back to defaults
+         */
+        @ConstructorBinding
+        public HealthCheckSettings {
+            if (enabled == null) enabled = true;
+            if (timeout == null) timeout = Duration.ofSeconds(2);
+            if (healthyThreshold == null || healthyThreshold < 1) healthyThreshold = 2;
+            if (unhealthyThreshold == null || unhealthyThreshold < 1) unhealthyThreshold = 3;
+            if (jitter == null || jitter < 0 || jitter > 0.5) jitter = 0.1;
+        }
+    }
 }
@@ -0,0 +1,54 @@
+package com.mo.gateway.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Load Shedding Configuration Properties
+ * Gateway saturation is the highest of in-flight requests over maxInFlight, pending upstream
+ * connection acquires over maxPendingAcquires and event loop lag over maxEventLoopLag. A request
+ * is shed once saturation reaches the threshold of its client tier (admin, premium, user, basic,
+ * free, anonymous); tiers without a threshold are never shed.
+ *
+ * @param enabled             whether requests are shed
+ * @param maxInFlight         in-flight requests the gateway is sized for
+ * @param maxPendingAcquires  requests waiting for an upstream connection or stream at full saturation
+ * @param maxEventLoopLag     event loop task delay at full saturation
+ * @param sampleInterval      period of the connection pool and event loop measurements
+ * @param tierThresholds      saturation from which each tier is shed, by tier name
+ */
+@ConfigurationProperties(prefix = "gateway.load-shedding")
+public record LoadSheddingProperties(
+        Boolean enabled,
+        Integer maxInFlight,
+        Integer maxPendingAcquires,
+        Duration maxEventLoopLag,
+        Duration sampleInterval,
+        Map<String, Double> tierThresholds
+) {
+    public static final Map<String, Double> DEFAULT_TIER_THRESHOLDS = Map.of(
+            "anonymous", 0.6, "free", 0.7, "basic", 0.8, "user", 0.85, "premium", 0.95, "admin", 1.0);
+
+    /**
+     * Binding constructor, unset values fall back to defaults
+     */
+    @ConstructorBinding
+    public LoadSheddingProperties {
+        if (enabled == null) enabled = true;
+        if (maxInFlight == null || maxInFlight < 1) maxInFlight = 2000;
+        if (maxPendingAcquires == null || maxPendingAcquires < 1) maxPendingAcquires = 500;
+        if (maxEventLoopLag == null || maxEventLoopLag.isZero()) maxEventLoopLag = Duration.ofMillis(200);
+        if (sampleInterval == null || sampleInterval.toMillis() < 10) sampleInterval = Duration.ofMillis(100);
+        if (tierThresholds == null || tierThresholds.isEmpty()) tierThresholds = DEFAULT_TIER_THRESHOLDS;
+    }
+
+    /**
+     * Default constructor with sensible defaults
+     */
+    public LoadSheddingProperties() {
+        this(true, 2000, 500, Duration.ofMillis(200), Duration.ofMillis(100), DEFAULT_TIER_THRESHOLDS);
+    }
+}
@@ -0,0 +1,28 @@
+package com.mo.gateway.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+
+/**
+ * Gateway Metrics Configuration Properties
+ * Phase timers are always recorded, the Server-Timing header exposes them to clients
+ */
+@ConfigurationProperties(prefix = "gateway.metrics")
+public record MetricsProperties(
+        Boolean serverTiming
+) {
+    /**
+     * Binding constructor, unset values fall back to defaults
+     */
+    @ConstructorBinding
+    public MetricsProperties {
+        if (serverTiming == null) serverTiming = false;
+    }
+
+    /**
+     * Default constructor with sensible defaults
+     */
+    public MetricsProperties() {
+        this(false);
+    }
+}
@@ -0,0 +1,54 @@
+package com.mo.gateway.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+
+/**
+ * Proxy Data Plane Configuration Properties
+ * Controls how request and response bodies move through the gateway
+ */
+@ConfigurationProperties(prefix = "gateway.proxy")
+public record ProxyProperties(
+        BodyMode responseMode,
+        int maxInMemorySize,
+        int streamingPrefetch,
+        BodyMode requestMode,
+        long requestSpillThreshold,
+        String spillDirectory
+) {
+    /**
+     * Binding constructor, unset values fall back to defaults
+     */
+    @ConstructorBinding
+    public ProxyProperties {
+        if (responseMode == null) responseMode = BodyMode.BUFFERED;
+        if (maxInMemorySize <= 0) maxInMemorySize = 1024 * 1024;
+        if (streamingPrefetch <= 0) streamingPrefetch = 8;
+        if (requestMode == null) requestMode = BodyMode.BUFFERED;
+        if (requestSpillThreshold <= 0) requestSpillThreshold = 256 * 1024;
+        if (spillDirectory == null || spillDirectory.isBlank()) spillDirectory = System.getProperty("java.io.tmpdir");
+    }
+
+    /**
+     * Default constructor with sensible defaults
+     */
+    public ProxyProperties() {
+        this(BodyMode.BUFFERED, 1024 * 1024, 8, BodyMode.BUFFERED, 256 * 1024, null);
+    }
+
+    /**
+     * How a body is carried between client and upstream
+     */
+    public enum BodyMode {
+        /**
+         * Aggregate the whole body before forwarding
+         * (request bodies above the spill threshold go to a temp file)
+         */
+        BUFFERED,
+
+        /**
+         * Forward body chunks as they arrive, with backpressure
+         */
+        STREAMING
+    }
+}
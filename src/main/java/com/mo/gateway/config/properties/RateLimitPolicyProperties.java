@@ -1,6 +1,8 @@
 package com.mo.gateway.config.properties;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 
 import java.util.List;
 import java.util.Map;
@@ -14,6 +16,15 @@ public record RateLimitPolicyProperties(
         Map<String, PolicyConfig> policies,
         List<PolicyRule> rules
 ) {
+    /**
+     * Binding constructor, unset collections are empty
+     */
+    @ConstructorBinding
+    public RateLimitPolicyProperties {
+        if (policies == null) policies = Map.of();
+        if (rules == null) rules = List.of();
+    }
+
     /**
      * Default constructor with empty collections
      */
@@ -32,6 +43,14 @@ public record RateLimitPolicyProperties(
             String policyName,
             int priority
     ) {
+        /**
+         * Binding constructor, rules without a policy name apply the default policy
+         */
+        @ConstructorBinding
+        public PolicyRule {
+            if (policyName == null) policyName = "default";
+        }
+
         /**
          * Default constructor
          */
@@ -63,25 +82,28 @@ public record RateLimitPolicyProperties(
 
     /**
      * Configuration record for individual policies
-     * Defines the rate limiting parameters for a specific policy
+     * Defines the rate limiting parameters for a specific policy; a null storage uses
+     * gateway.ratelimit.default-storage
      */
     public record PolicyConfig(
             long capacity,
             long refillRate,
-            long windowSizeMs,
+            @DefaultValue("60000") long windowSizeMs,
             String algorithmType,
-            int requestCost
+            @DefaultValue("1") int requestCost,
+            String storage
     ) {
         /**
          * Default constructor with basic limits
          */
         public PolicyConfig() {
-            this(100, 10, 60000, "tokenBucket", 1);
+            this(100, 10, 60000, "tokenBucket", 1, null);
         }
 
         /**
          * Constructor with validation
          */
+        @ConstructorBinding
         public PolicyConfig {
             if (capacity <= 0) {
                 throw new IllegalArgumentException("Capacity must be positive");
@@ -98,41 +120,44 @@ public record RateLimitPolicyProperties(
             if (algorithmType == null || algorithmType.trim().isEmpty()) {
                 algorithmType = "tokenBucket";
             }
+            if (storage != null && storage.isBlank()) {
+                storage = null;
+            }
         }
 
         /**
          * Create a high-capacity policy
          */
         public static PolicyConfig premium() {
-            return new PolicyConfig(10000, 1000, 60000, "tokenBucket", 1);
+            return new PolicyConfig(10000, 1000, 60000, "tokenBucket", 1, null);
         }
 
         /**
          * Create a basic policy
          */
         public static PolicyConfig basic() {
-            return new PolicyConfig(1000, 100, 60000, "tokenBucket", 1);
+            return new PolicyConfig(1000, 100, 60000, "tokenBucket", 1, null);
         }
 
         /**
          * Create a free tier policy
          */
         public static PolicyConfig free() {
-            return new PolicyConfig(100, 10, 60000, "tokenBucket", 1);
+            return new PolicyConfig(100, 10, 60000, "tokenBucket", 1, null);
         }
 
         /**
          * Create an admin policy (high limits)
          */
         public static PolicyConfig admin() {
-            return new PolicyConfig(50000, 5000, 60000, "tokenBucket", 1);
+            return new PolicyConfig(50000, 5000, 60000, "tokenBucket", 1, null);
         }
 
         /**
          * Create a strict policy for sensitive operations
          */
         public static PolicyConfig strict() {
-            return new PolicyConfig(20, 2, 300000, "tokenBucket", 1);
+            return new PolicyConfig(20, 2, 300000, "tokenBucket", 1, null);
         }
     }
 }
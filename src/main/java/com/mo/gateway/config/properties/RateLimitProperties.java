@@ -1,23 +1,69 @@
 package com.mo.gateway.config.properties;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+
+import java.time.Duration;
 
 /**
  * Rate Limiting Configuration Properties
+ * Policies that do not name a storage use defaultStorage: "redis" shares limits between gateway
+ * replicas, "local" keeps them in process so each replica enforces its own.
  */
 @ConfigurationProperties(prefix = "gateway.ratelimit")
 public record RateLimitProperties(
-        boolean enabled,
+        Boolean enabled,
         String defaultAlgorithm,
-        long defaultCapacity,
-        long defaultRefillRate,
-        long defaultWindowSizeMs,
-        boolean failOpen
+        Long defaultCapacity,
+        Long defaultRefillRate,
+        Long defaultWindowSizeMs,
+        Boolean failOpen,
+        String defaultStorage,
+        LocalStorageSettings local
 ) {
+    /**
+     * Binding constructor, unset values fall back to defaults
+     */
+    @ConstructorBinding
+    public RateLimitProperties {
+        if (enabled == null) enabled = true;
+        if (defaultAlgorithm == null) defaultAlgorithm = "tokenBucket";
+        if (defaultCapacity == null) defaultCapacity = 1000L;
+        if (defaultRefillRate == null) defaultRefillRate = 100L;
+        if (defaultWindowSizeMs == null) defaultWindowSizeMs = 60000L;
+        if (failOpen == null) failOpen = true;
+        if (defaultStorage == null || defaultStorage.isBlank()) defaultStorage = "redis";
+        if (local == null) local = LocalStorageSettings.DEFAULT;
+    }
+
     /**
      * Default constructor with production-ready defaults
      */
     public RateLimitProperties() {
-        this(true, "tokenBucket", 1000, 100, 60000, true);
+        this(true, "tokenBucket", 1000L, 100L, 60000L, true, "redis", LocalStorageSettings.DEFAULT);
+    }
+
+    /**
+     * In-process storage
+     * Keys idle for longer than their bucket takes to refill, or past their window, are dropped by
+     * a sweep every sweepInterval. Once maxKeys are held the least recently used keys make room.
+     *
+     * @param maxKeys        keys held at most
+     * @param sweepInterval  period of the idle key sweep
+     */
+    public record LocalStorageSettings(
+            Integer maxKeys,
+            Duration sweepInterval
+    ) {
+        public static final LocalStorageSettings DEFAULT = new LocalStorageSettings(100000, Duration.ofSeconds(10));
+
+        /**
+         * Binding constructor, unset values fall back to defaults
+         */
+        @ConstructorBinding
+        public LocalStorageSettings {
+            if (maxKeys == null || maxKeys < 1) maxKeys = 100000;
+            if (sweepInterval == null || sweepInterval.toMillis() < 100) sweepInterval = Duration.ofSeconds(10);
+        }
     }
 }
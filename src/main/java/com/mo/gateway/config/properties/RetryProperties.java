@@ -0,0 +1,93 @@
+package com.mo.gateway.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Retry Configuration Properties
+ * The default policy applies to every route without its own retry block; the budget is kept
+ * per service and bounds retries to a share of that service's live traffic.
+ */
+@ConfigurationProperties(prefix = "gateway.retry")
+public record RetryProperties(
+        RetryPolicy defaults,
+        BudgetSettings budget
+) {
+    /**
+     * Binding constructor, unset values fall back to defaults
+     */
+    @ConstructorBinding
+    public RetryProperties {
+        if (defaults == null) defaults = RetryPolicy.DEFAULT;
+        if (budget == null) budget = BudgetSettings.DEFAULT;
+    }
+
+    /**
+     * Default constructor with sensible defaults
+     */
+    public RetryProperties() {
+        this(RetryPolicy.DEFAULT, BudgetSettings.DEFAULT);
+    }
+
+    /**
+     * Retry policy of a route
+     * Connect failures are retried for every method since the request never left the gateway;
+     * resets and retryable statuses only for the listed (idempotent) methods. Requests whose
+     * body was streamed from the client cannot be replayed and are never retried.
+     *
+     * @param maxRetries  retries after the first attempt, 0 disables retries
+     * @param methods     methods that may be retried after the request was sent
+     * @param statuses    upstream statuses that trigger a retry
+     * @param backoff     upper bound of the jittered pause before each retry
+     */
+    public record RetryPolicy(
+            Integer maxRetries,
+            List<String> methods,
+            List<Integer> statuses,
+            Duration backoff
+    ) {
+        public static final RetryPolicy DEFAULT = new RetryPolicy(2,
+                List.of("GET", "HEAD", "OPTIONS", "PUT", "DELETE"), List.of(502, 503, 504), Duration.ofMillis(25));
+
+        /**
+         * Binding constructor, unset values fall back to defaults
+         */
+        @ConstructorBinding
+        public RetryPolicy {
+            if (maxRetries == null || maxRetries < 0) maxRetries = 2;
+            if (methods == null) methods = List.of("GET", "HEAD", "OPTIONS", "PUT", "DELETE");
+            if (statuses == null) statuses = List.of(502, 503, 504);
+            if (backoff == null) backoff = Duration.ofMillis(25);
+        }
+    }
+
+    /**
+     * Token-bucket retry budget
+     * Every first attempt deposits {@code ratio} tokens, every retry withdraws one, and the bucket
+     * also refills at {@code minRetriesPerSecond} so low-traffic services can still retry.
+     *
+     * @param ratio                retries allowed per request, 0.2 caps retries at 20% of traffic
+     * @param minRetriesPerSecond  retries always allowed regardless of traffic
+     * @param maxTokens            bucket capacity, bounds the burst of retries after a quiet period
+     */
+    public record BudgetSettings(
+            Double ratio,
+            Integer minRetriesPerSecond,
+            Integer maxTokens
+    ) {
+        public static final BudgetSettings DEFAULT = new BudgetSettings(0.2, 10, 100);
+
+        /**
+         * Binding constructor, unset values fall back to defaults
+         */
+        @ConstructorBinding
+        public BudgetSettings {
+            if (ratio == null || ratio < 0) ratio = 0.2;
+            if (minRetriesPerSecond == null || minRetriesPerSecond < 0) minRetriesPerSecond = 10;
+            if (maxTokens == null || maxTokens < 1) maxTokens = 100;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.mo.gateway.config.properties;
+
+import com.mo.gateway.config.properties.RetryProperties.RetryPolicy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Route Table Configuration Properties
+ * Declarative routes compiled into the radix-tree route table at startup
+ */
+@ConfigurationProperties(prefix = "gateway.routing")
+public record RouteProperties(
+        Boolean conventionFallback,
+        List<RouteDefinition> routes
+) {
+    /**
+     * Binding constructor, unset values fall back to defaults
+     */
+    @ConstructorBinding
+    public RouteProperties {
+        if (conventionFallback == null) conventionFallback = true;
+        if (routes == null) routes = List.of();
+    }
+
+    /**
+     * Default constructor with sensible defaults
+     */
+    public RouteProperties() {
+        this(true, List.of());
+    }
+
+    /**
+     * Single route definition
+     *
+     * @param id             route identifier, used in logs and metrics
+     * @param path           path prefix, matched on segment boundaries
+     * @param host           optional Host header value (port ignored)
+     * @param methods        optional HTTP methods, empty matches all
+     * @param headers        optional required headers, a blank value only requires presence
+     * @param serviceId      target service
+     * @param stripPrefix    whether the matched prefix is removed before forwarding
+     * @param prefixRewrite  prefix put in front of the forwarded path
+     * @param coalescing     optional single-flight coalescing of identical concurrent GETs
+     * @param cache          optional response caching
+     * @param retry          optional retry policy, unset uses gateway.retry.defaults
+     * @param hedging        optional hedging of slow requests to a second instance
+     * @param timeouts       optional response and total timeouts, unset uses the service's upstream pool
+     */
+    public record RouteDefinition(
+            String id,
+            String path,
+            String host,
+            List<String> methods,
+            Map<String, String> headers,
+            String serviceId,
+            Boolean stripPrefix,
+            String prefixRewrite,
+            CoalescingPolicy coalescing,
+            CachePolicy cache,
+            RetryPolicy retry,
+            HedgePolicy hedging,
+            TimeoutPolicy timeouts
+    ) {
+        /**
+         * Binding constructor, unset values fall back to defaults
+         */
+        @ConstructorBinding
+        public RouteDefinition {
+            if (path == null || path.isEmpty()) path = "/";
+            if (id == null) id = serviceId;
+            if (methods == null) methods = List.of();
+            if (headers == null) headers = Map.of();
+            if (stripPrefix == null) stripPrefix = true;
+            if (prefixRewrite == null) prefixRewrite = "";
+            if (coalescing == null) coalescing = CoalescingPolicy.DISABLED;
+            if (cache == null) cache = CachePolicy.DISABLED;
+            if (hedging == null) hedging = HedgePolicy.DISABLED;
+            if (timeouts == null) timeouts = TimeoutPolicy.INHERIT;
+        }
+    }
+
+    /**
+     * Single-flight coalescing of a route
+     * Concurrent GET/HEAD requests with the same upstream path, query and vary header values
+     * share one upstream call. The vary headers must cover everything the backend response
+     * depends on, credentials included, since waiters receive the leader's response.
+     *
+     * @param enabled      whether identical concurrent requests are coalesced
+     * @param varyHeaders  request headers that are part of the coalescing key
+     */
+    public record CoalescingPolicy(
+            Boolean enabled,
+            List<String> varyHeaders
+    ) {
+        public static final CoalescingPolicy DISABLED = new CoalescingPolicy(false, null);
+
+        public static final List<String> DEFAULT_VARY_HEADERS = List.of(
+                "Authorization", "Cookie", "X-API-Key", "Accept", "Accept-Encoding", "Accept-Language");
+
+        /**
+         * Binding constructor, unset values fall back to defaults
+         */
+        @ConstructorBinding
+        public CoalescingPolicy {
+            if (enabled == null) enabled = false;
+            if (varyHeaders == null) varyHeaders = DEFAULT_VARY_HEADERS;
+        }
+    }
+
+    /**
+     * Response caching of a route
+     * GET responses are stored according to Cache-Control, Expires and Vary as a shared cache;
+     * the default TTL only applies to responses without explicit freshness information.
+     *
+     * @param enabled     whether responses of the route are cached
+     * @param defaultTtl  freshness of cacheable responses without max-age or Expires, zero to not cache them
+     * @param maxTtl      upper bound on the freshness of any entry
+     */
+    public record CachePolicy(
+            Boolean enabled,
+            Duration defaultTtl,
+            Duration maxTtl
+    ) {
+        public static final CachePolicy DISABLED = new CachePolicy(false, null, null);
+
+        /**
+         * Binding constructor, unset values fall back to defaults
+         */
+        @ConstructorBinding
+        public CachePolicy {
+            if (enabled == null) enabled = false;
+            if (defaultTtl == null) defaultTtl = Duration.ZERO;
+            if (maxTtl == null) maxTtl = Duration.ofHours(1);
+        }
+    }
+
+    /**
+     * Request hedging of a route
+     * When the first attempt has not answered after the hedge delay, a second request goes to
+     * another instance and the first response wins. Only methods the route's retry policy lists
+     * as retryable are hedged, and never requests with a streamed body.
+     *
+     * @param enabled       whether slow requests of the route are hedged
+     * @param percentile    observed upstream latency percentile used as hedge delay, 0 to always use delay
+     * @param delay         fixed hedge delay, also used until enough latencies were observed
+     * @param maxExtraLoad  hedges allowed per request, 0.1 caps hedging at 10% extra upstream load
+     */
+    public record HedgePolicy(
+            Boolean enabled,
+            Double percentile,
+            Duration delay,
+            Double maxExtraLoad
+    ) {
+        public static final HedgePolicy DISABLED = new HedgePolicy(false, null, null, null);
+
+        /**
+         * Binding constructor, unset values fall back to defaults
+         */
+        @ConstructorBinding
+        public HedgePolicy {
+            if (enabled == null) enabled = false;
+            if (percentile == null || percentile < 0 || percentile >= 1) percentile = 0.95;
+            if (delay == null) delay = Duration.ofMillis(50);
+            if (maxExtraLoad == null || maxExtraLoad < 0) maxExtraLoad = 0.1;
+        }
+    }
+
+    /**
+     * Timeouts of a route, unset values use the settings of the target service's upstream pool
+     *
+     * @param response  longest wait for the response and between reads of its body
+     * @param total     deadline of a request, retries and hedges included
+     */
+    public record TimeoutPolicy(
+            Duration response,
+            Duration total
+    ) {
+        public static final TimeoutPolicy INHERIT = new TimeoutPolicy(null, null);
+    }
+}
@@ -1,6 +1,7 @@
 package com.mo.gateway.config.properties;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
 
 /**
  * Service Discovery Configuration Properties
@@ -11,6 +12,15 @@ public record ServiceDiscoveryProperties(
         String type,
         KubernetesDiscoveryProperties kubernetes
 ) {
+    /**
+     * Binding constructor, unset values fall back to defaults
+     */
+    @ConstructorBinding
+    public ServiceDiscoveryProperties {
+        if (type == null) type = "memory";
+        if (kubernetes == null) kubernetes = new KubernetesDiscoveryProperties();
+    }
+
     public ServiceDiscoveryProperties() {
         this("memory", new KubernetesDiscoveryProperties());
     }
@@ -21,9 +31,20 @@ public record ServiceDiscoveryProperties(
     public record KubernetesDiscoveryProperties(
             String namespace,
             String labelSelector,
-            int servicePort,
+            Integer servicePort,
             String healthCheckPath
     ) {
+        /**
+         * Binding constructor, unset values fall back to defaults
+         */
+        @ConstructorBinding
+        public KubernetesDiscoveryProperties {
+            if (namespace == null) namespace = "services";
+            if (labelSelector == null) labelSelector = "gateway.enabled=true";
+            if (servicePort == null) servicePort = 8080;
+            if (healthCheckPath == null) healthCheckPath = "/actuator/health";
+        }
+
         public KubernetesDiscoveryProperties() {
             this("services", "gateway.enabled=true", 8080, "/actuator/health");
         }
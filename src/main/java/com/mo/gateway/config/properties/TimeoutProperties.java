@@ -0,0 +1,40 @@
+package com.mo.gateway.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+
+import java.time.Duration;
+
+/**
+ * Request Deadline Configuration Properties
+ * Every proxied request gets a deadline from its route or service total timeout. A client may
+ * shorten it with the deadline header, and the remaining budget is sent upstream in the same
+ * header so the next hop can stop when the gateway has given up.
+ *
+ * @param deadlineHeader       header carrying the remaining budget in milliseconds
+ * @param honorClientDeadline  whether a shorter budget sent by the client is applied
+ * @param timerTick            resolution of the deadline timer wheel
+ */
+@ConfigurationProperties(prefix = "gateway.timeouts")
+public record TimeoutProperties(
+        String deadlineHeader,
+        Boolean honorClientDeadline,
+        Duration timerTick
+) {
+    /**
+     * Binding constructor, unset values fall back to defaults
+     */
+    @ConstructorBinding
+    public TimeoutProperties {
+        if (deadlineHeader == null || deadlineHeader.isBlank()) deadlineHeader = "X-Request-Timeout-Ms";
+        if (honorClientDeadline == null) honorClientDeadline = true;
+        if (timerTick == null || timerTick.toMillis() < 1) timerTick = Duration.ofMillis(10);
+    }
+
+    /**
+     * Default constructor with sensible defaults
+     */
+    public TimeoutProperties() {
+        this("X-Request-Timeout-Ms", true, Duration.ofMillis(10));
+    }
+}
@@ -0,0 +1,127 @@
+package com.mo.gateway.config.properties;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Upstream Client Configuration Properties
+ * Connection pool and protocol settings for the clients that talk to backend services.
+ * {@code defaults} applies to every service; entries in {@code pools} are keyed by service id
+ * (or by the {@code upstream-pool} metadata of an instance) and override individual settings.
+ */
+@ConfigurationProperties(prefix = "gateway.upstream")
+public record UpstreamProperties(
+        PoolSettings defaults,
+        Map<String, PoolSettings> pools
+) {
+    /**
+     * Instance metadata key that selects a pool instead of the service id
+     */
+    public static final String POOL_METADATA_KEY = "upstream-pool";
+
+    /**
+     * Binding constructor, unset values fall back to defaults
+     */
+    @ConstructorBinding
+    public UpstreamProperties {
+        defaults = defaults == null ? PoolSettings.DEFAULTS : defaults.orElse(PoolSettings.DEFAULTS);
+        if (pools == null) pools = Map.of();
+    }
+
+    /**
+     * Default constructor with sensible defaults
+     */
+    public UpstreamProperties() {
+        this(PoolSettings.DEFAULTS, Map.of());
+    }
+
+    /**
+     * Effective settings of a named pool, null when the pool is not configured
+     */
+    public PoolSettings pool(String name) {
+        var settings = pools.get(name);
+        return settings == null ? null : settings.orElse(defaults);
+    }
+
+    /**
+     * Effective settings for a service, its own pool when configured, the defaults otherwise
+     */
+    public PoolSettings settingsFor(String serviceId) {
+        var settings = pool(serviceId);
+        return settings != null ? settings : defaults;
+    }
+
+    /**
+     * Settings of one upstream connection pool, null values inherit from the defaults
+     *
+     * @param protocol              wire protocol spoken to the backend
+     * @param maxConnections        connections per backend address (HTTP/2: upper bound of multiplexed connections)
+     * @param maxConcurrentStreams  HTTP/2 streams per connection before another connection is opened
+     * @param connectTimeout        TCP connect timeout
+     * @param responseTimeout       longest wait for the response and between reads of its body
+     * @param totalTimeout          deadline of a request to the service, retries and hedges included
+     * @param maxIdleTime           idle time before a pooled connection is closed
+     * @param maxLifeTime           age after which a connection is retired
+     * @param pendingAcquireTimeout how long a request waits for a free connection
+     * @param pendingAcquireMaxCount queued acquires per backend address, -1 for unbounded
+     * @param evictInterval         background eviction period for idle and expired connections
+     */
+    public record PoolSettings(
+            Protocol protocol,
+            Integer maxConnections,
+            Integer maxConcurrentStreams,
+            Duration connectTimeout,
+            Duration responseTimeout,
+            Duration totalTimeout,
+            Duration maxIdleTime,
+            Duration maxLifeTime,
+            Duration pendingAcquireTimeout,
+            Integer pendingAcquireMaxCount,
+            Duration evictInterval
+    ) {
+        public static final PoolSettings DEFAULTS = new PoolSettings(Protocol.HTTP1_1, 500, 100,
+                Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofSeconds(30), Duration.ofSeconds(20), Duration.ofSeconds(60), Duration.ofSeconds(60),
+                -1, Duration.ofSeconds(120));
+
+        /**
+         * Fill every unset value from the given settings
+         */
+        public PoolSettings orElse(PoolSettings fallback) {
+            return new PoolSettings(
+                    protocol != null ? protocol : fallback.protocol,
+                    maxConnections != null ? maxConnections : fallback.maxConnections,
+                    maxConcurrentStreams != null ? maxConcurrentStreams : fallback.maxConcurrentStreams,
+                    connectTimeout != null ? connectTimeout : fallback.connectTimeout,
+                    responseTimeout != null ? responseTimeout : fallback.responseTimeout,
+                    totalTimeout != null ? totalTimeout : fallback.totalTimeout,
+                    maxIdleTime != null ? maxIdleTime : fallback.maxIdleTime,
+                    maxLifeTime != null ? maxLifeTime : fallback.maxLifeTime,
+                    pendingAcquireTimeout != null ? pendingAcquireTimeout : fallback.pendingAcquireTimeout,
+                    pendingAcquireMaxCount != null ? pendingAcquireMaxCount : fallback.pendingAcquireMaxCount,
+                    evictInterval != null ? evictInterval : fallback.evictInterval);
+        }
+    }
+
+    /**
+     * Wire protocol toward a backend
+     */
+    public enum Protocol {
+        /**
+         * HTTP/1.1, one request per connection at a time
+         */
+        HTTP1_1,
+
+        /**
+         * HTTP/2 negotiated via ALPN on https instances, falls back to HTTP/1.1
+         */
+        H2,
+
+        /**
+         * Cleartext HTTP/2 with prior knowledge, the backend must accept h2c directly
+         */
+        H2C
+    }
+}
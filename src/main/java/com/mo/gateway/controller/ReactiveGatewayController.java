@@ -0,0 +1,94 @@
+package com.mo.gateway.controller;
+
+import com.mo.gateway.component.metrics.PipelineMetrics;
+import com.mo.gateway.component.proxy.RequestPayloadReader;
+import com.mo.gateway.model.dto.GatewayResponse;
+import com.mo.gateway.model.dto.RequestTimings.Phase;
+import com.mo.gateway.service.GatewayService;
+import com.mo.gateway.util.HeaderFilters;
+import com.mo.gateway.util.RequestUtils;
+import com.mo.gateway.util.ResponseUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive Gateway Controller
+ * Serves the data plane on Reactor Netty when the application runs as a reactive web application.
+ * The client connection and the upstream WebClient share the same event loops, so bodies move
+ * between them as data buffers without passing through a servlet thread.
+ */
+@RestController
+@RequestMapping("/api/**")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveGatewayController {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveGatewayController.class);
+
+    private final GatewayService gatewayService;
+
+    private final RequestPayloadReader payloadReader;
+
+    private final PipelineMetrics pipelineMetrics;
+
+    public ReactiveGatewayController(GatewayService gatewayService, RequestPayloadReader payloadReader,
+                                     PipelineMetrics pipelineMetrics) {
+        this.gatewayService = gatewayService;
+        this.payloadReader = payloadReader;
+        this.pipelineMetrics = pipelineMetrics;
+    }
+
+    /**
+     * Handle all HTTP methods for gateway routing
+     */
+    @RequestMapping(method = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT,
+            RequestMethod.DELETE, RequestMethod.PATCH, RequestMethod.OPTIONS})
+    public Mono<Void> handleRequest(ServerWebExchange exchange) {
+        var receivedAt = System.nanoTime();
+        var request = exchange.getRequest();
+        return payloadReader.read(request)
+                .map(body -> RequestUtils.fromServerHttpRequest(request, body))
+                .flatMap(gatewayRequest -> {
+                    gatewayRequest.timings().record(Phase.PARSE, receivedAt);
+                    log.debug("Processing request: {} {} from client: {}",
+                            gatewayRequest.method(),
+                            gatewayRequest.path(),
+                            gatewayRequest.getClientIdentifier());
+                    return Mono.fromFuture(() -> gatewayService.processRequest(gatewayRequest))
+                            .flatMap(gatewayResponse -> writeResponse(exchange.getResponse(), gatewayResponse)
+                                    .doFinally(signal -> pipelineMetrics.recordWrite(gatewayRequest.timings())));
+                })
+                .onErrorResume(throwable -> {
+                    // A response that failed while being written cannot be replaced by an error response
+                    if (exchange.getResponse().isCommitted()) {
+                        return Mono.error(throwable);
+                    }
+                    log.error("Exception in handleRequest for {} {}: {}",
+                            request.getMethod(), request.getPath(), throwable.getMessage(), throwable);
+                    return writeResponse(exchange.getResponse(), ResponseUtils.createExceptionResponse(throwable));
+                });
+    }
+
+    private Mono<Void> writeResponse(ServerHttpResponse response, GatewayResponse gatewayResponse) {
+        response.setStatusCode(HttpStatusCode.valueOf(gatewayResponse.statusCode()));
+        var headers = response.getHeaders();
+        HeaderFilters.copyResponseHeaders(gatewayResponse.headers(), headers);
+        if (gatewayResponse.instanceId() != null) {
+            headers.add("X-Gateway-Instance", gatewayResponse.instanceId());
+        }
+        headers.add("X-Gateway-Processing-Time", String.valueOf(gatewayResponse.processingTimeMs()));
+        if (gatewayResponse.isStreaming()) {
+            // Upstream buffers are handed to the server connection as they arrive
+            return response.writeWith(gatewayResponse.bodyStream());
+        }
+        var body = gatewayResponse.body() != null ? gatewayResponse.body() : new byte[0];
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
@@ -0,0 +1,66 @@
+package com.mo.gateway.controller;
+
+import com.mo.gateway.component.metrics.WriteTimingFilter;
+import com.mo.gateway.component.proxy.RequestPayloadReader;
+import com.mo.gateway.model.dto.RequestTimings.Phase;
+import com.mo.gateway.service.GatewayService;
+import com.mo.gateway.util.RequestUtils;
+import com.mo.gateway.util.ResponseUtils;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * Virtual Thread Gateway Controller
+ * Serves the data plane when gateway.execution.mode=virtual-threads. Tomcat runs every request
+ * on its own virtual thread, so the handler processes the request synchronously without
+ * async dispatch or thread hand-offs.
+ */
+@RestController
+@RequestMapping("/api/**")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "gateway.execution.mode", havingValue = "virtual-threads")
+public class VirtualThreadGatewayController {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadGatewayController.class);
+
+    private final GatewayService gatewayService;
+
+    private final RequestPayloadReader payloadReader;
+
+    public VirtualThreadGatewayController(GatewayService gatewayService, RequestPayloadReader payloadReader) {
+        this.gatewayService = gatewayService;
+        this.payloadReader = payloadReader;
+    }
+
+    /**
+     * Handle all HTTP methods for gateway routing
+     */
+    @RequestMapping(method = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT,
+            RequestMethod.DELETE, RequestMethod.PATCH, RequestMethod.OPTIONS})
+    public ResponseEntity<Object> handleRequest(HttpServletRequest httpRequest) throws IOException {
+        var receivedAt = System.nanoTime();
+        var gatewayRequest = RequestUtils.fromHttpServletRequest(httpRequest, payloadReader.read(httpRequest));
+        gatewayRequest.timings().record(Phase.PARSE, receivedAt);
+        httpRequest.setAttribute(WriteTimingFilter.TIMINGS_ATTRIBUTE, gatewayRequest.timings());
+        log.debug("Processing request: {} {} from client: {}",
+                gatewayRequest.method(),
+                gatewayRequest.path(),
+                gatewayRequest.getClientIdentifier());
+        try {
+            return ResponseUtils.toResponseEntity(gatewayService.execute(gatewayRequest));
+        } catch (RuntimeException e) {
+            log.error("Exception in handleRequest for {} {}: {}",
+                    gatewayRequest.method(), gatewayRequest.path(), e.getMessage(), e);
+            return ResponseUtils.toResponseEntity(ResponseUtils.createExceptionResponse(e));
+        }
+    }
+}
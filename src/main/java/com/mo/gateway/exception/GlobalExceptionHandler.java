@@ -8,7 +8,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
-import org.springframework.web.context.request.WebRequest;
 
 import java.util.Map;
 
@@ -26,7 +25,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(NoHealthyInstanceException.class)
     public ResponseEntity<ApiResponse<Object>> handleNoHealthyInstance(
-            NoHealthyInstanceException ex, WebRequest request) {
+            NoHealthyInstanceException ex) {
         log.error("No healthy instances available for service: {}", ex.getServiceId(), ex);
         Object errorData = ex.getServiceId() != null ?
                 Map.of("serviceId", ex.getServiceId()) : null;
@@ -39,7 +38,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(RateLimitException.class)
     public ResponseEntity<ApiResponse<Object>> handleRateLimit(
-            RateLimitException ex, WebRequest request) {
+            RateLimitException ex) {
         log.warn("Rate limit exceeded for client: {}", ex.getClientId());
         Object errorData = Map.of(
                 "clientId", ex.getClientId() != null ? ex.getClientId() : "unknown",
@@ -60,7 +59,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(LoadBalancerException.class)
     public ResponseEntity<ApiResponse<Object>> handleLoadBalancer(
-            LoadBalancerException ex, WebRequest request) {
+            LoadBalancerException ex) {
         log.error("Load balancer error for service: {} with strategy: {}",
                 ex.getServiceId(), ex.getStrategy(), ex);
         Object errorData = Map.of(
@@ -76,7 +75,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(ServiceUnavailableException.class)
     public ResponseEntity<ApiResponse<Object>> handleServiceUnavailable(
-            ServiceUnavailableException ex, WebRequest request) {
+            ServiceUnavailableException ex) {
         log.error("Service unavailable: {} instance: {}",
                 ex.getServiceId(), ex.getInstanceId(), ex);
         Object errorData = Map.of(
@@ -92,7 +91,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(ServiceDiscoveryException.class)
     public ResponseEntity<ApiResponse<Object>> handleServiceDiscovery(
-            ServiceDiscoveryException ex, WebRequest request) {
+            ServiceDiscoveryException ex) {
         log.error("Service discovery error with type: {}", ex.getDiscoveryType(), ex);
         Object errorData = ex.getDiscoveryType() != null ?
                 Map.of("discoveryType", ex.getDiscoveryType()) : null;
@@ -105,7 +104,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(ConfigurationException.class)
     public ResponseEntity<ApiResponse<Object>> handleConfiguration(
-            ConfigurationException ex, WebRequest request) {
+            ConfigurationException ex) {
         log.error("Configuration error for key: {}", ex.getConfigurationKey(), ex);
         Object errorData = ex.getConfigurationKey() != null ?
                 Map.of("configurationKey", ex.getConfigurationKey()) : null;
@@ -118,7 +117,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(GatewayException.class)
     public ResponseEntity<ApiResponse<Object>> handleGatewayException(
-            GatewayException ex, WebRequest request) {
+            GatewayException ex) {
         log.error("Gateway exception: {} (code: {})", ex.getMessage(), ex.getErrorCode(), ex);
         Object errorData = Map.of(
                 "errorCode", ex.getErrorCode(),
@@ -133,7 +132,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiResponse<Object>> handleValidationErrors(
-            org.springframework.web.bind.MethodArgumentNotValidException ex, WebRequest request) {
+            org.springframework.web.bind.MethodArgumentNotValidException ex) {
         log.error("Validation error", ex);
         var errors = ex.getBindingResult().getFieldErrors().stream()
                 .collect(java.util.stream.Collectors.toMap(
@@ -151,7 +150,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(org.springframework.web.reactive.function.client.WebClientResponseException.class)
     public ResponseEntity<ApiResponse<Object>> handleWebClientError(
-            org.springframework.web.reactive.function.client.WebClientResponseException ex, WebRequest request) {
+            org.springframework.web.reactive.function.client.WebClientResponseException ex) {
         log.error("WebClient error: {} {}", ex.getStatusCode(), ex.getStatusText(), ex);
         Object errorData = Map.of(
                 "upstreamStatus", ex.getStatusCode().value(),
@@ -167,7 +166,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<ApiResponse<Object>> handleGenericException(
-            RuntimeException ex, WebRequest request) {
+            RuntimeException ex) {
         log.error("Unexpected error occurred", ex);
         Object errorData = Map.of(
                 "exceptionType", ex.getClass().getSimpleName(),
@@ -1,31 +1,39 @@
 package com.mo.gateway.model.dto;
 
-import lombok.extern.slf4j.Slf4j;
+import com.mo.gateway.util.RequestIds;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
-import java.util.UUID;
 
 /**
  * Immutable data carrier for HTTP requests
+ * Request id and client identity are resolved once when the request is built, every later
+ * lookup reads the field. Phase timings are collected on the request as it moves through the
+ * gateway.
  */
-@Slf4j
 public record GatewayRequest(
         String id,
         String clientId,
         String path,
         String method,
-        Map<String, String> headers,
+        RequestHeaders headers,
         Map<String, String> queryParams,
-        byte[] body,
+        RequestPayload body,
         long timestamp,
-        String serviceId
+        String serviceId,
+        RequestTimings timings
 ) {
     /**
      * Compact constructor with validation and defaults
      */
     public GatewayRequest {
-        if (id == null) id = UUID.randomUUID().toString();
+        if (id == null) id = RequestIds.next();
         if (timestamp == 0) timestamp = System.currentTimeMillis();
+        if (body == null) body = RequestPayload.EMPTY;
+        if (headers == null) headers = RequestHeaders.EMPTY;
+        if (clientId == null) clientId = resolveClientId(headers);
+        if (timings == null) timings = new RequestTimings();
     }
 
     /**
@@ -36,48 +44,64 @@ public record GatewayRequest(
     }
 
     /**
-     * Extract client identifier using modern switch expression
+     * Query string to forward upstream
+     * The raw query is passed through verbatim, parameters set by hand are encoded once
+     */
+    public String rawQuery() {
+        if (queryParams instanceof QueryParameters parameters) return parameters.rawQuery();
+        if (queryParams == null || queryParams.isEmpty()) return null;
+        var query = new StringBuilder();
+        queryParams.forEach((key, value) -> {
+            if (!query.isEmpty()) query.append('&');
+            query.append(URLEncoder.encode(key, StandardCharsets.UTF_8)).append('=');
+            if (value != null) query.append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+        });
+        return query.toString();
+    }
+
+    /**
+     * Case-insensitive header lookup
+     */
+    public String getHeader(String name) {
+        return headers.getFirst(name);
+    }
+
+    /**
+     * Client identifier, resolved from the headers when the request was built
      */
     public String getClientIdentifier() {
-        if (clientId != null) return clientId;
-        if (headers != null) {
-            return switch (extractFromHeaders()) {
-                case String apiKey when apiKey != null -> apiKey;
-                default -> "anonymous";
-            };
-        }
-        return "anonymous";
+        return clientId;
     }
 
-    private String extractFromHeaders() {
-        log.info("extractFromHeaders called");
-        var apiKey = headers.get("X-API-Key");
+    /**
+     * Identify the client by API key, then Authorization, then the first forwarded address
+     */
+    private static String resolveClientId(RequestHeaders headers) {
+        var apiKey = headers.getFirst("X-API-Key");
         if (apiKey != null && !apiKey.isEmpty()) return apiKey;
-        var authHeader = headers.get("Authorization");
+        var authHeader = headers.getFirst("Authorization");
         if (authHeader != null && !authHeader.isEmpty()) {
-            String clientFromAuth = extractClientFromAuth(authHeader);
-            if (clientFromAuth != null && !clientFromAuth.isEmpty()) {
+            var clientFromAuth = extractClientFromAuth(authHeader);
+            if (!clientFromAuth.isEmpty()) {
                 return clientFromAuth;
             }
         }
-        var forwardedFor = headers.get("X-Forwarded-For");
+        var forwardedFor = headers.getFirst("X-Forwarded-For");
         if (forwardedFor != null && !forwardedFor.isEmpty()) {
-            String[] ips = forwardedFor.split(",");
-            if (ips.length > 0 && ips[0] != null) {
-                String ip = ips[0].trim();
-                if (!ip.isEmpty()) {
-                    return ip;
-                }
+            var comma = forwardedFor.indexOf(',');
+            var ip = (comma < 0 ? forwardedFor : forwardedFor.substring(0, comma)).trim();
+            if (!ip.isEmpty()) {
+                return ip;
             }
         }
-        String realIp = headers.get("X-Real-IP");
-        if (realIp != null && !realIp.trim().isEmpty()) {
+        var realIp = headers.getFirst("X-Real-IP");
+        if (realIp != null && !realIp.isBlank()) {
             return realIp.trim();
         }
         return "anonymous";
     }
 
-    private String extractClientFromAuth(String authHeader) {
+    private static String extractClientFromAuth(String authHeader) {
         return switch (authHeader) {
             case String auth when auth.startsWith("Bearer ") ->
                     STR."bearer-\{auth.substring(7, Math.min(auth.length(), 20))}";
@@ -95,22 +119,27 @@ public record GatewayRequest(
         private String clientId;
         private String path;
         private String method;
-        private Map<String, String> headers;
+        private RequestHeaders headers;
         private Map<String, String> queryParams;
-        private byte[] body;
+        private RequestPayload body;
         private long timestamp;
         private String serviceId;
+        private RequestTimings timings;
         public Builder id(String id) { this.id = id; return this; }
         public Builder clientId(String clientId) { this.clientId = clientId; return this; }
         public Builder path(String path) { this.path = path; return this; }
         public Builder method(String method) { this.method = method; return this; }
-        public Builder headers(Map<String, String> headers) { this.headers = headers; return this; }
+        public Builder headers(RequestHeaders headers) { this.headers = headers; return this; }
+        public Builder headers(Map<String, String> headers) { this.headers = RequestHeaders.of(headers); return this; }
         public Builder queryParams(Map<String, String> queryParams) { this.queryParams = queryParams; return this; }
-        public Builder body(byte[] body) { this.body = body; return this; }
+        public Builder rawQuery(String rawQuery) { this.queryParams = QueryParameters.of(rawQuery); return this; }
+        public Builder body(RequestPayload body) { this.body = body; return this; }
+        public Builder body(byte[] body) { this.body = RequestPayload.of(body); return this; }
         public Builder timestamp(long timestamp) { this.timestamp = timestamp; return this; }
         public Builder serviceId(String serviceId) { this.serviceId = serviceId; return this; }
+        public Builder timings(RequestTimings timings) { this.timings = timings; return this; }
         public GatewayRequest build() {
-            return new GatewayRequest(id, clientId, path, method, headers, queryParams, body, timestamp, serviceId);
+            return new GatewayRequest(id, clientId, path, method, headers, queryParams, body, timestamp, serviceId, timings);
         }
     }
 }
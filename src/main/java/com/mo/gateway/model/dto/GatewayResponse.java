@@ -1,5 +1,9 @@
 package com.mo.gateway.model.dto;
 
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import reactor.core.publisher.Flux;
+
 import java.util.Map;
 
 /**
@@ -7,8 +11,9 @@ import java.util.Map;
  */
 public record GatewayResponse(
         int statusCode,
-        Map<String, String> headers,
+        HttpHeaders headers,
         byte[] body,
+        Flux<DataBuffer> bodyStream,
         long timestamp,
         String instanceId,
         long processingTimeMs
@@ -18,6 +23,7 @@ public record GatewayResponse(
      */
     public GatewayResponse {
         if (timestamp == 0) timestamp = System.currentTimeMillis();
+        if (headers == null) headers = HttpHeaders.EMPTY;
     }
 
     /**
@@ -27,6 +33,13 @@ public record GatewayResponse(
         return new Builder();
     }
 
+    /**
+     * Check if the body is streamed from upstream instead of buffered
+     */
+    public boolean isStreaming() {
+        return bodyStream != null;
+    }
+
     /**
      * Check if response indicates success
      */
@@ -53,19 +66,27 @@ public record GatewayResponse(
      */
     public static class Builder {
         private int statusCode;
-        private Map<String, String> headers;
+        private HttpHeaders headers;
         private byte[] body;
+        private Flux<DataBuffer> bodyStream;
         private long timestamp;
         private String instanceId;
         private long processingTimeMs;
         public Builder statusCode(int statusCode) { this.statusCode = statusCode; return this; }
-        public Builder headers(Map<String, String> headers) { this.headers = headers; return this; }
+        public Builder headers(HttpHeaders headers) { this.headers = headers; return this; }
+        public Builder headers(Map<String, String> headers) {
+            var httpHeaders = new HttpHeaders();
+            headers.forEach(httpHeaders::add);
+            this.headers = httpHeaders;
+            return this;
+        }
         public Builder body(byte[] body) { this.body = body; return this; }
+        public Builder bodyStream(Flux<DataBuffer> bodyStream) { this.bodyStream = bodyStream; return this; }
         public Builder timestamp(long timestamp) { this.timestamp = timestamp; return this; }
         public Builder instanceId(String instanceId) { this.instanceId = instanceId; return this; }
         public Builder processingTimeMs(long processingTimeMs) { this.processingTimeMs = processingTimeMs; return this; }
         public GatewayResponse build() {
-            return new GatewayResponse(statusCode, headers, body, timestamp, instanceId, processingTimeMs);
+            return new GatewayResponse(statusCode, headers, body, bodyStream, timestamp, instanceId, processingTimeMs);
         }
     }
 }
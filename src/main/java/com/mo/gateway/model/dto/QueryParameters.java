@@ -0,0 +1,121 @@
+package com.mo.gateway.model.dto;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Query parameters decoded on first use
+ * Keeps the raw query string for verbatim forwarding; the decoded map is only built when a
+ * rate-limit rule, auth provider or route predicate actually reads a parameter. As before,
+ * the map view keeps the last value of a repeated key, {@link #getAll(String)} returns all of them.
+ */
+public final class QueryParameters extends AbstractMap<String, String> {
+
+    private static final QueryParameters EMPTY = new QueryParameters(null);
+
+    private final String rawQuery;
+
+    private volatile Map<String, String> decoded;
+
+    private QueryParameters(String rawQuery) {
+        this.rawQuery = rawQuery;
+    }
+
+    /**
+     * Wrap a raw (still percent-encoded) query string, null or empty means no parameters
+     */
+    public static QueryParameters of(String rawQuery) {
+        return rawQuery == null || rawQuery.isEmpty() ? EMPTY : new QueryParameters(rawQuery);
+    }
+
+    /**
+     * Raw query string as received, null when the request had none
+     */
+    public String rawQuery() {
+        return rawQuery;
+    }
+
+    /**
+     * All decoded values of a parameter in request order
+     */
+    public List<String> getAll(String name) {
+        var values = new ArrayList<String>();
+        forEachPair((key, value) -> {
+            if (key.equals(name)) values.add(value);
+        });
+        return values;
+    }
+
+    @Override
+    public String get(Object key) {
+        return rawQuery == null ? null : decoded().get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return rawQuery != null && decoded().containsKey(key);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return rawQuery == null || decoded().isEmpty();
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return rawQuery == null ? Set.of() : decoded().entrySet();
+    }
+
+    private Map<String, String> decoded() {
+        var result = decoded;
+        if (result == null) {
+            var params = new LinkedHashMap<String, String>();
+            forEachPair(params::put);
+            // Benign race, concurrent callers decode the same immutable input
+            decoded = result = Collections.unmodifiableMap(params);
+        }
+        return result;
+    }
+
+    private void forEachPair(BiConsumer<String, String> consumer) {
+        if (rawQuery == null) {
+            return;
+        }
+        var start = 0;
+        var length = rawQuery.length();
+        while (start <= length) {
+            var end = rawQuery.indexOf('&', start);
+            if (end < 0) end = length;
+            if (end > start) {
+                var separator = rawQuery.indexOf('=', start);
+                if (separator < 0 || separator > end) {
+                    consumer.accept(decode(rawQuery.substring(start, end)), "");
+                } else if (separator > start) {
+                    consumer.accept(decode(rawQuery.substring(start, separator)),
+                            decode(rawQuery.substring(separator + 1, end)));
+                }
+            }
+            start = end + 1;
+        }
+    }
+
+    private static String decode(String value) {
+        if (value.indexOf('%') < 0 && value.indexOf('+') < 0) {
+            return value;
+        }
+        try {
+            return URLDecoder.decode(value, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            // Malformed escape, keep the raw text as the previous parser did
+            return value;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.mo.gateway.model.dto;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Read-only view of the inbound request headers
+ * Backed by the servlet request or the Netty headers, so nothing is copied on the way in.
+ * Lookups are case-insensitive; the map view exposes the first value of each header and
+ * {@link #forEachValue(BiConsumer)} walks every value for forwarding.
+ */
+public abstract class RequestHeaders extends AbstractMap<String, String> {
+
+    public static final RequestHeaders EMPTY = of(Map.of());
+
+    private volatile Map<String, String> firstValues;
+
+    /**
+     * First value of a header, case-insensitive, null when absent
+     */
+    public abstract String getFirst(String name);
+
+    /**
+     * All values of a header in arrival order
+     */
+    public abstract List<String> getAll(String name);
+
+    /**
+     * Visit every name/value pair, repeated headers once per value
+     */
+    public abstract void forEachValue(BiConsumer<String, String> consumer);
+
+    /**
+     * View over Spring headers, for the reactive server these wrap the Netty headers directly
+     */
+    public static RequestHeaders of(HttpHeaders headers) {
+        return new HttpHeadersView(headers);
+    }
+
+    /**
+     * View over single-valued headers built by hand
+     */
+    public static RequestHeaders of(Map<String, String> headers) {
+        if (headers instanceof RequestHeaders requestHeaders) {
+            return requestHeaders;
+        }
+        var httpHeaders = new HttpHeaders();
+        headers.forEach(httpHeaders::add);
+        return new HttpHeadersView(HttpHeaders.readOnlyHttpHeaders(httpHeaders));
+    }
+
+    @Override
+    public String get(Object name) {
+        return name instanceof String header ? getFirst(header) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object name) {
+        return get(name) != null;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        // Only materialized when a caller iterates the map view
+        var result = firstValues;
+        if (result == null) {
+            var values = new LinkedHashMap<String, String>();
+            forEachValue(values::putIfAbsent);
+            firstValues = result = Collections.unmodifiableMap(values);
+        }
+        return result.entrySet();
+    }
+
+    private static final class HttpHeadersView extends RequestHeaders {
+
+        private final HttpHeaders headers;
+
+        private HttpHeadersView(HttpHeaders headers) {
+            this.headers = headers;
+        }
+
+        @Override
+        public String getFirst(String name) {
+            return headers.getFirst(name);
+        }
+
+        @Override
+        public List<String> getAll(String name) {
+            return headers.getOrEmpty(name);
+        }
+
+        @Override
+        public void forEachValue(BiConsumer<String, String> consumer) {
+            headers.forEach((name, values) -> {
+                for (var value : values) {
+                    consumer.accept(name, value);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.mo.gateway.model.dto;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Request body carried through the gateway
+ * Held on heap, spilled to a temp file, or piped straight from the client connection
+ */
+public sealed interface RequestPayload
+        permits RequestPayload.Empty, RequestPayload.InMemory, RequestPayload.Spilled, RequestPayload.Streamed {
+
+    /**
+     * Chunk size used when a payload is published as data buffers
+     */
+    int CHUNK_SIZE = 16 * 1024;
+
+    RequestPayload EMPTY = new Empty();
+
+    /**
+     * Wrap an in-memory body, null or empty arrays become EMPTY
+     */
+    static RequestPayload of(byte[] bytes) {
+        return bytes == null || bytes.length == 0 ? EMPTY : new InMemory(bytes);
+    }
+
+    /**
+     * Body length in bytes, -1 when unknown
+     */
+    long contentLength();
+
+    /**
+     * Whether the body can be sent more than once
+     */
+    boolean isReplayable();
+
+    /**
+     * Publish the body as data buffers
+     */
+    Flux<DataBuffer> toDataBuffers();
+
+    /**
+     * Release resources held by the payload once the exchange is over
+     */
+    default void release() {
+    }
+
+    /**
+     * Request without a body
+     */
+    record Empty() implements RequestPayload {
+        @Override
+        public long contentLength() {
+            return 0;
+        }
+
+        @Override
+        public boolean isReplayable() {
+            return true;
+        }
+
+        @Override
+        public Flux<DataBuffer> toDataBuffers() {
+            return Flux.empty();
+        }
+    }
+
+    /**
+     * Body small enough to keep on heap
+     */
+    record InMemory(byte[] bytes) implements RequestPayload {
+        @Override
+        public long contentLength() {
+            return bytes.length;
+        }
+
+        @Override
+        public boolean isReplayable() {
+            return true;
+        }
+
+        @Override
+        public Flux<DataBuffer> toDataBuffers() {
+            return Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(bytes));
+        }
+    }
+
+    /**
+     * Body above the spill threshold, parked in a temp file and deleted on release
+     */
+    record Spilled(Path file, long contentLength) implements RequestPayload {
+
+        private static final Logger log = LoggerFactory.getLogger(Spilled.class);
+
+        @Override
+        public boolean isReplayable() {
+            return true;
+        }
+
+        @Override
+        public Flux<DataBuffer> toDataBuffers() {
+            return DataBufferUtils.read(file, DefaultDataBufferFactory.sharedInstance, CHUNK_SIZE);
+        }
+
+        @Override
+        public void release() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Failed to delete spilled request body: {}", file, e);
+            }
+        }
+    }
+
+    /**
+     * Body piped from the client as it arrives, can only be consumed once
+     */
+    record Streamed(Flux<DataBuffer> source, long contentLength) implements RequestPayload {
+        @Override
+        public boolean isReplayable() {
+            return false;
+        }
+
+        @Override
+        public Flux<DataBuffer> toDataBuffers() {
+            return source;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.mo.gateway.model.dto;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-request phase durations
+ * Phases are timed with System.nanoTime() and summed over retries and hedges, so a phase holds
+ * the time the request spent in it overall. The route and service are set once an instance has
+ * been selected, requests that never reach one are reported as unrouted.
+ */
+public final class RequestTimings {
+
+    /**
+     * Tag of requests that were not routed to an instance
+     */
+    public static final String UNROUTED = "none";
+
+    private final AtomicLongArray nanos = new AtomicLongArray(Phase.values().length);
+
+    private volatile String routeId = UNROUTED;
+
+    private volatile String serviceId = UNROUTED;
+
+    private volatile long completedAt;
+
+    /**
+     * Add the time elapsed since startNanos to a phase
+     */
+    public void record(Phase phase, long startNanos) {
+        add(phase, System.nanoTime() - startNanos);
+    }
+
+    public void add(Phase phase, long durationNanos) {
+        nanos.addAndGet(phase.ordinal(), durationNanos);
+    }
+
+    public long nanos(Phase phase) {
+        return nanos.get(phase.ordinal());
+    }
+
+    public void routed(String routeId, String serviceId) {
+        this.routeId = routeId;
+        this.serviceId = serviceId;
+    }
+
+    /**
+     * Close the pipeline total, the response is written to the client from here on
+     */
+    public void complete(long startNanos) {
+        var now = System.nanoTime();
+        add(Phase.TOTAL, now - startNanos);
+        completedAt = now;
+    }
+
+    public String routeId() {
+        return routeId;
+    }
+
+    public String serviceId() {
+        return serviceId;
+    }
+
+    /**
+     * System.nanoTime() at which the pipeline completed, 0 while it is running
+     */
+    public long completedAt() {
+        return completedAt;
+    }
+
+    public long processingTimeMs() {
+        return nanos(Phase.TOTAL) / 1_000_000;
+    }
+
+    /**
+     * Server-Timing header value with every phase measured before the response is written
+     */
+    public String serverTiming() {
+        var value = new StringBuilder(160);
+        for (var phase : Phase.values()) {
+            var duration = nanos(phase);
+            if (duration == 0 || phase == Phase.WRITE) {
+                continue;
+            }
+            if (!value.isEmpty()) {
+                value.append(", ");
+            }
+            // Milliseconds with microsecond precision
+            value.append(phase.tag()).append(";dur=").append(duration / 1_000_000).append('.');
+            var micros = duration / 1_000 % 1_000;
+            if (micros < 100) value.append('0');
+            if (micros < 10) value.append('0');
+            value.append(micros);
+        }
+        return value.toString();
+    }
+
+    /**
+     * Request phases, in pipeline order
+     */
+    public enum Phase {
+        PARSE("parse"),
+        POLICY("policy"),
+        RATE_LIMIT("rate_limit"),
+        LOAD_BALANCE("load_balance"),
+        CONNECT("connect"),
+        FIRST_BYTE("ttfb"),
+        UPSTREAM("upstream"),
+        WRITE("write"),
+        TOTAL("total");
+
+        private final String tag;
+
+        Phase(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+}
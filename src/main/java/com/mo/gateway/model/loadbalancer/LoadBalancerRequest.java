@@ -3,15 +3,27 @@ package com.mo.gateway.model.loadbalancer;
 import com.mo.gateway.model.dto.GatewayRequest;
 
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Load Balancer Request Model
+ * Instances listed in excludedInstanceIds, typically the ones a retry already tried, are skipped
+ * unless no other instance is left.
  */
 public record LoadBalancerRequest(
         String serviceId,
         GatewayRequest originalRequest,
-        Map<String, Object> context
+        Map<String, Object> context,
+        Set<String> excludedInstanceIds
 ) {
+    public LoadBalancerRequest {
+        if (excludedInstanceIds == null) excludedInstanceIds = Set.of();
+    }
+
+    public LoadBalancerRequest(String serviceId, GatewayRequest originalRequest, Map<String, Object> context) {
+        this(serviceId, originalRequest, context, Set.of());
+    }
+
     /**
      * Get client identifier from original request
      */
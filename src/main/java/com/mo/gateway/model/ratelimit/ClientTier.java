@@ -0,0 +1,46 @@
+package com.mo.gateway.model.ratelimit;
+
+import java.util.Locale;
+
+/**
+ * Client tier derived from the client identifier
+ * Declared from the most to the least important tier.
+ */
+public enum ClientTier {
+    ADMIN,
+
+    PREMIUM,
+
+    USER,
+
+    BASIC,
+
+    FREE,
+
+    ANONYMOUS;
+
+    private final String key = name().toLowerCase(Locale.ROOT);
+
+    /**
+     * Lower-case name used in configuration and metric tags
+     */
+    public String key() {
+        return key;
+    }
+
+    /**
+     * Determine the tier from a client ID
+     */
+    public static ClientTier of(String clientId) {
+        if (clientId == null) return ANONYMOUS;
+        return switch (clientId) {
+            case String id when id.startsWith("premium-") -> PREMIUM;
+            case String id when id.startsWith("admin-") -> ADMIN;
+            case String id when id.startsWith("basic-") -> BASIC;
+            case String id when id.startsWith("free-") -> FREE;
+            case String id when id.contains("@") -> USER; // Email-based
+            case "anonymous" -> ANONYMOUS;
+            default -> BASIC;
+        };
+    }
+}
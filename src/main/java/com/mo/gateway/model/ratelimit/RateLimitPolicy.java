@@ -4,6 +4,7 @@ import java.util.List;
 
 /**
  * Rate Limit Policy
+ * A null storage selects the configured default storage backend
  */
 public record RateLimitPolicy(
         String name,
@@ -12,7 +13,8 @@ public record RateLimitPolicy(
         long windowSizeMs,
         String algorithmType,
         int requestCost,
-        List<RateLimitRule> rules
+        List<RateLimitRule> rules,
+        String storage
 ) {
     /**
      * Compact constructor with defaults
@@ -40,6 +42,7 @@ public record RateLimitPolicy(
         private String algorithmType = "tokenBucket";
         private int requestCost = 1;
         private List<RateLimitRule> rules;
+        private String storage;
         public Builder name(String name) { this.name = name; return this; }
         public Builder capacity(long capacity) { this.capacity = capacity; return this; }
         public Builder refillRate(long refillRate) { this.refillRate = refillRate; return this; }
@@ -47,8 +50,9 @@ public record RateLimitPolicy(
         public Builder algorithmType(String algorithmType) { this.algorithmType = algorithmType; return this; }
         public Builder requestCost(int requestCost) { this.requestCost = requestCost; return this; }
         public Builder rules(List<RateLimitRule> rules) { this.rules = rules; return this; }
+        public Builder storage(String storage) { this.storage = storage; return this; }
         public RateLimitPolicy build() {
-            return new RateLimitPolicy(name, capacity, refillRate, windowSizeMs, algorithmType, requestCost, rules);
+            return new RateLimitPolicy(name, capacity, refillRate, windowSizeMs, algorithmType, requestCost, rules, storage);
         }
     }
 }
\ No newline at end of file
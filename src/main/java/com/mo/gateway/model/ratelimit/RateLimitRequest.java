@@ -1,5 +1,7 @@
 package com.mo.gateway.model.ratelimit;
 
+import com.mo.gateway.model.dto.RequestTimings;
+
 import java.util.Map;
 
 /**
@@ -10,7 +12,8 @@ public record RateLimitRequest(
         String resource,
         String method,
         Map<String, String> headers,
-        int requestCost
+        int requestCost,
+        RequestTimings timings
 ) {
     /**
      * Compact constructor with validation
@@ -35,6 +38,7 @@ public record RateLimitRequest(
         private String method;
         private Map<String, String> headers;
         private int requestCost = 1;
+        private RequestTimings timings;
 
         public Builder clientId(String clientId) {
             this.clientId = clientId;
@@ -61,8 +65,13 @@ public record RateLimitRequest(
             return this;
         }
 
+        public Builder timings(RequestTimings timings) {
+            this.timings = timings;
+            return this;
+        }
+
         public RateLimitRequest build() {
-            return new RateLimitRequest(clientId, resource, method, headers, requestCost);
+            return new RateLimitRequest(clientId, resource, method, headers, requestCost, timings);
         }
     }
 }
@@ -0,0 +1,19 @@
+package com.mo.gateway.model.routing;
+
+/**
+ * Request deadline
+ * Wall-clock expiry counted from the request's arrival, shared by every attempt of the request
+ */
+public record Deadline(long expiresAtMillis) {
+
+    /**
+     * Milliseconds left, zero or negative once expired
+     */
+    public long remainingMillis() {
+        return expiresAtMillis - System.currentTimeMillis();
+    }
+
+    public boolean isExpired() {
+        return remainingMillis() <= 0;
+    }
+}
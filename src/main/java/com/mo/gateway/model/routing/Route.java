@@ -0,0 +1,134 @@
+package com.mo.gateway.model.routing;
+
+import com.mo.gateway.config.properties.RetryProperties.RetryPolicy;
+import com.mo.gateway.config.properties.RouteProperties.CachePolicy;
+import com.mo.gateway.config.properties.RouteProperties.HedgePolicy;
+import com.mo.gateway.config.properties.RouteProperties.TimeoutPolicy;
+import com.mo.gateway.config.properties.RouteProperties.RouteDefinition;
+import com.mo.gateway.model.dto.GatewayRequest;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Compiled route
+ * Predicates are normalized once so matching a request neither allocates nor lowercases
+ */
+public record Route(
+        String id,
+        String pathPrefix,
+        String host,
+        Set<String> methods,
+        String[] headerNames,
+        String[] headerValues,
+        String serviceId,
+        boolean stripPrefix,
+        String prefixRewrite,
+        String[] coalescingVaryHeaders,
+        CachePolicy cachePolicy,
+        RetryPolicy retryPolicy,
+        HedgePolicy hedgePolicy,
+        TimeoutPolicy timeoutPolicy
+) {
+    /**
+     * Prefix of the /api/{service} convention used when no configured route matches
+     */
+    public static final String CONVENTION_PREFIX = "/api/";
+
+    private static final String[] NONE = new String[0];
+
+    /**
+     * Compile a route definition
+     */
+    public static Route from(RouteDefinition definition) {
+        var headers = definition.headers();
+        return new Route(
+                definition.id(),
+                normalizePrefix(definition.path()),
+                definition.host() == null || definition.host().isBlank() ? null : definition.host().toLowerCase(Locale.ROOT),
+                definition.methods().stream().map(m -> m.toUpperCase(Locale.ROOT)).collect(Collectors.toUnmodifiableSet()),
+                headers.keySet().toArray(String[]::new),
+                headers.values().stream().map(v -> v == null || v.isBlank() ? null : v).toArray(String[]::new),
+                definition.serviceId(),
+                definition.stripPrefix(),
+                definition.prefixRewrite(),
+                definition.coalescing().enabled() ? definition.coalescing().varyHeaders().toArray(String[]::new) : null,
+                definition.cache().enabled() ? definition.cache() : null,
+                definition.retry(),
+                definition.hedging().enabled() ? definition.hedging() : null,
+                definition.timeouts());
+    }
+
+    /**
+     * Route for /api/{serviceId}, which strips the convention prefix and the service segment
+     * Callers on the request path should reuse the route, see RouteTable
+     */
+    public static Route convention(String serviceId) {
+        return new Route(serviceId, CONVENTION_PREFIX + serviceId, null, Set.of(),
+                NONE, NONE, serviceId, true, "", null, null, null, null, TimeoutPolicy.INHERIT);
+    }
+
+    /**
+     * Whether identical concurrent requests on this route share one upstream call
+     */
+    public boolean isCoalescing() {
+        return coalescingVaryHeaders != null;
+    }
+
+    /**
+     * Whether responses of this route are cached
+     */
+    public boolean isCaching() {
+        return cachePolicy != null;
+    }
+
+    /**
+     * Whether slow requests of this route are hedged
+     */
+    public boolean isHedging() {
+        return hedgePolicy != null;
+    }
+
+    /**
+     * Check host, method and header predicates
+     */
+    public boolean matches(GatewayRequest request) {
+        if (!methods.isEmpty() && !methods.contains(request.method())) {
+            return false;
+        }
+        if (host != null && !matchesHost(request.getHeader("Host"))) {
+            return false;
+        }
+        for (var i = 0; i < headerNames.length; i++) {
+            var value = request.getHeader(headerNames[i]);
+            if (value == null || (headerValues[i] != null && !headerValues[i].equals(value))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Path forwarded to the upstream for a request path that matched this route
+     */
+    public String rewrite(String path) {
+        var rest = stripPrefix ? path.substring(pathPrefix.equals("/") ? 0 : pathPrefix.length()) : path;
+        return prefixRewrite.isEmpty() ? rest : prefixRewrite + rest;
+    }
+
+    private boolean matchesHost(String requestHost) {
+        // Host header may carry a port, compare up to it without allocating
+        return requestHost != null
+                && requestHost.regionMatches(true, 0, host, 0, host.length())
+                && (requestHost.length() == host.length() || requestHost.charAt(host.length()) == ':');
+    }
+
+    private static String normalizePrefix(String path) {
+        var prefix = path.startsWith("/") ? path : "/" + path;
+        while (prefix.length() > 1 && prefix.endsWith("/")) {
+            prefix = prefix.substring(0, prefix.length() - 1);
+        }
+        return prefix;
+    }
+}
@@ -0,0 +1,19 @@
+package com.mo.gateway.model.routing;
+
+/**
+ * Result of a route table lookup
+ *
+ * @param route        matched route, carrying per-route settings
+ * @param upstreamPath rewritten path to forward to the selected instance
+ */
+public record RouteMatch(
+        Route route,
+        String upstreamPath
+) {
+    /**
+     * Target service of the matched route
+     */
+    public String serviceId() {
+        return route.serviceId();
+    }
+}
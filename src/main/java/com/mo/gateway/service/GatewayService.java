@@ -1,33 +1,78 @@
 package com.mo.gateway.service;
 
+import com.mo.gateway.component.accesslog.AccessLog;
+import com.mo.gateway.component.cache.ResponseCache;
+import com.mo.gateway.component.metrics.PipelineMetrics;
+import com.mo.gateway.component.proxy.DeadlineTimer;
+import com.mo.gateway.component.proxy.RequestCoalescer;
+import com.mo.gateway.component.proxy.ResponseEncoder;
+import com.mo.gateway.component.proxy.UpstreamClientRegistry;
+import com.mo.gateway.component.resilience.CircuitBreakerRegistry;
+import com.mo.gateway.component.resilience.ConcurrencyLimiter;
+import com.mo.gateway.component.resilience.LoadShedder;
+import com.mo.gateway.component.resilience.OutlierDetector;
+import com.mo.gateway.component.resilience.RequestHedger;
+import com.mo.gateway.component.resilience.RetryHandler;
+import com.mo.gateway.component.routing.RouteTable;
+import com.mo.gateway.config.properties.ProxyProperties;
+import com.mo.gateway.config.properties.ProxyProperties.BodyMode;
+import com.mo.gateway.config.properties.RetryProperties.RetryPolicy;
+import com.mo.gateway.exception.GatewayException;
 import com.mo.gateway.model.dto.GatewayResponse;
 import com.mo.gateway.model.loadbalancer.LoadBalancerRequest;
 import com.mo.gateway.model.loadbalancer.ServiceInstance;
+import com.mo.gateway.model.ratelimit.RateLimitRequest;
 import com.mo.gateway.model.ratelimit.RateLimitResult;
+import com.mo.gateway.model.routing.Deadline;
+import com.mo.gateway.model.routing.RouteMatch;
 import com.mo.gateway.model.dto.GatewayRequest;
+import com.mo.gateway.model.dto.RequestPayload;
+import com.mo.gateway.model.dto.RequestTimings;
+import com.mo.gateway.model.dto.RequestTimings.Phase;
 import com.mo.gateway.service.loadbalancer.LoadBalancerService;
 import com.mo.gateway.service.ratelimit.RateLimiterService;
+import com.mo.gateway.util.HeaderFilters;
 import com.mo.gateway.util.ResponseUtils;
+import io.netty.handler.timeout.ReadTimeoutException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClientRequest;
 
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
-import java.time.Duration;
+import java.net.URI;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Core Gateway Service
  *
  * Orchestrates request processing through:
  * 1. Rate limiting
- * 2. Load balancing
- * 3. Request forwarding
- * 4. Response handling
+ * 2. Routing
+ * 3. Load balancing
+ * 4. Response cache and request coalescing
+ * 5. Request forwarding with budgeted retries and hedging
+ * 6. Response handling and content encoding
  */
 @Service
 public class GatewayService {
@@ -38,33 +83,227 @@ public class GatewayService {
 
     private final LoadBalancerService loadBalancerService;
 
-    private final WebClient webClient;
+    private final UpstreamClientRegistry upstreamClients;
 
-    public GatewayService(RateLimiterService rateLimiterService, LoadBalancerService loadBalancerService, WebClient webClient) {
+    private final ProxyProperties proxyProperties;
+
+    private final PipelineMetrics pipelineMetrics;
+
+    private final RouteTable routeTable;
+
+    private final RequestCoalescer requestCoalescer;
+
+    private final ResponseCache responseCache;
+
+    private final ResponseEncoder responseEncoder;
+
+    private final RetryHandler retryHandler;
+
+    private final RequestHedger requestHedger;
+
+    private final DeadlineTimer deadlineTimer;
+
+    private final CircuitBreakerRegistry circuitBreakers;
+
+    private final OutlierDetector outlierDetector;
+
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    private final LoadShedder loadShedder;
+
+    private final AccessLog accessLog;
+
+    private final Executor executor;
+
+    public GatewayService(RateLimiterService rateLimiterService, LoadBalancerService loadBalancerService,
+                          UpstreamClientRegistry upstreamClients, ProxyProperties proxyProperties, PipelineMetrics pipelineMetrics,
+                          RouteTable routeTable, RequestCoalescer requestCoalescer, ResponseCache responseCache,
+                          ResponseEncoder responseEncoder, RetryHandler retryHandler, RequestHedger requestHedger,
+                          DeadlineTimer deadlineTimer, CircuitBreakerRegistry circuitBreakers,
+                          OutlierDetector outlierDetector, ConcurrencyLimiter concurrencyLimiter,
+                          LoadShedder loadShedder, AccessLog accessLog,
+                          @Qualifier("gatewayTaskExecutor") Executor executor) {
         this.rateLimiterService = rateLimiterService;
         this.loadBalancerService = loadBalancerService;
-        this.webClient = webClient;
+        this.upstreamClients = upstreamClients;
+        this.proxyProperties = proxyProperties;
+        this.pipelineMetrics = pipelineMetrics;
+        this.routeTable = routeTable;
+        this.requestCoalescer = requestCoalescer;
+        this.responseCache = responseCache;
+        this.responseEncoder = responseEncoder;
+        this.retryHandler = retryHandler;
+        this.requestHedger = requestHedger;
+        this.deadlineTimer = deadlineTimer;
+        this.circuitBreakers = circuitBreakers;
+        this.outlierDetector = outlierDetector;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.loadShedder = loadShedder;
+        this.accessLog = accessLog;
+        this.executor = executor;
     }
 
     /**
      * Main request processing method
      */
     public CompletableFuture<GatewayResponse> processRequest(GatewayRequest request) {
-        var startTime = System.currentTimeMillis();
+        var startTime = System.nanoTime();
         log.debug("Processing request: {} {} from client: {}",
                 request.method(), request.path(), request.getClientIdentifier());
-        return rateLimiterService.checkRateLimit(request.getClientIdentifier(), request.path())
+        // Shedding comes first, an overloaded gateway should not spend a rate limit lookup on the request
+        if (!loadShedder.tryAdmit(request)) {
+            var overloaded = ResponseUtils.createOverloadedResponse();
+            completeRequest(request, overloaded, startTime);
+            return CompletableFuture.completedFuture(pipelineMetrics.withTimings(overloaded, request.timings()));
+        }
+        return rateLimiterService.checkRateLimit(rateLimitRequest(request))
                 .thenCompose(rateLimitResult -> processWithRateLimit(request, rateLimitResult))
+                .thenCompose(response -> encode(request, response))
                 .whenComplete((response, throwable) -> {
-                    var processingTime = System.currentTimeMillis() - startTime;
-                    log.info("Request processed in {}ms", processingTime);
-                });
+                    loadShedder.release();
+                    completeRequest(request, response, startTime);
+                })
+                .thenApply(response -> pipelineMetrics.withTimings(response, request.timings()));
+    }
+
+    /**
+     * Direct-style request processing for callers running on a virtual thread
+     * Every stage blocks the caller, which parks instead of holding a platform thread
+     */
+    public GatewayResponse execute(GatewayRequest request) {
+        var startTime = System.nanoTime();
+        log.debug("Processing request: {} {} from client: {}",
+                request.method(), request.path(), request.getClientIdentifier());
+        if (!loadShedder.tryAdmit(request)) {
+            var overloaded = ResponseUtils.createOverloadedResponse();
+            completeRequest(request, overloaded, startTime);
+            return pipelineMetrics.withTimings(overloaded, request.timings());
+        }
+        GatewayResponse response = null;
+        try {
+            var rateLimitResult = rateLimiterService.checkRateLimit(rateLimitRequest(request)).join();
+            if (!rateLimitResult.allowed()) {
+                log.debug("Rate limit exceeded for client: {}", request.getClientIdentifier());
+                response = ResponseUtils.createRateLimitExceededResponse(rateLimitResult);
+            } else {
+                response = responseEncoder.encode(request, executeAllowedRequest(request));
+            }
+        } finally {
+            loadShedder.release();
+            completeRequest(request, response, startTime);
+        }
+        return pipelineMetrics.withTimings(response, request.timings());
+    }
+
+    private GatewayResponse executeAllowedRequest(GatewayRequest request) {
+        var route = routeTable.match(request);
+        if (route == null) {
+            return noRoute(request);
+        }
+        if (responseCache.isCacheable(request, route)) {
+            var cached = responseCache.lookup(request, route);
+            if (cached != null) {
+                return cached;
+            }
+            return responseCache.store(request, route, executeFetch(request, route, BodyMode.BUFFERED));
+        }
+        return executeFetch(request, route, proxyProperties.responseMode());
+    }
+
+    private GatewayResponse executeFetch(GatewayRequest request, RouteMatch route, BodyMode responseMode) {
+        if (requestCoalescer.isCoalescable(request, route)) {
+            return requestCoalescer.executeBlocking(request, route,
+                    () -> executeRoute(request, route, BodyMode.BUFFERED));
+        }
+        return executeRoute(request, route, responseMode);
+    }
+
+    private GatewayResponse executeRoute(GatewayRequest request, RouteMatch route, BodyMode responseMode) {
+        var policy = retryHandler.policyFor(route);
+        var deadline = deadlineTimer.deadlineFor(request, route);
+        var tried = Set.<String>of();
+        for (var retries = 0; ; retries++) {
+            if (deadline.isExpired()) {
+                return deadlineExceeded(request);
+            }
+            var lbRequest = new LoadBalancerRequest(route.serviceId(), request, null, tried);
+            ServiceInstance instance;
+            var stageStart = System.nanoTime();
+            try {
+                instance = loadBalancerService.selectInstance(lbRequest).join();
+            } catch (CompletionException e) {
+                return handleError(e);
+            } finally {
+                request.timings().record(Phase.LOAD_BALANCE, stageStart);
+            }
+            request.timings().routed(route.route().id(), route.serviceId());
+            if (retries == 0) {
+                retryHandler.recordRequest(route.serviceId());
+            }
+            GatewayResponse response = null;
+            RuntimeException failure = null;
+            var attempted = attempted(instance);
+            stageStart = System.nanoTime();
+            try {
+                response = requestHedger.isHedgeable(request, route, policy)
+                        ? hedged(request, route, instance, responseMode, deadline, tried, attempted).join()
+                        : exchange(request, route, instance, responseMode, deadline).block();
+            } catch (RuntimeException e) {
+                failure = e;
+            } finally {
+                request.timings().record(Phase.UPSTREAM, stageStart);
+            }
+            if (!retryHandler.shouldRetry(policy, request, route.serviceId(), retries, response, failure)) {
+                return failure == null ? response : upstreamError(instance, failure);
+            }
+            discard(response);
+            tried = with(tried, attempted);
+            try {
+                Thread.sleep(backoffMillis(policy, retries, deadline));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return handleError(e);
+            }
+        }
+    }
+
+    private void completeRequest(GatewayRequest request, GatewayResponse response, long startTime) {
+        request.body().release();
+        var timings = request.timings();
+        timings.complete(startTime);
+        pipelineMetrics.record(timings);
+        accessLog.record(request, response, timings.nanos(Phase.TOTAL));
+    }
+
+    /**
+     * Encode the response for the client, a buffered body that gets gzipped or decoded is handed to
+     * a worker rather than transcoded on the event loop that completed the upstream call
+     */
+    private CompletableFuture<GatewayResponse> encode(GatewayRequest request, GatewayResponse response) {
+        if (responseEncoder.transcodesBuffered(request, response)) {
+            return CompletableFuture.supplyAsync(() -> responseEncoder.encode(request, response), executor);
+        }
+        return CompletableFuture.completedFuture(responseEncoder.encode(request, response));
+    }
+
+    private static RateLimitRequest rateLimitRequest(GatewayRequest request) {
+        return RateLimitRequest.builder()
+                .clientId(request.getClientIdentifier())
+                .resource(request.path())
+                .timings(request.timings())
+                .build();
+    }
+
+    private static <T> CompletableFuture<T> timed(GatewayRequest request, Phase phase,
+                                                  Supplier<CompletableFuture<T>> call) {
+        var stageStart = System.nanoTime();
+        return call.get().whenComplete((result, throwable) -> request.timings().record(phase, stageStart));
     }
 
     private CompletableFuture<GatewayResponse> processWithRateLimit(
             GatewayRequest request, RateLimitResult rateLimitResult) {
         if (!rateLimitResult.allowed()) {
-            log.warn("Rate limit exceeded for client: {}", request.getClientIdentifier());
+            log.debug("Rate limit exceeded for client: {}", request.getClientIdentifier());
             return CompletableFuture.completedFuture(
                     ResponseUtils.createRateLimitExceededResponse(rateLimitResult));
         }
@@ -72,97 +311,347 @@ public class GatewayService {
     }
 
     private CompletableFuture<GatewayResponse> processAllowedRequest(GatewayRequest request) {
-        var serviceId = extractServiceId(request.path());
-        var lbRequest = new LoadBalancerRequest(serviceId, request, null);
-        return loadBalancerService.selectInstance(lbRequest)
-                .thenCompose(instance -> forwardRequest(request, instance))
-                .exceptionally(throwable -> {
-                    log.error("Error in processAllowedRequest for path: {}", request.path(), throwable);
-                    return handleError(throwable);
+        var route = routeTable.match(request);
+        if (route == null) {
+            return CompletableFuture.completedFuture(noRoute(request));
+        }
+        if (responseCache.isCacheable(request, route)) {
+            var cached = responseCache.lookup(request, route);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+            // Misses are buffered so the body can be stored
+            return fetch(request, route, BodyMode.BUFFERED)
+                    .thenApply(response -> responseCache.store(request, route, response));
+        }
+        return fetch(request, route, proxyProperties.responseMode());
+    }
+
+    private CompletableFuture<GatewayResponse> fetch(GatewayRequest request, RouteMatch route, BodyMode responseMode) {
+        if (requestCoalescer.isCoalescable(request, route)) {
+            // Every waiter receives the same response, so it is buffered whatever the response mode
+            return requestCoalescer.execute(request, route, () -> routeRequest(request, route, BodyMode.BUFFERED));
+        }
+        return routeRequest(request, route, responseMode);
+    }
+
+    private CompletableFuture<GatewayResponse> routeRequest(GatewayRequest request, RouteMatch route,
+                                                            BodyMode responseMode) {
+        var deadline = deadlineTimer.deadlineFor(request, route);
+        return attempt(request, route, responseMode, retryHandler.policyFor(route), deadline, Set.of(), 0)
+                .exceptionally(this::handleError);
+    }
+
+    /**
+     * One upstream attempt, a retry goes to an instance that was not tried yet when there is one
+     */
+    private CompletableFuture<GatewayResponse> attempt(GatewayRequest request, RouteMatch route, BodyMode responseMode,
+                                                       RetryPolicy policy, Deadline deadline, Set<String> tried,
+                                                       int retries) {
+        if (deadline.isExpired()) {
+            return CompletableFuture.completedFuture(deadlineExceeded(request));
+        }
+        var lbRequest = new LoadBalancerRequest(route.serviceId(), request, null, tried);
+        return timed(request, Phase.LOAD_BALANCE, () -> loadBalancerService.selectInstance(lbRequest))
+                .thenCompose(instance -> {
+                    request.timings().routed(route.route().id(), route.serviceId());
+                    if (retries == 0) {
+                        retryHandler.recordRequest(route.serviceId());
+                    }
+                    var attempted = attempted(instance);
+                    return timed(request, Phase.UPSTREAM, () -> requestHedger.isHedgeable(request, route, policy)
+                                    ? hedged(request, route, instance, responseMode, deadline, tried, attempted)
+                                    : exchange(request, route, instance, responseMode, deadline).toFuture())
+                            .handle((response, throwable) -> {
+                                if (!retryHandler.shouldRetry(policy, request, route.serviceId(), retries, response, throwable)) {
+                                    return CompletableFuture.completedFuture(
+                                            throwable == null ? response : upstreamError(instance, throwable));
+                                }
+                                discard(response);
+                                var backoff = CompletableFuture.delayedExecutor(
+                                        backoffMillis(policy, retries, deadline), TimeUnit.MILLISECONDS);
+                                return CompletableFuture.runAsync(() -> { }, backoff)
+                                        .thenCompose(ignored -> attempt(request, route, responseMode, policy, deadline,
+                                                with(tried, attempted), retries + 1));
+                            })
+                            .thenCompose(Function.identity());
                 });
     }
 
-    private CompletableFuture<GatewayResponse> forwardRequest(GatewayRequest request, ServiceInstance instance) {
-        var targetUrl = buildTargetUrl(instance, request);
+    /**
+     * Exchange with the selected instance, hedged to another instance when it is slow to answer
+     *
+     * @param attempted  instances called by this attempt, the hedge's instance is added once selected
+     */
+    private CompletableFuture<GatewayResponse> hedged(GatewayRequest request, RouteMatch route, ServiceInstance instance,
+                                                      BodyMode responseMode, Deadline deadline, Set<String> tried,
+                                                      Set<String> attempted) {
+        var excluded = with(tried, attempted);
+        var lbRequest = new LoadBalancerRequest(route.serviceId(), request, null, excluded);
+        var hedge = Mono.defer(() -> {
+            var selection = loadBalancerService.selectInstance(lbRequest);
+            var claimed = new AtomicBoolean();
+            return Mono.fromFuture(selection, true)
+                    .flatMap(alternative -> {
+                        if (!claimed.compareAndSet(false, true)) {
+                            return Mono.empty();
+                        }
+                        // The load balancer falls back to tried instances when nothing else is left, those are not hedged to
+                        if (excluded.contains(alternative.id())) {
+                            circuitBreakers.release(alternative);
+                            return Mono.empty();
+                        }
+                        attempted.add(alternative.id());
+                        return exchange(request, route, alternative, responseMode, deadline);
+                    })
+                    // A hedge cancelled during selection gives its call back once the instance is known
+                    .doOnCancel(() -> selection.thenAccept(alternative -> {
+                        if (claimed.compareAndSet(false, true)) {
+                            circuitBreakers.release(alternative);
+                        }
+                    }));
+        });
+        return requestHedger.execute(route, exchange(request, route, instance, responseMode, deadline), hedge);
+    }
+
+    /**
+     * Upstream exchange shared by the async and direct-style pipelines
+     * The circuit breaker call claimed when the instance was selected is recorded with the outcome,
+     * or released when there is none: cancelled as a hedge loser or by the client, refused by the
+     * concurrency limit, or failed before anything was sent.
+     */
+    private Mono<GatewayResponse> exchange(GatewayRequest request, RouteMatch route, ServiceInstance instance,
+                                           BodyMode responseMode, Deadline deadline) {
+        var recorded = new AtomicBoolean();
+        return Mono.defer(() -> send(request, route, instance, responseMode, deadline, recorded))
+                .doFinally(signal -> {
+                    if (!recorded.get()) {
+                        circuitBreakers.release(instance);
+                    }
+                });
+    }
+
+    private Mono<GatewayResponse> send(GatewayRequest request, RouteMatch route, ServiceInstance instance,
+                                       BodyMode responseMode, Deadline deadline, AtomicBoolean recorded) {
+        var targetUrl = buildTargetUrl(instance, route, request);
         log.debug("Forwarding to: {}", targetUrl);
-        return webClient
+        var timer = new AttemptTimer(request.timings());
+        var responseTimeout = route.route().timeoutPolicy().response();
+        var requestSpec = upstreamClients.forInstance(instance)
                 .method(HttpMethod.valueOf(request.method()))
                 .uri(targetUrl)
-                .headers(headers -> addHeaders(headers, request))
-                .bodyValue(request.body() != null ? request.body() : new byte[0])
+                .headers(headers -> addHeaders(headers, request, deadline))
+                // Called once a connection has been acquired, right before the request is written
+                .httpRequest(httpRequest -> {
+                    timer.connected();
+                    if (responseTimeout != null) {
+                        httpRequest.<HttpClientRequest>getNativeRequest().responseTimeout(responseTimeout);
+                    }
+                });
+        // Upstream error statuses are relayed to the client as they are, not raised as exceptions;
+        // the status predicate runs when the response headers arrive, which marks the first byte
+        var responseSpec = withBody(requestSpec, request.body())
                 .retrieve()
+                .onStatus(timer::firstByte, clientResponse -> Mono.empty());
+        var response = switch (responseMode) {
+            case BUFFERED -> bufferResponse(responseSpec, instance);
+            case STREAMING -> streamResponse(responseSpec, instance);
+        };
+        // A call rejected by the concurrency limit never reaches the instance and is not recorded against it
+        return concurrencyLimiter.limit(route.serviceId(), Mono.defer(() -> {
+            var startNanos = System.nanoTime();
+            timer.started(startNanos);
+            return deadlineTimer.within(response, deadline)
+                    .doOnSuccess(result -> {
+                        recorded.set(true);
+                        circuitBreakers.recordResponse(instance, startNanos, result.statusCode());
+                        outlierDetector.recordResponse(instance, startNanos, result.statusCode());
+                    })
+                    .doOnError(throwable -> {
+                        recorded.set(true);
+                        circuitBreakers.recordFailure(instance, startNanos, throwable);
+                        outlierDetector.recordFailure(instance, throwable);
+                    });
+        }));
+    }
+
+    /**
+     * Attach the request payload, streamed and spilled bodies are piped without touching the heap
+     */
+    private WebClient.RequestHeadersSpec<?> withBody(WebClient.RequestBodySpec requestSpec, RequestPayload body) {
+        return switch (body) {
+            case RequestPayload.Empty empty -> requestSpec;
+            case RequestPayload.InMemory inMemory -> requestSpec.bodyValue(inMemory.bytes());
+            case RequestPayload.Spilled spilled -> requestSpec.body(BodyInserters.fromDataBuffers(spilled.toDataBuffers()));
+            case RequestPayload.Streamed streamed -> requestSpec.body(BodyInserters.fromDataBuffers(streamed.toDataBuffers()));
+        };
+    }
+
+    /**
+     * Aggregate the upstream body on heap, bounded by maxInMemorySize
+     */
+    private Mono<GatewayResponse> bufferResponse(WebClient.ResponseSpec responseSpec, ServiceInstance instance) {
+        return responseSpec
                 .toEntity(byte[].class)
-                .timeout(Duration.ofSeconds(30))
-                .toFuture()
-                .thenApply(responseEntity -> {
+                .map(responseEntity -> {
                     var statusCode = responseEntity.getStatusCode().value();
                     var responseBody = responseEntity.getBody();
                     // Handle null response body - some endpoints may return empty body
                     var body = responseBody != null ? responseBody : new byte[0];
                     log.debug("Received response: status={}, bodySize={} bytes from instance: {}",
                             statusCode, body.length, instance.id());
-                    return new GatewayResponse(
-                            statusCode,
-                            ResponseUtils.convertHeaders(responseEntity.getHeaders()),
-                            body,
-                            System.currentTimeMillis(),
-                            instance.id(),
-                            0L
-                    );
-                })
-                .exceptionally(throwable -> {
-                    log.error("Error forwarding request to {}: {}", targetUrl, throwable.getMessage(), throwable);
-                    return handleError(throwable);
+                    return GatewayResponse.builder()
+                            .statusCode(statusCode)
+                            .headers(responseEntity.getHeaders())
+                            .body(body)
+                            .timestamp(System.currentTimeMillis())
+                            .instanceId(instance.id())
+                            .build();
                 });
     }
 
-    private String extractServiceId(String path) {
-        // /api/user-service/users -> user-service
-        if (path.startsWith("/api/")) {
-            var parts = path.substring(5).split("/");
-            return parts.length > 0 ? parts[0] : "default";
-        }
-        return "default";
+    /**
+     * Complete as soon as upstream headers arrive and hand the body over as a live stream
+     */
+    private Mono<GatewayResponse> streamResponse(WebClient.ResponseSpec responseSpec, ServiceInstance instance) {
+        return responseSpec
+                .toEntityFlux(DataBuffer.class)
+                .map(responseEntity -> {
+                    var statusCode = responseEntity.getStatusCode().value();
+                    log.debug("Streaming response: status={} from instance: {}", statusCode, instance.id());
+                    return GatewayResponse.builder()
+                            .statusCode(statusCode)
+                            .headers(responseEntity.getHeaders())
+                            .bodyStream(responseEntity.getBody())
+                            .timestamp(System.currentTimeMillis())
+                            .instanceId(instance.id())
+                            .build();
+                });
     }
 
-    private String buildTargetUrl(ServiceInstance instance, GatewayRequest request) {
-        // Remove /api/service-name prefix and forward to instance
-        var path = request.path();
-        var cleanPath = path.replaceFirst("/api/[^/]+", "");
-        var baseUrl = STR."\{instance.getUrl()}\{cleanPath}";
+    /**
+     * Upstream URL of the request on the selected instance, package-private for the benchmarks
+     */
+    static URI buildTargetUrl(ServiceInstance instance, RouteMatch route, GatewayRequest request) {
+        // Path and query are forwarded exactly as received, URI.create skips template expansion and re-encoding
+        var rawQuery = request.rawQuery();
+        var baseUrl = STR."\{instance.getUrl()}\{route.upstreamPath()}";
+        return URI.create(rawQuery == null ? baseUrl : STR."\{baseUrl}?\{rawQuery}");
+    }
 
-        // Add query parameters if present
-        if (request.queryParams() != null && !request.queryParams().isEmpty()) {
-            var queryString = request.queryParams().entrySet().stream()
-                    .map(entry -> {
-                        var key = URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8);
-                        var value = entry.getValue() != null
-                                ? URLEncoder.encode(entry.getValue(), StandardCharsets.UTF_8)
-                                : "";
-                        return STR."\{key}=\{value}";
-                    })
-                    .reduce((a, b) -> STR."\{a}&\{b}")
-                    .orElse("");
-            if (!queryString.isEmpty()) {
-                return STR."\{baseUrl}?\{queryString}";
+    private void addHeaders(HttpHeaders headers, GatewayRequest request, Deadline deadline) {
+        var connection = request.getHeader(HttpHeaders.CONNECTION);
+        request.headers().forEachValue((name, value) -> {
+            if (!HeaderFilters.isExcludedFromRequest(name, connection)) {
+                headers.add(name, value);
             }
+        });
+        headers.add("X-Gateway-Request-ID", request.id());
+        headers.add("X-Gateway-Timestamp", String.valueOf(request.timestamp()));
+        // Remaining budget at send time, replaces whatever budget the client sent
+        headers.set(deadlineTimer.deadlineHeader(), String.valueOf(Math.max(0, deadline.remainingMillis())));
+    }
+
+    private GatewayResponse noRoute(GatewayRequest request) {
+        log.debug("No route for {} {}", request.method(), request.path());
+        return ResponseUtils.createErrorResponse(404, "No route matches the request");
+    }
+
+    /**
+     * Retry pause, never past the deadline
+     */
+    private long backoffMillis(RetryPolicy policy, int retries, Deadline deadline) {
+        return Math.max(0, Math.min(retryHandler.backoffMillis(policy, retries), deadline.remainingMillis()));
+    }
+
+    private GatewayResponse deadlineExceeded(GatewayRequest request) {
+        log.debug("Deadline exceeded before forwarding {} {}", request.method(), request.path());
+        return ResponseUtils.createErrorResponse(504, "Deadline exceeded");
+    }
+
+    /**
+     * Release the body of a response that is dropped in favour of a retry
+     */
+    private static void discard(GatewayResponse response) {
+        if (response != null && response.bodyStream() != null) {
+            response.bodyStream().subscribe(DataBufferUtils::release, error -> { });
+        }
+    }
+
+    private static Set<String> with(Set<String> tried, Set<String> attempted) {
+        var next = new HashSet<>(tried);
+        next.addAll(attempted);
+        return next;
+    }
+
+    /**
+     * Instances called by one attempt, a hedge adds its instance from another thread
+     */
+    private static Set<String> attempted(ServiceInstance instance) {
+        var attempted = ConcurrentHashMap.<String>newKeySet();
+        attempted.add(instance.id());
+        return attempted;
+    }
+
+    /**
+     * Connection acquisition and time to first byte of one upstream exchange
+     */
+    private static final class AttemptTimer {
+
+        private final RequestTimings timings;
+
+        private volatile long startedAt;
+
+        private volatile long connectedAt;
+
+        AttemptTimer(RequestTimings timings) {
+            this.timings = timings;
+        }
+
+        void started(long startNanos) {
+            startedAt = startNanos;
+        }
+
+        void connected() {
+            var now = System.nanoTime();
+            connectedAt = now;
+            timings.add(Phase.CONNECT, now - startedAt);
+        }
+
+        boolean firstByte(HttpStatusCode status) {
+            timings.record(Phase.FIRST_BYTE, connectedAt);
+            return true;
         }
-        return baseUrl;
     }
 
-    private void addHeaders(HttpHeaders headers, GatewayRequest request) {
-        if (request.headers() != null) {
-            request.headers().forEach((key, value) -> {
-                if (!key.equalsIgnoreCase("host")) {
-                    headers.add(key, value);
-                }
-            });
+    /**
+     * Failed upstream exchange: 504 when the upstream did not answer in time, 502 otherwise
+     * Calls the gateway refused itself, such as over the concurrency limit, keep their own status.
+     */
+    private GatewayResponse upstreamError(ServiceInstance instance, Throwable throwable) {
+        var cause = Exceptions.unwrap(throwable);
+        while ((cause instanceof CompletionException || cause instanceof WebClientRequestException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
         }
-        headers.add("X-Gateway-Request-ID", request.id());
-        headers.add("X-Gateway-Timestamp", String.valueOf(request.timestamp()));
+        if (cause instanceof GatewayException) {
+            return handleError(cause);
+        }
+        log.error("Error forwarding request to {}: {}", instance.getUrl(), throwable.getMessage(), throwable);
+        // Deadline expiry surfaces as TimeoutException, the per-request response timeout as Netty's ReadTimeoutException
+        return cause instanceof TimeoutException || cause instanceof ReadTimeoutException
+                ? ResponseUtils.createErrorResponse(504, "Upstream timed out")
+                : ResponseUtils.createErrorResponse(502, "Upstream unavailable");
     }
 
     private GatewayResponse handleError(Throwable throwable) {
+        var cause = throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause() : throwable;
+        // Gateway exceptions such as NoHealthyInstanceException carry their own status
+        if (cause instanceof GatewayException gatewayException) {
+            log.warn("Request failed: {}", gatewayException.getMessage());
+            return ResponseUtils.createErrorResponse(gatewayException.getHttpStatus(), gatewayException.getMessage());
+        }
         log.error("Error processing request", throwable);
         return ResponseUtils.createErrorResponse(500, "Internal server error");
     }
@@ -8,12 +8,14 @@ import com.mo.gateway.spi.auth.AuthenticationContext;
 import com.mo.gateway.spi.auth.AuthenticationProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Authentication Service
@@ -30,9 +32,13 @@ public class AuthenticationService {
 
     private final AuthContextFactory contextFactory;
 
-    public AuthenticationService(AuthPluginManager pluginManager, RedisTemplate<String, Object> redisTemplate) {
+    private final Executor executor;
+
+    public AuthenticationService(AuthPluginManager pluginManager, RedisTemplate<String, Object> redisTemplate,
+                                 @Qualifier("gatewayTaskExecutor") Executor executor) {
         this.pluginManager = pluginManager;
         this.redisTemplate = redisTemplate;
+        this.executor = executor;
         this.contextFactory = new AuthContextFactory(redisTemplate);
     }
 
@@ -84,7 +90,7 @@ public class AuthenticationService {
                 log.debug("Authentication failed in {}ms", processingTime);
                 return AuthenticationResult.failure("INTERNAL_ERROR", "Internal authentication error");
             }
-        });
+        }, executor);
     }
 
     /**
@@ -108,9 +114,9 @@ public class AuthenticationService {
      * Convert gateway request to authentication request
      */
     private AuthenticationRequest buildAuthenticationRequest(GatewayRequest gatewayRequest) {
-        Map<String, String> headers = gatewayRequest.headers() != null ?
-                new HashMap<>(gatewayRequest.headers()) : new HashMap<>();
-        Map<String, String> queryParams = new HashMap<>();
+        Map<String, String> headers = gatewayRequest.headers();
+        Map<String, String> queryParams = gatewayRequest.queryParams() != null ?
+                gatewayRequest.queryParams() : Map.of();
         return new AuthenticationRequest(
                 gatewayRequest.path(),
                 gatewayRequest.method(),
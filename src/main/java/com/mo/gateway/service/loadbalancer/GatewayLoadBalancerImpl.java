@@ -1,6 +1,8 @@
 package com.mo.gateway.service.loadbalancer;
 
 import com.mo.gateway.component.loadbalancer.LoadBalancingStrategy;
+import com.mo.gateway.component.resilience.CircuitBreakerRegistry;
+import com.mo.gateway.component.resilience.OutlierDetector;
 import com.mo.gateway.config.properties.LoadBalancerProperties;
 import com.mo.gateway.exception.NoHealthyInstanceException;
 import com.mo.gateway.model.loadbalancer.HealthStatus;
@@ -12,11 +14,12 @@ import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 /**
  * Gateway Load Balancer Implementation
- * Coordinates service discovery and load balancing strategies
+ * Coordinates service discovery, outlier ejection, circuit breakers and load balancing strategies
  */
 @Service
 public class GatewayLoadBalancerImpl implements LoadBalancerService {
@@ -29,10 +32,18 @@ public class GatewayLoadBalancerImpl implements LoadBalancerService {
 
     private final LoadBalancerProperties properties;
 
-    public GatewayLoadBalancerImpl(Map<String, LoadBalancingStrategy> strategies, ServiceDiscoveryService serviceDiscovery, LoadBalancerProperties properties) {
+    private final CircuitBreakerRegistry circuitBreakers;
+
+    private final OutlierDetector outlierDetector;
+
+    public GatewayLoadBalancerImpl(Map<String, LoadBalancingStrategy> strategies, ServiceDiscoveryService serviceDiscovery,
+                                   LoadBalancerProperties properties, CircuitBreakerRegistry circuitBreakers,
+                                   OutlierDetector outlierDetector) {
         this.strategies = strategies;
         this.serviceDiscovery = serviceDiscovery;
         this.properties = properties;
+        this.circuitBreakers = circuitBreakers;
+        this.outlierDetector = outlierDetector;
     }
 
     @Override
@@ -52,13 +63,38 @@ public class GatewayLoadBalancerImpl implements LoadBalancerService {
             throw new NoHealthyInstanceException(
                     STR."No healthy instances available for service: \{request.serviceId()}");
         }
+        outlierDetector.discovered(instances);
+        var candidates = circuitBreakers.available(
+                outlierDetector.notEjected(withoutExcluded(instances, request.excludedInstanceIds())));
         var strategyName = properties.getStrategy(request.serviceId());
         var strategy = strategies.get(strategyName);
         if (strategy == null) {
             log.warn("Unknown load balancing strategy: {}, using default", strategyName);
             strategy = strategies.get(properties.defaultStrategy());
         }
-        return strategy.select(instances, request);
+        // A half-open instance may run out of trial calls between filtering and selection
+        while (!candidates.isEmpty()) {
+            var selected = strategy.select(candidates, request);
+            if (circuitBreakers.tryAcquire(selected)) {
+                return selected;
+            }
+            candidates = candidates.stream().filter(instance -> instance != selected).toList();
+        }
+        throw new NoHealthyInstanceException(
+                STR."All instances of service \{request.serviceId()} have an open circuit", request.serviceId());
+    }
+
+    /**
+     * Drop already tried instances, a retry still goes to one of them when nothing else is left
+     */
+    private static List<ServiceInstance> withoutExcluded(List<ServiceInstance> instances, Set<String> excluded) {
+        if (excluded.isEmpty()) {
+            return instances;
+        }
+        var remaining = instances.stream()
+                .filter(instance -> !excluded.contains(instance.id()))
+                .toList();
+        return remaining.isEmpty() ? instances : remaining;
     }
 
     @Override
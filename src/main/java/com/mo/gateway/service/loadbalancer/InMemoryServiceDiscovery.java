@@ -0,0 +1,107 @@
+package com.mo.gateway.service.loadbalancer;
+
+import com.mo.gateway.model.loadbalancer.HealthStatus;
+import com.mo.gateway.model.loadbalancer.ServiceInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-Memory Service Discovery Implementation
+ * Instances are registered and removed through the admin API, the healthy instances of each
+ * service are kept as an immutable snapshot rebuilt on every change so lookups do not allocate.
+ */
+@Service
+@ConditionalOnProperty(name = "gateway.discovery.type", havingValue = "memory", matchIfMissing = true)
+public class InMemoryServiceDiscovery implements ServiceDiscoveryService {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryServiceDiscovery.class);
+
+    private static final CompletableFuture<List<ServiceInstance>> NO_INSTANCES =
+            CompletableFuture.completedFuture(List.of());
+
+    private final Map<String, Map<String, ServiceInstance>> serviceRegistry = new ConcurrentHashMap<>();
+
+    private final Map<String, CompletableFuture<List<ServiceInstance>>> healthyInstances = new ConcurrentHashMap<>();
+
+    @Override
+    public CompletableFuture<List<ServiceInstance>> getHealthyInstances(String serviceId) {
+        return healthyInstances.getOrDefault(serviceId, NO_INSTANCES);
+    }
+
+    @Override
+    public List<ServiceInstance> getAllInstances() {
+        return serviceRegistry.values().stream()
+                .flatMap(instances -> instances.values().stream())
+                .toList();
+    }
+
+    @Override
+    public void registerInstance(ServiceInstance instance) {
+        var id = instance.id() != null ? instance.id() : STR."\{instance.host()}:\{instance.port()}";
+        var registered = ServiceInstance.builder()
+                .id(id)
+                .serviceId(instance.serviceId())
+                .host(instance.host())
+                .port(instance.port())
+                .protocol(instance.protocol())
+                .weight(instance.weight())
+                .healthStatus(instance.healthStatus())
+                .metadata(instance.metadata())
+                .lastHealthCheck(System.currentTimeMillis())
+                .build();
+        serviceRegistry.computeIfAbsent(instance.serviceId(), k -> new ConcurrentHashMap<>()).put(id, registered);
+        refresh(instance.serviceId());
+        log.info("Registered instance {} of service {} at {}", id, instance.serviceId(), registered.getUrl());
+    }
+
+    @Override
+    public void deregisterInstance(String serviceId, String instanceId) {
+        var instances = serviceRegistry.get(serviceId);
+        if (instances != null && instances.remove(instanceId) != null) {
+            refresh(serviceId);
+            log.info("Deregistered instance {} of service {}", instanceId, serviceId);
+        }
+    }
+
+    @Override
+    public void updateInstanceHealth(String serviceId, String instanceId, HealthStatus status) {
+        var instances = serviceRegistry.get(serviceId);
+        if (instances != null) {
+            var instance = instances.get(instanceId);
+            if (instance != null) {
+                var updatedInstance = ServiceInstance.builder()
+                        .id(instance.id())
+                        .serviceId(instance.serviceId())
+                        .host(instance.host())
+                        .port(instance.port())
+                        .protocol(instance.protocol())
+                        .weight(instance.weight())
+                        .healthStatus(status)
+                        .metadata(instance.metadata())
+                        .lastHealthCheck(System.currentTimeMillis())
+                        .build();
+                instances.put(instanceId, updatedInstance);
+                refresh(serviceId);
+                log.debug("Updated health status for instance {} to {}", instanceId, status);
+            }
+        }
+    }
+
+    /**
+     * Rebuild the healthy snapshot of a service, serialized so concurrent changes cannot publish a stale one
+     */
+    private synchronized void refresh(String serviceId) {
+        var instances = serviceRegistry.get(serviceId);
+        var healthy = instances == null ? List.<ServiceInstance>of() : instances.values().stream()
+                .filter(ServiceInstance::isHealthy)
+                .toList();
+        healthyInstances.put(serviceId, CompletableFuture.completedFuture(healthy));
+    }
+}
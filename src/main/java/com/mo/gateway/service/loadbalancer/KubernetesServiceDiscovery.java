@@ -10,11 +10,13 @@ import io.fabric8.kubernetes.client.WatcherException;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -33,9 +35,13 @@ public class KubernetesServiceDiscovery implements ServiceDiscoveryService {
 
     private final Map<String, Map<String, ServiceInstance>> serviceRegistry = new ConcurrentHashMap<>();
 
-    public KubernetesServiceDiscovery(KubernetesClient kubernetesClient, ServiceDiscoveryProperties discoveryProperties) {
+    private final Executor executor;
+
+    public KubernetesServiceDiscovery(KubernetesClient kubernetesClient, ServiceDiscoveryProperties discoveryProperties,
+                                      @Qualifier("gatewayTaskExecutor") Executor executor) {
         this.kubernetesClient = kubernetesClient;
         this.config = discoveryProperties.kubernetes();
+        this.executor = executor;
     }
 
     @PostConstruct
@@ -54,7 +60,14 @@ public class KubernetesServiceDiscovery implements ServiceDiscoveryService {
             return instances.values().stream()
                     .filter(ServiceInstance::isHealthy)
                     .toList();
-        });
+        }, executor);
+    }
+
+    @Override
+    public List<ServiceInstance> getAllInstances() {
+        return serviceRegistry.values().stream()
+                .flatMap(instances -> instances.values().stream())
+                .toList();
     }
 
     private void startServiceWatcher() {
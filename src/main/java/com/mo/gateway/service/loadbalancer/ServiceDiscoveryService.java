@@ -17,6 +17,11 @@ public interface ServiceDiscoveryService {
      */
     CompletableFuture<List<ServiceInstance>> getHealthyInstances(String serviceId);
 
+    /**
+     * Get every known instance of every service, whatever its health status
+     */
+    List<ServiceInstance> getAllInstances();
+
     /**
      * Register a new service instance
      */
@@ -7,11 +7,13 @@ import com.mo.gateway.model.ratelimit.RateLimitRequest;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -30,9 +32,13 @@ public class ConfigurableRateLimitPolicyResolver implements RateLimitPolicyResol
 
     private final Map<String, RateLimitPolicy> configuredPolicies = new ConcurrentHashMap<>();
 
-    public ConfigurableRateLimitPolicyResolver(RateLimitProperties properties, RateLimitPolicyProperties policyProperties) {
+    private final Executor executor;
+
+    public ConfigurableRateLimitPolicyResolver(RateLimitProperties properties, RateLimitPolicyProperties policyProperties,
+                                               @Qualifier("gatewayTaskExecutor") Executor executor) {
         this.properties = properties;
         this.policyProperties = policyProperties;
+        this.executor = executor;
     }
 
     @PostConstruct
@@ -46,6 +52,7 @@ public class ConfigurableRateLimitPolicyResolver implements RateLimitPolicyResol
                     .windowSizeMs(config.windowSizeMs())
                     .algorithmType(config.algorithmType())
                     .requestCost(config.requestCost())
+                    .storage(config.storage())
                     .build();
             configuredPolicies.put(name, policy);
             log.debug("Loaded policy: {} with capacity: {}", name, config.capacity());
@@ -75,7 +82,7 @@ public class ConfigurableRateLimitPolicyResolver implements RateLimitPolicyResol
                 log.error("Error resolving configurable rate limit policy", e);
                 return getDefaultPolicy();
             }
-        });
+        }, executor);
     }
 
     @Override
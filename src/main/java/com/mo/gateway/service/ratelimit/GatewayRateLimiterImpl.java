@@ -3,6 +3,8 @@ package com.mo.gateway.service.ratelimit;
 import com.mo.gateway.component.ratelimit.RateLimitingAlgorithm;
 import com.mo.gateway.component.ratelimit.storage.RateLimitStorage;
 import com.mo.gateway.config.properties.RateLimitProperties;
+import com.mo.gateway.model.dto.RequestTimings;
+import com.mo.gateway.model.dto.RequestTimings.Phase;
 import com.mo.gateway.model.ratelimit.RateLimitPolicy;
 import com.mo.gateway.model.ratelimit.RateLimitRequest;
 import com.mo.gateway.model.ratelimit.RateLimitResult;
@@ -15,7 +17,7 @@ import java.util.concurrent.CompletableFuture;
 
 /**
  * Gateway Rate Limiter Implementation
- * Uses configurable algorithms and storage backends
+ * Uses configurable algorithms and storage backends, both selected per policy by bean name
  */
 @Service
 public class GatewayRateLimiterImpl implements RateLimiterService {
@@ -24,16 +26,16 @@ public class GatewayRateLimiterImpl implements RateLimiterService {
 
     private final Map<String, RateLimitingAlgorithm> algorithms;
 
-    private final RateLimitStorage storage;
+    private final Map<String, RateLimitStorage> storages;
 
     private final RateLimitPolicyResolver policyResolver;
 
     private final RateLimitProperties properties;
 
-    public GatewayRateLimiterImpl(Map<String, RateLimitingAlgorithm> algorithms, RateLimitStorage storage,
+    public GatewayRateLimiterImpl(Map<String, RateLimitingAlgorithm> algorithms, Map<String, RateLimitStorage> storages,
          RateLimitPolicyResolver policyResolver, RateLimitProperties properties) {
         this.algorithms = algorithms;
-        this.storage = storage;
+        this.storages = storages;
         this.policyResolver = policyResolver;
         this.properties = properties;
     }
@@ -53,15 +55,20 @@ public class GatewayRateLimiterImpl implements RateLimiterService {
             return CompletableFuture.completedFuture(
                     RateLimitResult.allowed(Long.MAX_VALUE, Long.MAX_VALUE));
         }
+        var timings = request.timings();
+        var policyStart = System.nanoTime();
         return policyResolver.resolvePolicy(request)
                 .thenCompose(policy -> {
+                    var storageStart = System.nanoTime();
+                    record(timings, Phase.POLICY, policyStart);
                     var key = generateKey(request, policy);
                     var algorithm = algorithms.get(policy.algorithmType());
                     if (algorithm == null) {
                         log.warn("Unknown rate limiting algorithm: {}, using default", policy.algorithmType());
                         algorithm = algorithms.get(properties.defaultAlgorithm());
                     }
-                    return algorithm.checkLimit(key, policy, storage);
+                    return algorithm.checkLimit(key, policy, storage(policy))
+                            .whenComplete((result, throwable) -> record(timings, Phase.RATE_LIMIT, storageStart));
                 })
                 .exceptionally(throwable -> {
                     log.error("Rate limit check failed for client: {}", request.clientId(), throwable);
@@ -69,6 +76,24 @@ public class GatewayRateLimiterImpl implements RateLimiterService {
                 });
     }
 
+    private RateLimitStorage storage(RateLimitPolicy policy) {
+        if (policy.storage() == null) {
+            return storages.get(properties.defaultStorage());
+        }
+        var storage = storages.get(policy.storage());
+        if (storage == null) {
+            log.warn("Unknown rate limit storage: {}, using default", policy.storage());
+            storage = storages.get(properties.defaultStorage());
+        }
+        return storage;
+    }
+
+    private static void record(RequestTimings timings, Phase phase, long startNanos) {
+        if (timings != null) {
+            timings.record(phase, startNanos);
+        }
+    }
+
     private String generateKey(RateLimitRequest request, RateLimitPolicy policy) {
         return STR."rate_limit:\{policy.name()}:\{request.clientId()}:\{request.resource()}";
     }
@@ -1,16 +1,19 @@
 package com.mo.gateway.service.ratelimit;
 
 import com.mo.gateway.config.properties.RateLimitProperties;
+import com.mo.gateway.model.ratelimit.ClientTier;
 import com.mo.gateway.model.ratelimit.RateLimitPolicy;
 import com.mo.gateway.model.ratelimit.RateLimitRequest;
 import com.mo.gateway.model.ratelimit.RateLimitRule;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -28,8 +31,12 @@ public class RateLimitPolicyResolverImpl implements RateLimitPolicyResolver {
 
     private final List<RateLimitRule> rules;
 
-    public RateLimitPolicyResolverImpl(RateLimitProperties properties) {
+    private final Executor executor;
+
+    public RateLimitPolicyResolverImpl(RateLimitProperties properties,
+                                       @Qualifier("gatewayTaskExecutor") Executor executor) {
         this.properties = properties;
+        this.executor = executor;
         this.rules = initializeDefaultRules();
         initializePredefinedPolicies();
     }
@@ -61,7 +68,7 @@ public class RateLimitPolicyResolverImpl implements RateLimitPolicyResolver {
                 log.error("Error resolving rate limit policy, using default", e);
                 return getDefaultPolicy();
             }
-        });
+        }, executor);
     }
 
     @Override
@@ -112,11 +119,11 @@ public class RateLimitPolicyResolverImpl implements RateLimitPolicyResolver {
     private RateLimitPolicy getClientSpecificPolicy(String clientId) {
         if (clientId == null) return null;
         return policyCache.computeIfAbsent(STR."client:\{clientId}", k -> {
-            return switch (getClientType(clientId)) {
-                case "premium" -> createPremiumPolicy();
-                case "basic" -> createBasicPolicy();
-                case "free" -> createFreePolicy();
-                case "admin" -> createAdminPolicy();
+            return switch (ClientTier.of(clientId)) {
+                case PREMIUM -> createPremiumPolicy();
+                case BASIC -> createBasicPolicy();
+                case FREE -> createFreePolicy();
+                case ADMIN -> createAdminPolicy();
                 default -> null;
             };
         });
@@ -139,22 +146,6 @@ public class RateLimitPolicyResolverImpl implements RateLimitPolicyResolver {
         });
     }
 
-    /**
-     * Determine client type from client ID
-     */
-    private String getClientType(String clientId) {
-        if (clientId == null) return "anonymous";
-        return switch (clientId) {
-            case String id when id.startsWith("premium-") -> "premium";
-            case String id when id.startsWith("admin-") -> "admin";
-            case String id when id.startsWith("basic-") -> "basic";
-            case String id when id.startsWith("free-") -> "free";
-            case String id when id.contains("@") -> "user"; // Email-based
-            case "anonymous" -> "anonymous";
-            default -> "basic";
-        };
-    }
-
     /**
      * Initialize predefined policies
      */
@@ -0,0 +1,117 @@
+package com.mo.gateway.util;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Precomputed header filters for forwarding
+ * Candidate names are bucketed by length, so a check is one array index and at most a couple
+ * of same-length equalsIgnoreCase calls, with no lowercasing or set allocation per header.
+ */
+public final class HeaderFilters {
+
+    /**
+     * Hop-by-hop headers (RFC 9110 section 7.6.1) plus the legacy Proxy-Connection
+     */
+    private static final String[][] HOP_BY_HOP = byLength(
+            "Connection", "Keep-Alive", "Proxy-Authenticate", "Proxy-Authorization",
+            "Proxy-Connection", "TE", "Trailer", "Transfer-Encoding", "Upgrade");
+
+    /**
+     * Request headers the upstream connection sets itself
+     */
+    private static final String[][] REQUEST_EXCLUDED = byLength("Host");
+
+    /**
+     * Response headers recomputed by the gateway for the client connection
+     */
+    private static final String[][] RESPONSE_EXCLUDED = byLength(
+            "Content-Length");   // Recalculated from the body actually written
+
+    private HeaderFilters() {
+    }
+
+    /**
+     * Whether a request header must not be forwarded upstream
+     *
+     * @param connection value of the inbound Connection header, its tokens are hop-by-hop too
+     */
+    public static boolean isExcludedFromRequest(String name, String connection) {
+        return contains(HOP_BY_HOP, name) || contains(REQUEST_EXCLUDED, name) || isListedIn(connection, name);
+    }
+
+    /**
+     * Whether an upstream response header must not be forwarded to the client
+     *
+     * @param connection value of the upstream Connection header, its tokens are hop-by-hop too
+     */
+    public static boolean isExcludedFromResponse(String name, String connection) {
+        return contains(HOP_BY_HOP, name) || contains(RESPONSE_EXCLUDED, name) || isListedIn(connection, name);
+    }
+
+    /**
+     * Copy upstream response headers to the client response, keeping every value of multi-valued headers
+     */
+    public static void copyResponseHeaders(HttpHeaders source, HttpHeaders target) {
+        var connection = source.getFirst(HttpHeaders.CONNECTION);
+        source.forEach((name, values) -> {
+            if (!isExcludedFromResponse(name, connection)) {
+                target.addAll(name, values);
+            }
+        });
+    }
+
+    private static boolean contains(String[][] buckets, String name) {
+        if (name.length() >= buckets.length) {
+            return false;
+        }
+        for (var candidate : buckets[name.length()]) {
+            if (candidate.equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check the comma-separated Connection header tokens, rarely anything beyond keep-alive or close
+     */
+    private static boolean isListedIn(String connection, String name) {
+        if (connection == null || connection.length() < name.length()) {
+            return false;
+        }
+        var start = 0;
+        while (start < connection.length()) {
+            var end = connection.indexOf(',', start);
+            if (end < 0) end = connection.length();
+            var from = start;
+            var to = end;
+            while (from < to && connection.charAt(from) == ' ') from++;
+            while (to > from && connection.charAt(to - 1) == ' ') to--;
+            if (to - from == name.length() && connection.regionMatches(true, from, name, 0, name.length())) {
+                return true;
+            }
+            start = end + 1;
+        }
+        return false;
+    }
+
+    private static String[][] byLength(String... names) {
+        var maxLength = 0;
+        for (var name : names) {
+            maxLength = Math.max(maxLength, name.length());
+        }
+        var buckets = new String[maxLength + 1][];
+        for (var length = 0; length <= maxLength; length++) {
+            var size = 0;
+            for (var name : names) {
+                if (name.length() == length) size++;
+            }
+            buckets[length] = new String[size];
+            var i = 0;
+            for (var name : names) {
+                if (name.length() == length) buckets[length][i++] = name;
+            }
+        }
+        return buckets;
+    }
+}
@@ -0,0 +1,27 @@
+package com.mo.gateway.util;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Request ID generator
+ * IDs keep the random UUID format clients and upstreams already parse, but are drawn from
+ * ThreadLocalRandom: UUID.randomUUID goes through a shared SecureRandom, which costs far more
+ * and serializes concurrent callers. Request IDs correlate logs and are not secrets, so they do
+ * not need cryptographic randomness.
+ */
+public final class RequestIds {
+
+    private RequestIds() {
+    }
+
+    /**
+     * New random version 4 UUID string
+     */
+    public static String next() {
+        var random = ThreadLocalRandom.current();
+        var mostSigBits = (random.nextLong() & ~0xF000L) | 0x4000L;
+        var leastSigBits = (random.nextLong() & ~(0xC000L << 48)) | (0x8000L << 48);
+        return new UUID(mostSigBits, leastSigBits).toString();
+    }
+}
@@ -1,10 +1,11 @@
 package com.mo.gateway.util;
 
+import com.mo.gateway.component.proxy.ServletRequestHeaders;
 import com.mo.gateway.model.dto.GatewayRequest;
+import com.mo.gateway.model.dto.RequestHeaders;
+import com.mo.gateway.model.dto.RequestPayload;
 import jakarta.servlet.http.HttpServletRequest;
-
-import java.util.HashMap;
-import java.util.Map;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 
 /**
  * Utility class for HTTP request processing
@@ -18,61 +19,27 @@ public final class RequestUtils {
     /**
      * Convert HttpServletRequest to GatewayRequest
      */
-    public static GatewayRequest fromHttpServletRequest(HttpServletRequest request, byte[] body) {
+    public static GatewayRequest fromHttpServletRequest(HttpServletRequest request, RequestPayload body) {
         return GatewayRequest.builder()
                 .path(request.getRequestURI())
                 .method(request.getMethod())
-                .headers(extractHeaders(request))
-                .queryParams(extractQueryParams(request))
+                .headers(new ServletRequestHeaders(request))
+                .rawQuery(request.getQueryString())
                 .body(body)
                 .build();
     }
 
     /**
-     * Extract headers from HttpServletRequest
+     * Convert a reactive ServerHttpRequest to GatewayRequest
      */
-    private static Map<String, String> extractHeaders(HttpServletRequest request) {
-        var headers = new HashMap<String, String>();
-        var headerNames = request.getHeaderNames();
-        if (headerNames != null) {
-            while (headerNames.hasMoreElements()) {
-                var headerName = headerNames.nextElement();
-                headers.put(headerName, request.getHeader(headerName));
-            }
-        }
-        return headers;
-    }
-
-    private static Map<String, String> extractQueryParams(HttpServletRequest request) {
-        var queryString = request.getQueryString();
-        if (queryString == null || queryString.isEmpty()) {
-            return Map.of();
-        }
-        var params = new HashMap<String, String>();
-        var pairs = queryString.split("&");
-        for (var pair : pairs) {
-            if (pair == null || pair.isEmpty()) {
-                continue;
-            }
-            var keyValue = pair.split("=", 2);
-            try {
-                if (keyValue.length == 2) {
-                    var key = java.net.URLDecoder.decode(keyValue[0], java.nio.charset.StandardCharsets.UTF_8);
-                    var value = java.net.URLDecoder.decode(keyValue[1], java.nio.charset.StandardCharsets.UTF_8);
-                    params.put(key, value);
-                } else if (keyValue.length == 1 && !keyValue[0].isEmpty()) {
-                    var key = java.net.URLDecoder.decode(keyValue[0], java.nio.charset.StandardCharsets.UTF_8);
-                    params.put(key, "");
-                }
-            } catch (Exception e) {
-                if (keyValue.length == 2) {
-                    params.put(keyValue[0], keyValue[1]);
-                } else if (keyValue.length == 1 && !keyValue[0].isEmpty()) {
-                    params.put(keyValue[0], "");
-                }
-            }
-        }
-        return params;
+    public static GatewayRequest fromServerHttpRequest(ServerHttpRequest request, RequestPayload body) {
+        return GatewayRequest.builder()
+                .path(request.getPath().value())
+                .method(request.getMethod().name())
+                .headers(RequestHeaders.of(request.getHeaders()))
+                .rawQuery(request.getURI().getRawQuery())
+                .body(body)
+                .build();
     }
 
     /**
@@ -2,11 +2,12 @@ package com.mo.gateway.util;
 
 import com.mo.gateway.model.dto.GatewayResponse;
 import com.mo.gateway.model.ratelimit.RateLimitResult;
-import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 
-import java.util.HashMap;
+import java.nio.file.AccessDeniedException;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Utility class for HTTP response processing
@@ -43,6 +44,28 @@ public final class ResponseUtils {
                 .build();
     }
 
+    /**
+     * Create response for a request shed under overload
+     */
+    public static GatewayResponse createOverloadedResponse() {
+        var headers = Map.of(
+                "Content-Type", "application/json",
+                "Retry-After", "1"
+        );
+        var body = STR."""
+            {
+                "error": "\{getErrorType(503)}",
+                "message": "Gateway is overloaded, request shed",
+                "timestamp": \{System.currentTimeMillis()}
+            }
+            """;
+        return GatewayResponse.builder()
+                .statusCode(503)
+                .headers(headers)
+                .body(body.getBytes())
+                .build();
+    }
+
     /**
      * Create generic error response
      */
@@ -63,25 +86,42 @@ public final class ResponseUtils {
     }
 
     /**
-     * Convert Spring HttpHeaders to Map
-     * Filters out headers that should not be forwarded because the response body is already decoded
+     * Convert GatewayResponse to a servlet ResponseEntity
+     * Streaming bodies are written chunk by chunk by StreamingBodyHttpMessageConverter
      */
-    public static Map<String, String> convertHeaders(HttpHeaders httpHeaders) {
-        var headers = new HashMap<String, String>();
-        // Headers that should not be forwarded since body is already decoded by WebClient
-        var excludedHeaders = Set.of(
-                "content-encoding",  // Body is already decoded, don't forward encoding header
-                "transfer-encoding", // Body is already decoded, don't forward transfer encoding
-                "content-length",    // Will be recalculated by Spring based on actual body size
-                "connection"         // Connection management header, not needed for client
-        );
+    public static ResponseEntity<Object> toResponseEntity(GatewayResponse gatewayResponse) {
+        var builder = ResponseEntity.status(gatewayResponse.statusCode())
+                .headers(headers -> HeaderFilters.copyResponseHeaders(gatewayResponse.headers(), headers));
+        builder.header("X-Gateway-Instance", gatewayResponse.instanceId());
+        builder.header("X-Gateway-Processing-Time", String.valueOf(gatewayResponse.processingTimeMs()));
+        if (gatewayResponse.isStreaming()) {
+            return builder.body(gatewayResponse.bodyStream());
+        }
+        // Handle null body - use empty array if body is null
+        var body = gatewayResponse.body() != null ? gatewayResponse.body() : new byte[0];
+        return builder.body(body);
+    }
 
-        httpHeaders.forEach((key, values) -> {
-            if (!values.isEmpty() && !excludedHeaders.contains(key.toLowerCase())) {
-                headers.put(key, values.get(0));
-            }
-        });
-        return headers;
+    /**
+     * Create the response for a failure that escaped the gateway pipeline
+     */
+    public static GatewayResponse createExceptionResponse(Throwable throwable) {
+        var cause = throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause() : throwable;
+        return switch (cause) {
+            case TimeoutException e -> createSimpleErrorResponse(408, "Request timeout");
+            case AccessDeniedException e -> createSimpleErrorResponse(403, "Access denied");
+            case IllegalArgumentException e -> createSimpleErrorResponse(400, STR."Bad request: \{e.getMessage()}");
+            default -> createSimpleErrorResponse(500, "Internal server error");
+        };
+    }
+
+    private static GatewayResponse createSimpleErrorResponse(int statusCode, String error) {
+        return GatewayResponse.builder()
+                .statusCode(statusCode)
+                .headers(Map.of("Content-Type", "application/json"))
+                .body(STR."{\"error\":\"\{error}\"}".getBytes())
+                .build();
     }
 
     /**
@@ -0,0 +1,134 @@
+package com.mo.gateway.component.ratelimit.storage;
+
+import com.mo.gateway.config.properties.RateLimitProperties;
+import com.mo.gateway.config.properties.RateLimitProperties.LocalStorageSettings;
+import com.mo.gateway.model.ratelimit.RateLimitPolicy;
+import com.mo.gateway.model.ratelimit.RateLimitResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalRateLimitStorageTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+
+    private LocalRateLimitStorage storage;
+
+    @AfterEach
+    void tearDown() {
+        if (storage != null) {
+            storage.destroy();
+        }
+        taskScheduler.shutdown();
+    }
+
+    @Test
+    void consumesUntilEmptyThenRejectsWithRetryAfter() {
+        storage = storage(1000);
+        var policy = policy(2, 1);
+
+        assertThat(consume("client", policy)).extracting(RateLimitResult::allowed, RateLimitResult::remaining)
+                .containsExactly(true, 1L);
+        assertThat(consume("client", policy)).extracting(RateLimitResult::allowed, RateLimitResult::remaining)
+                .containsExactly(true, 0L);
+
+        var rejected = consume("client", policy);
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.limit()).isEqualTo(2);
+        assertThat(rejected.retryAfterMs()).isBetween(1L, 1000L);
+    }
+
+    @Test
+    void refillKeepsTheRemainderForTheNextToken() throws InterruptedException {
+        storage = storage(1000);
+        // One token every 100ms
+        var policy = policy(5, 10);
+        for (var i = 0; i < 5; i++) {
+            assertThat(consume("client", policy).allowed()).isTrue();
+        }
+
+        Thread.sleep(150);
+        assertThat(consume("client", policy).allowed()).isTrue();
+
+        // 60ms on top of the 50ms left over from the previous refill make another token
+        Thread.sleep(60);
+        assertThat(consume("client", policy).allowed()).isTrue();
+    }
+
+    @Test
+    void clampsCapacityToMaxCount() {
+        storage = storage(1000);
+        var policy = policy(1L << 40, 0);
+
+        var result = consume("client", policy);
+
+        assertThat(result.allowed()).isTrue();
+        assertThat(result.limit()).isEqualTo(LocalRateLimitStorage.MAX_COUNT);
+        assertThat(result.remaining()).isEqualTo(LocalRateLimitStorage.MAX_COUNT - 1);
+    }
+
+    @Test
+    void incrementStartsANewWindowOnceTheOldOneExpires() throws InterruptedException {
+        storage = storage(1000);
+
+        assertThat(storage.increment("window", 500).join()).isEqualTo(1);
+        assertThat(storage.increment("window", 500).join()).isEqualTo(2);
+        assertThat(storage.increment("window", 500).join()).isEqualTo(3);
+
+        Thread.sleep(600);
+        assertThat(storage.increment("window", 500).join()).isEqualTo(1);
+    }
+
+    @Test
+    void evictionKeepsEachStripeWithinItsShareOfMaxKeys() {
+        storage = storage(128);
+
+        for (var i = 0; i < 10_000; i++) {
+            storage.increment("client-" + i, 60_000).join();
+        }
+
+        // 64 stripes of 2 keys each
+        assertThat(storage.size()).isLessThanOrEqualTo(128);
+        assertThat(meterRegistry.get("gateway.ratelimit.local.evictions").tag("reason", "capacity").counter().count())
+                .isPositive();
+    }
+
+    @Test
+    void sweepDropsExpiredKeys() throws InterruptedException {
+        storage = storage(1000);
+        storage.increment("short", 20).join();
+        storage.increment("long", 60_000).join();
+
+        Thread.sleep(40);
+        storage.sweep();
+
+        assertThat(storage.size()).isEqualTo(1);
+    }
+
+    private LocalRateLimitStorage storage(int maxKeys) {
+        taskScheduler.initialize();
+        var properties = new RateLimitProperties(true, null, null, null, null, null, "local",
+                new LocalStorageSettings(maxKeys, Duration.ofMinutes(1)));
+        return new LocalRateLimitStorage(properties, meterRegistry, taskScheduler);
+    }
+
+    private RateLimitResult consume(String key, RateLimitPolicy policy) {
+        return storage.consumeTokens(key, policy).join();
+    }
+
+    private static RateLimitPolicy policy(long capacity, long refillRate) {
+        return RateLimitPolicy.builder()
+                .name("test")
+                .capacity(capacity)
+                .refillRate(refillRate)
+                .windowSizeMs(1000)
+                .build();
+    }
+}
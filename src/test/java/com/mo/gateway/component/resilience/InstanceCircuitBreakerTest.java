@@ -0,0 +1,117 @@
+package com.mo.gateway.component.resilience;
+
+import com.mo.gateway.component.resilience.InstanceCircuitBreaker.State;
+import com.mo.gateway.config.properties.LoadBalancerProperties.CircuitBreakerSettings;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InstanceCircuitBreakerTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+
+    private static final long SLOW = Duration.ofSeconds(2).toNanos();
+
+    private final List<State> transitions = new ArrayList<>();
+
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        var breaker = breaker(Duration.ofSeconds(10));
+
+        for (var i = 0; i < 3; i++) {
+            breaker.record(FAST, true);
+        }
+
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void opensWhenTheFailureRateReachesTheThreshold() {
+        var breaker = breaker(Duration.ofSeconds(10));
+        breaker.record(FAST, false);
+        breaker.record(FAST, false);
+        breaker.record(FAST, true);
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+
+        // 2 of 4 calls failed, exactly the 50% threshold
+        breaker.record(FAST, true);
+
+        assertThat(breaker.state()).isEqualTo(State.OPEN);
+        assertThat(transitions).containsExactly(State.OPEN);
+        assertThat(breaker.isAvailable()).isFalse();
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void staysClosedBelowTheFailureRateThreshold() {
+        var breaker = breaker(Duration.ofSeconds(10));
+        for (var i = 0; i < 3; i++) {
+            breaker.record(FAST, false);
+        }
+
+        // 2 of 5 calls failed
+        breaker.record(FAST, true);
+        breaker.record(FAST, true);
+
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void opensWhenTheSlowCallRateReachesTheThreshold() {
+        var breaker = breaker(Duration.ofSeconds(10));
+
+        for (var i = 0; i < 4; i++) {
+            breaker.record(SLOW, false);
+        }
+
+        assertThat(breaker.state()).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    void callsOlderThanTheWindowRollOut() throws InterruptedException {
+        // Ten buckets of 20ms
+        var breaker = breaker(Duration.ofMillis(200));
+        for (var i = 0; i < 3; i++) {
+            breaker.record(FAST, true);
+        }
+
+        Thread.sleep(250);
+        for (var i = 0; i < 3; i++) {
+            breaker.record(FAST, false);
+        }
+        // 2 of 5 calls in the window failed, with the expired ones it would be 5 of 8
+        breaker.record(FAST, true);
+        breaker.record(FAST, true);
+
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void halfOpenTrialsCloseTheCircuitAgain() throws InterruptedException {
+        var breaker = new InstanceCircuitBreaker(new CircuitBreakerSettings(0.5, 0.9, Duration.ofSeconds(1), 4,
+                Duration.ofSeconds(10), Duration.ofMillis(20), 2), transitions::add);
+        for (var i = 0; i < 4; i++) {
+            breaker.record(FAST, true);
+        }
+
+        Thread.sleep(30);
+        assertThat(breaker.isAvailable()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+        breaker.record(FAST, false);
+        breaker.record(FAST, false);
+
+        assertThat(transitions).containsExactly(State.OPEN, State.HALF_OPEN, State.CLOSED);
+    }
+
+    private InstanceCircuitBreaker breaker(Duration window) {
+        var settings = new CircuitBreakerSettings(0.5, 0.5, Duration.ofSeconds(1), 4, window,
+                Duration.ofSeconds(10), 2);
+        return new InstanceCircuitBreaker(settings, transitions::add);
+    }
+}